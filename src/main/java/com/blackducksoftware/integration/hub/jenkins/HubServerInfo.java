@@ -46,6 +46,20 @@ public class HubServerInfo {
 
     private int timeout;
 
+    private String scanMemoryCapacity;
+
+    private boolean cliFastStart;
+
+    private String cliInstallCheckTtl;
+
+    private boolean cliPreProvisioning;
+
+    private boolean skipWhenHubUnavailable;
+
+    private String maxConcurrentRequests;
+
+    private String maxRequestsPerSecond;
+
     public HubServerInfo() {
     }
 
@@ -70,6 +84,132 @@ public class HubServerInfo {
         this.timeout = timeout;
     }
 
+    /**
+     * The scan memory capacity of the nodes, one "label expression=memory in MB" entry per line
+     *
+     */
+    public String getScanMemoryCapacity() {
+        return scanMemoryCapacity;
+    }
+
+    public void setScanMemoryCapacity(final String scanMemoryCapacity) {
+        this.scanMemoryCapacity = scanMemoryCapacity;
+    }
+
+    /**
+     * Start the CLI JVM with the fast start options for small scans
+     *
+     */
+    public boolean isCliFastStart() {
+        return cliFastStart;
+    }
+
+    public void setCliFastStart(final boolean cliFastStart) {
+        this.cliFastStart = cliFastStart;
+    }
+
+    public static int getDefaultCliInstallCheckTtl() {
+        return 60;
+    }
+
+    /**
+     * The number of minutes a node reuses the result of its last CLI install check, 0 checks on every build
+     *
+     */
+    public String getCliInstallCheckTtl() {
+        return cliInstallCheckTtl;
+    }
+
+    public void setCliInstallCheckTtl(final String cliInstallCheckTtl) {
+        this.cliInstallCheckTtl = cliInstallCheckTtl;
+    }
+
+    public int getCliInstallCheckTtlInMinutes() {
+        if (StringUtils.isBlank(cliInstallCheckTtl)) {
+            return getDefaultCliInstallCheckTtl();
+        }
+        try {
+            return Math.max(0, Integer.parseInt(cliInstallCheckTtl.trim()));
+        } catch (final NumberFormatException e) {
+            return getDefaultCliInstallCheckTtl();
+        }
+    }
+
+    /**
+     * Install or validate the CLI in the background when a node comes online
+     *
+     */
+    public boolean isCliPreProvisioning() {
+        return cliPreProvisioning;
+    }
+
+    public void setCliPreProvisioning(final boolean cliPreProvisioning) {
+        this.cliPreProvisioning = cliPreProvisioning;
+    }
+
+    /**
+     * Skip the Hub steps instead of marking the Build unstable while the Hub is unavailable
+     *
+     */
+    public boolean isSkipWhenHubUnavailable() {
+        return skipWhenHubUnavailable;
+    }
+
+    public void setSkipWhenHubUnavailable(final boolean skipWhenHubUnavailable) {
+        this.skipWhenHubUnavailable = skipWhenHubUnavailable;
+    }
+
+    public static int getDefaultMaxConcurrentRequests() {
+        return 10;
+    }
+
+    public static int getDefaultMaxRequestsPerSecond() {
+        return 20;
+    }
+
+    /**
+     * The maximum number of Hub REST requests the Jenkins master makes at the same time, 0 for no limit
+     *
+     */
+    public String getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(final String maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getMaxConcurrentRequestsValue() {
+        return getLimit(maxConcurrentRequests, getDefaultMaxConcurrentRequests());
+    }
+
+    /**
+     * The maximum number of Hub REST requests the Jenkins master starts per second, 0 for no limit
+     *
+     */
+    public String getMaxRequestsPerSecond() {
+        return maxRequestsPerSecond;
+    }
+
+    public void setMaxRequestsPerSecond(final String maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    public int getMaxRequestsPerSecondValue() {
+        return getLimit(maxRequestsPerSecond, getDefaultMaxRequestsPerSecond());
+    }
+
+    private int getLimit(final String limit, final int defaultLimit) {
+        if (StringUtils.isBlank(limit)) {
+            return defaultLimit;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(limit.trim()));
+        } catch (final NumberFormatException e) {
+            return defaultLimit;
+        }
+    }
+
     public String getServerUrl() {
         return serverUrl;
     }
@@ -138,6 +278,20 @@ public class HubServerInfo {
         builder.append(credential);
         builder.append(", timeout=");
         builder.append(timeout);
+        builder.append(", scanMemoryCapacity=");
+        builder.append(scanMemoryCapacity);
+        builder.append(", cliFastStart=");
+        builder.append(cliFastStart);
+        builder.append(", cliInstallCheckTtl=");
+        builder.append(cliInstallCheckTtl);
+        builder.append(", cliPreProvisioning=");
+        builder.append(cliPreProvisioning);
+        builder.append(", skipWhenHubUnavailable=");
+        builder.append(skipWhenHubUnavailable);
+        builder.append(", maxConcurrentRequests=");
+        builder.append(maxConcurrentRequests);
+        builder.append(", maxRequestsPerSecond=");
+        builder.append(maxRequestsPerSecond);
         builder.append("]");
         return builder.toString();
     }
@@ -26,11 +26,13 @@ import java.io.IOException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 import com.blackducksoftware.integration.hub.jenkins.exceptions.HubConfigurationException;
 import com.blackducksoftware.integration.hub.jenkins.remote.GetCanonicalPath;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetSystemProperty;
 import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonScanStep;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFactsCache;
 import com.blackducksoftware.integration.log.IntLogger;
 
 import hudson.EnvVars;
@@ -63,6 +65,10 @@ public class PostBuildHubScan extends Recorder {
 
     private Boolean verbose;
 
+    private boolean parallelScans;
+
+    private boolean incrementalScan;
+
     // Old variable, renaming to hubProjectVersion
     // need to keep this around for now for migration purposes
     private String hubProjectRelease;
@@ -101,6 +107,24 @@ public class PostBuildHubScan extends Recorder {
         return dryRun;
     }
 
+    @DataBoundSetter
+    public void setParallelScans(final boolean parallelScans) {
+        this.parallelScans = parallelScans;
+    }
+
+    @DataBoundSetter
+    public void setIncrementalScan(final boolean incrementalScan) {
+        this.incrementalScan = incrementalScan;
+    }
+
+    public boolean isParallelScans() {
+        return parallelScans;
+    }
+
+    public boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+
     public boolean getShouldGenerateHubReport() {
         return shouldGenerateHubReport;
     }
@@ -167,7 +191,8 @@ public class PostBuildHubScan extends Recorder {
         try {
             final BDCommonScanStep scanStep = new BDCommonScanStep(getScans(), getHubProjectName(),
                     getHubProjectVersion(), getHubVersionPhase(), getHubVersionDist(), getScanMemory(),
-                    getShouldGenerateHubReport(), getBomUpdateMaxiumWaitTime(), isDryRun(), isVerbose());
+                    getShouldGenerateHubReport(), getBomUpdateMaxiumWaitTime(), isDryRun(), isVerbose(),
+                    isParallelScans(), isIncrementalScan());
             final EnvVars envVars = build.getEnvironment(listener);
 
             final JDK jdk = determineJava(logger, build, envVars);
@@ -222,13 +247,11 @@ public class PostBuildHubScan extends Recorder {
         } else {
             logger.info("Getting Jdk on node  : " + build.getBuiltOn().getNodeName());
 
-            final String byteCodeVersion = build.getBuiltOn().getChannel()
-                    .call(new GetSystemProperty("java.class.version"));
-            final Double majorVersion = Double.valueOf(byteCodeVersion);
+            final NodeFacts nodeFacts = NodeFactsCache.getInstance().getFacts(build.getBuiltOn());
+            final Double majorVersion = Double.valueOf(nodeFacts.getJavaClassVersion());
             if (majorVersion >= 51.0) {
                 // Java 7 bytecode
-                final String javaHome = build.getBuiltOn().getChannel().call(new GetSystemProperty("java.home"));
-                javaHomeTemp = new JDK("Java running slave agent", javaHome);
+                javaHomeTemp = new JDK("Java running slave agent", nodeFacts.getJavaHome());
             } else {
                 javaHomeTemp = build.getProject().getJDK().forNode(build.getBuiltOn(), logger.getJenkinsListener());
             }
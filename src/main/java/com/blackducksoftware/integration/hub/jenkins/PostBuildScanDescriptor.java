@@ -60,8 +60,13 @@ import com.blackducksoftware.integration.hub.global.HubServerConfig;
 import com.blackducksoftware.integration.hub.global.HubServerConfigFieldEnum;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubProjectCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache;
 import com.blackducksoftware.integration.hub.jenkins.helper.PluginHelper;
 import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonDescriptorUtil;
+import com.blackducksoftware.integration.hub.jenkins.scan.ScanMemoryCapacity;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
@@ -98,6 +103,20 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
 
     private static final String FORM_CREDENTIALSID = "hubCredentialsId";
 
+    private static final String FORM_SCAN_MEMORY_CAPACITY = "hubScanMemoryCapacity";
+
+    private static final String FORM_CLI_FAST_START = "hubCliFastStart";
+
+    private static final String FORM_CLI_INSTALL_CHECK_TTL = "hubCliInstallCheckTtl";
+
+    private static final String FORM_CLI_PRE_PROVISIONING = "hubCliPreProvisioning";
+
+    private static final String FORM_SKIP_WHEN_HUB_UNAVAILABLE = "hubSkipWhenHubUnavailable";
+
+    private static final String FORM_MAX_CONCURRENT_REQUESTS = "hubMaxConcurrentRequests";
+
+    private static final String FORM_MAX_REQUESTS_PER_SECOND = "hubMaxRequestsPerSecond";
+
     private HubServerInfo hubServerInfo;
 
     /**
@@ -157,6 +176,51 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
                 : (getHubServerInfo().getCredentialsId() == null ? "" : getHubServerInfo().getCredentialsId()));
     }
 
+    public String getHubScanMemoryCapacity() {
+        return (getHubServerInfo() == null ? ""
+                : (getHubServerInfo().getScanMemoryCapacity() == null ? ""
+                        : getHubServerInfo().getScanMemoryCapacity()));
+    }
+
+    public boolean isHubCliFastStart() {
+        return getHubServerInfo() != null && getHubServerInfo().isCliFastStart();
+    }
+
+    public String getDefaultCliInstallCheckTtl() {
+        return String.valueOf(HubServerInfo.getDefaultCliInstallCheckTtl());
+    }
+
+    public String getHubCliInstallCheckTtl() {
+        return getHubServerInfo() == null || getHubServerInfo().getCliInstallCheckTtl() == null
+                ? getDefaultCliInstallCheckTtl() : getHubServerInfo().getCliInstallCheckTtl();
+    }
+
+    public boolean isHubCliPreProvisioning() {
+        return getHubServerInfo() != null && getHubServerInfo().isCliPreProvisioning();
+    }
+
+    public boolean isHubSkipWhenHubUnavailable() {
+        return getHubServerInfo() != null && getHubServerInfo().isSkipWhenHubUnavailable();
+    }
+
+    public String getDefaultMaxConcurrentRequests() {
+        return String.valueOf(HubServerInfo.getDefaultMaxConcurrentRequests());
+    }
+
+    public String getHubMaxConcurrentRequests() {
+        return getHubServerInfo() == null || getHubServerInfo().getMaxConcurrentRequests() == null
+                ? getDefaultMaxConcurrentRequests() : getHubServerInfo().getMaxConcurrentRequests();
+    }
+
+    public String getDefaultMaxRequestsPerSecond() {
+        return String.valueOf(HubServerInfo.getDefaultMaxRequestsPerSecond());
+    }
+
+    public String getHubMaxRequestsPerSecond() {
+        return getHubServerInfo() == null || getHubServerInfo().getMaxRequestsPerSecond() == null
+                ? getDefaultMaxRequestsPerSecond() : getHubServerInfo().getMaxRequestsPerSecond();
+    }
+
     /**
      * Code from
      * https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/
@@ -262,12 +326,70 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
                     e.printStackTrace(System.err);
                 }
                 serverInfo.setTimeout(serverTimeout);
+
+                final Node scanMemoryCapacityNode = hubServerInfoElement.getElementsByTagName("scanMemoryCapacity")
+                        .item(0);
+                if (scanMemoryCapacityNode != null && scanMemoryCapacityNode.getChildNodes() != null
+                        && scanMemoryCapacityNode.getChildNodes().item(0) != null) {
+                    serverInfo.setScanMemoryCapacity(scanMemoryCapacityNode.getChildNodes().item(0).getNodeValue());
+                }
+
+                final Node cliFastStartNode = hubServerInfoElement.getElementsByTagName("cliFastStart").item(0);
+                if (cliFastStartNode != null && cliFastStartNode.getChildNodes() != null
+                        && cliFastStartNode.getChildNodes().item(0) != null) {
+                    serverInfo.setCliFastStart(
+                            Boolean.valueOf(cliFastStartNode.getChildNodes().item(0).getNodeValue().trim()));
+                }
+
+                final Node cliInstallCheckTtlNode = hubServerInfoElement.getElementsByTagName("cliInstallCheckTtl")
+                        .item(0);
+                if (cliInstallCheckTtlNode != null && cliInstallCheckTtlNode.getChildNodes() != null
+                        && cliInstallCheckTtlNode.getChildNodes().item(0) != null) {
+                    serverInfo.setCliInstallCheckTtl(
+                            cliInstallCheckTtlNode.getChildNodes().item(0).getNodeValue().trim());
+                }
+
+                final Node cliPreProvisioningNode = hubServerInfoElement.getElementsByTagName("cliPreProvisioning")
+                        .item(0);
+                if (cliPreProvisioningNode != null && cliPreProvisioningNode.getChildNodes() != null
+                        && cliPreProvisioningNode.getChildNodes().item(0) != null) {
+                    serverInfo.setCliPreProvisioning(
+                            Boolean.valueOf(cliPreProvisioningNode.getChildNodes().item(0).getNodeValue().trim()));
+                }
+
+                final Node skipWhenHubUnavailableNode = hubServerInfoElement
+                        .getElementsByTagName("skipWhenHubUnavailable").item(0);
+                if (skipWhenHubUnavailableNode != null && skipWhenHubUnavailableNode.getChildNodes() != null
+                        && skipWhenHubUnavailableNode.getChildNodes().item(0) != null) {
+                    serverInfo.setSkipWhenHubUnavailable(Boolean
+                            .valueOf(skipWhenHubUnavailableNode.getChildNodes().item(0).getNodeValue().trim()));
+                }
+
+                final Node maxConcurrentRequestsNode = hubServerInfoElement
+                        .getElementsByTagName("maxConcurrentRequests").item(0);
+                if (maxConcurrentRequestsNode != null && maxConcurrentRequestsNode.getChildNodes() != null
+                        && maxConcurrentRequestsNode.getChildNodes().item(0) != null) {
+                    serverInfo.setMaxConcurrentRequests(
+                            maxConcurrentRequestsNode.getChildNodes().item(0).getNodeValue().trim());
+                }
+
+                final Node maxRequestsPerSecondNode = hubServerInfoElement.getElementsByTagName("maxRequestsPerSecond")
+                        .item(0);
+                if (maxRequestsPerSecondNode != null && maxRequestsPerSecondNode.getChildNodes() != null
+                        && maxRequestsPerSecondNode.getChildNodes().item(0) != null) {
+                    serverInfo.setMaxRequestsPerSecond(
+                            maxRequestsPerSecondNode.getChildNodes().item(0).getNodeValue().trim());
+                }
             }
         }
         hubServerInfo = serverInfo;
 
         save();
         HubServerInfoSingleton.getInstance().setServerInfo(hubServerInfo);
+        HubRestConnectionRegistry.getInstance().clear();
+        HubSupportCache.getInstance().clear();
+        HubProjectCache.getInstance().clear();
+        HubCircuitBreaker.getInstance().clear();
     }
 
     @Override
@@ -291,8 +413,19 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
 
         hubServerInfo = new HubServerInfo(hubServerUrl, formData.getString(FORM_CREDENTIALSID),
                 formData.getInt(FORM_TIMEOUT));
+        hubServerInfo.setScanMemoryCapacity(formData.optString(FORM_SCAN_MEMORY_CAPACITY));
+        hubServerInfo.setCliFastStart(formData.optBoolean(FORM_CLI_FAST_START));
+        hubServerInfo.setCliInstallCheckTtl(formData.optString(FORM_CLI_INSTALL_CHECK_TTL));
+        hubServerInfo.setCliPreProvisioning(formData.optBoolean(FORM_CLI_PRE_PROVISIONING));
+        hubServerInfo.setSkipWhenHubUnavailable(formData.optBoolean(FORM_SKIP_WHEN_HUB_UNAVAILABLE));
+        hubServerInfo.setMaxConcurrentRequests(formData.optString(FORM_MAX_CONCURRENT_REQUESTS));
+        hubServerInfo.setMaxRequestsPerSecond(formData.optString(FORM_MAX_REQUESTS_PER_SECOND));
         save();
         HubServerInfoSingleton.getInstance().setServerInfo(hubServerInfo);
+        HubRestConnectionRegistry.getInstance().clear();
+        HubSupportCache.getInstance().clear();
+        HubProjectCache.getInstance().clear();
+        HubCircuitBreaker.getInstance().clear();
 
         return super.configure(req, formData);
     }
@@ -356,6 +489,61 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
         return FormValidation.ok();
     }
 
+    public FormValidation doCheckHubScanMemoryCapacity(
+            @QueryParameter("hubScanMemoryCapacity") final String hubScanMemoryCapacity)
+            throws IOException, ServletException {
+        final ScanMemoryCapacity capacity = new ScanMemoryCapacity(hubScanMemoryCapacity);
+        if (!capacity.getErrors().isEmpty()) {
+            return FormValidation.error(StringUtils.join(capacity.getErrors(), "\n"));
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubCliInstallCheckTtl(
+            @QueryParameter("hubCliInstallCheckTtl") final String hubCliInstallCheckTtl)
+            throws IOException, ServletException {
+        if (StringUtils.isBlank(hubCliInstallCheckTtl)) {
+            return FormValidation.ok();
+        }
+        try {
+            if (Integer.parseInt(hubCliInstallCheckTtl.trim()) >= 0) {
+                return FormValidation.ok();
+            }
+        } catch (final NumberFormatException e) {
+            // not a number
+        }
+        return FormValidation.error(Messages.HubBuildScan_getCliInstallCheckTtlNotValid());
+    }
+
+    public FormValidation doCheckHubMaxConcurrentRequests(
+            @QueryParameter("hubMaxConcurrentRequests") final String hubMaxConcurrentRequests)
+            throws IOException, ServletException {
+        if (isLimit(hubMaxConcurrentRequests)) {
+            return FormValidation.ok();
+        }
+        return FormValidation.error(Messages.HubBuildScan_getMaxConcurrentRequestsNotValid());
+    }
+
+    public FormValidation doCheckHubMaxRequestsPerSecond(
+            @QueryParameter("hubMaxRequestsPerSecond") final String hubMaxRequestsPerSecond)
+            throws IOException, ServletException {
+        if (isLimit(hubMaxRequestsPerSecond)) {
+            return FormValidation.ok();
+        }
+        return FormValidation.error(Messages.HubBuildScan_getMaxRequestsPerSecondNotValid());
+    }
+
+    private boolean isLimit(final String limit) {
+        if (StringUtils.isBlank(limit)) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(limit.trim()) >= 0;
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Performs on-the-fly validation of the form field 'serverUrl'.
      *
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.api.report.AggregateBomViewEntry;
+
+/**
+ * Filters, sorts and pages the BOM entries of a risk report for the BOM table of the report page. The risk filters
+ * take high, medium, low or none, and match the risk summaries of the report : a component with a high security risk
+ * is not counted as a medium security risk.
+ *
+ */
+public class BomEntryQuery {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final String SORT_NAME = "name";
+
+    public static final String SORT_VERSION = "version";
+
+    public static final String SORT_LICENSE = "license";
+
+    public static final String SORT_POLICY = "policy";
+
+    public static final String SORT_VULNERABILITY_HIGH = "vulnerabilityHigh";
+
+    public static final String SORT_VULNERABILITY_MEDIUM = "vulnerabilityMedium";
+
+    public static final String SORT_VULNERABILITY_LOW = "vulnerabilityLow";
+
+    public static final String SORT_LICENSE_RISK = "licenseRisk";
+
+    public static final String SORT_OPERATIONAL_RISK = "operationalRisk";
+
+    private String sort;
+
+    private boolean descending;
+
+    private String vulnerabilityRisk;
+
+    private String licenseRisk;
+
+    private String operationalRisk;
+
+    private String name;
+
+    private String license;
+
+    private int start;
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    public void setSort(final String sort) {
+        this.sort = sort;
+    }
+
+    public void setDescending(final boolean descending) {
+        this.descending = descending;
+    }
+
+    public void setVulnerabilityRisk(final String vulnerabilityRisk) {
+        this.vulnerabilityRisk = vulnerabilityRisk;
+    }
+
+    public void setLicenseRisk(final String licenseRisk) {
+        this.licenseRisk = licenseRisk;
+    }
+
+    public void setOperationalRisk(final String operationalRisk) {
+        this.operationalRisk = operationalRisk;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public void setLicense(final String license) {
+        this.license = license;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public void setStart(final int start) {
+        this.start = Math.max(0, start);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(final int pageSize) {
+        if (pageSize <= 0) {
+            this.pageSize = DEFAULT_PAGE_SIZE;
+        } else {
+            this.pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Returns the entries that match the filters, in the sort order.
+     *
+     */
+    public List<AggregateBomViewEntry> filter(final List<AggregateBomViewEntry> bomEntries) {
+        final List<AggregateBomViewEntry> filteredEntries = new ArrayList<AggregateBomViewEntry>();
+        if (bomEntries == null) {
+            return filteredEntries;
+        }
+        for (final AggregateBomViewEntry bomEntry : bomEntries) {
+            if (matches(bomEntry)) {
+                filteredEntries.add(bomEntry);
+            }
+        }
+        final Comparator<AggregateBomViewEntry> comparator = getComparator();
+        if (comparator != null) {
+            Collections.sort(filteredEntries, descending ? Collections.reverseOrder(comparator) : comparator);
+        }
+        return filteredEntries;
+    }
+
+    /**
+     * Returns the requested page of the filtered entries.
+     *
+     */
+    public List<AggregateBomViewEntry> getPage(final List<AggregateBomViewEntry> filteredEntries) {
+        if (start >= filteredEntries.size()) {
+            return new ArrayList<AggregateBomViewEntry>();
+        }
+        return filteredEntries.subList(start, Math.min(filteredEntries.size(), start + pageSize));
+    }
+
+    private boolean matches(final AggregateBomViewEntry bomEntry) {
+        if (StringUtils.isNotBlank(vulnerabilityRisk) && !matchesVulnerabilityRisk(bomEntry)) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(licenseRisk) && !matchesRisk(bomEntry.getLicenseRiskString(), licenseRisk)) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(operationalRisk)
+                && !matchesRisk(bomEntry.getOperationalRiskString(), operationalRisk)) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(name) && !StringUtils.containsIgnoreCase(getName(bomEntry), name.trim())) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(license)
+                && !StringUtils.containsIgnoreCase(bomEntry.getLicensesDisplay(), license.trim())) {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean matchesVulnerabilityRisk(final AggregateBomViewEntry bomEntry) {
+        final long high = bomEntry.getVulnerabilityRisk().getHIGH();
+        final long medium = bomEntry.getVulnerabilityRisk().getMEDIUM();
+        final long low = bomEntry.getVulnerabilityRisk().getLOW();
+        if ("high".equalsIgnoreCase(vulnerabilityRisk)) {
+            return high > 0;
+        } else if ("medium".equalsIgnoreCase(vulnerabilityRisk)) {
+            return high == 0 && medium > 0;
+        } else if ("low".equalsIgnoreCase(vulnerabilityRisk)) {
+            return high == 0 && medium == 0 && low > 0;
+        } else if ("none".equalsIgnoreCase(vulnerabilityRisk)) {
+            return high == 0 && medium == 0 && low == 0;
+        }
+        return true;
+    }
+
+    private boolean matchesRisk(final String riskString, final String risk) {
+        final int riskRank = getRiskRank(riskString);
+        if ("high".equalsIgnoreCase(risk)) {
+            return riskRank == 3;
+        } else if ("medium".equalsIgnoreCase(risk)) {
+            return riskRank == 2;
+        } else if ("low".equalsIgnoreCase(risk)) {
+            return riskRank == 1;
+        } else if ("none".equalsIgnoreCase(risk)) {
+            return riskRank == 0;
+        }
+        return true;
+    }
+
+    /**
+     * The license and operational risks are shown as H, M or L, or as nothing when there is no risk
+     *
+     */
+    public static int getRiskRank(final String riskString) {
+        if (riskString == null) {
+            return 0;
+        }
+        if (riskString.contains("H")) {
+            return 3;
+        }
+        if (riskString.contains("M")) {
+            return 2;
+        }
+        if (riskString.contains("L")) {
+            return 1;
+        }
+        return 0;
+    }
+
+    public static String getName(final AggregateBomViewEntry bomEntry) {
+        if (bomEntry.getProducerProject() == null) {
+            return null;
+        }
+        return bomEntry.getProducerProject().getName();
+    }
+
+    private Comparator<AggregateBomViewEntry> getComparator() {
+        if (SORT_NAME.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareStrings(getName(entry1), getName(entry2));
+                }
+            };
+        } else if (SORT_VERSION.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareStrings(entry1.getProducerReleasesDisplay(), entry2.getProducerReleasesDisplay());
+                }
+            };
+        } else if (SORT_LICENSE.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareStrings(entry1.getLicensesDisplay(), entry2.getLicensesDisplay());
+                }
+            };
+        } else if (SORT_POLICY.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareStrings(entry1.getPolicyApprovalStatus(), entry2.getPolicyApprovalStatus());
+                }
+            };
+        } else if (SORT_VULNERABILITY_HIGH.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareCounts(entry1.getVulnerabilityRisk().getHIGH(),
+                            entry2.getVulnerabilityRisk().getHIGH());
+                }
+            };
+        } else if (SORT_VULNERABILITY_MEDIUM.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareCounts(entry1.getVulnerabilityRisk().getMEDIUM(),
+                            entry2.getVulnerabilityRisk().getMEDIUM());
+                }
+            };
+        } else if (SORT_VULNERABILITY_LOW.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareCounts(entry1.getVulnerabilityRisk().getLOW(),
+                            entry2.getVulnerabilityRisk().getLOW());
+                }
+            };
+        } else if (SORT_LICENSE_RISK.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareCounts(getRiskRank(entry1.getLicenseRiskString()),
+                            getRiskRank(entry2.getLicenseRiskString()));
+                }
+            };
+        } else if (SORT_OPERATIONAL_RISK.equals(sort)) {
+            return new Comparator<AggregateBomViewEntry>() {
+                @Override
+                public int compare(final AggregateBomViewEntry entry1, final AggregateBomViewEntry entry2) {
+                    return compareCounts(getRiskRank(entry1.getOperationalRiskString()),
+                            getRiskRank(entry2.getOperationalRiskString()));
+                }
+            };
+        }
+        return null;
+    }
+
+    private static int compareStrings(final String value1, final String value2) {
+        if (value1 == null) {
+            return value2 == null ? 0 : -1;
+        }
+        if (value2 == null) {
+            return 1;
+        }
+        return value1.compareToIgnoreCase(value2);
+    }
+
+    private static int compareCounts(final long count1, final long count2) {
+        return count1 < count2 ? -1 : (count1 == count2 ? 0 : 1);
+    }
+
+}
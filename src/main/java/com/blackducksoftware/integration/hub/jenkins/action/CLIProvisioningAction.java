@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIProvisioner;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIProvisioner.Status;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.model.TransientComputerActionFactory;
+
+/**
+ * Shows the status and duration of the background CLI provisioning of a node
+ *
+ */
+public class CLIProvisioningAction implements Action {
+    private final Computer computer;
+
+    public CLIProvisioningAction(final Computer computer) {
+        this.computer = computer;
+    }
+
+    public Computer getComputer() {
+        return computer;
+    }
+
+    public Status getStatus() {
+        return CLIProvisioner.getInstance().getStatus(computer.getName());
+    }
+
+    public String formatDuration(final long milliseconds) {
+        return Util.getTimeSpanString(milliseconds);
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "/plugin/hub-jenkins/images/Ducky-200.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.CLIProvisioningAction_getDisplayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "hub_cli_provisioning";
+    }
+
+    @Extension
+    public static class CLIProvisioningActionFactory extends TransientComputerActionFactory {
+        @Override
+        public Collection<? extends Action> createFor(final Computer target) {
+            if (CLIProvisioner.getInstance().getStatus(target.getName()) == null) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new CLIProvisioningAction(target));
+        }
+    }
+
+}
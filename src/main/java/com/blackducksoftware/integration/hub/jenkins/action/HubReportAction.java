@@ -21,26 +21,64 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins.action;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 
 import com.blackducksoftware.integration.hub.api.report.AggregateBomViewEntry;
 import com.blackducksoftware.integration.hub.api.report.DetailedReleaseSummary;
 import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
 import com.blackducksoftware.integration.hub.api.report.VersionReport;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubReportDataCache;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
-import hudson.model.Action;
 import hudson.model.Run;
+import jenkins.model.RunAction2;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 
-public class HubReportAction implements Action {
+/**
+ * The Hub risk report of a Build. The report data is kept in a gzipped json file in the Build directory instead of the
+ * build.xml, and is only loaded when the report page or an API call needs it. The loaded data is kept by the
+ * HubReportDataCache, not by the Action. The risk and policy counts are kept in the build.xml as a
+ * HubRiskReportSummary. The report data of a Build from Hub Jenkins 2.1.x is moved out of its build.xml when the
+ * Build is loaded.
+ *
+ */
+public class HubReportAction implements RunAction2 {
+    public static final String REPORT_FILE_NAME = "hubRiskReport.json.gz";
+
+    private static final Logger LOGGER = Logger.getLogger(HubReportAction.class.getName());
 
     private final Run<?, ?> build;
 
+    // Hub Jenkins 2.1.x kept the report data in the build.xml
+    // need to keep this around to show the reports of the older Builds
     private HubRiskReportData reportData;
 
+    private HubRiskReportSummary summary;
+
     public HubReportAction(final Run<?, ?> build) {
         this.build = build;
     }
@@ -49,82 +87,205 @@ public class HubReportAction implements Action {
         return build;
     }
 
+    @Override
+    public void onAttached(final Run<?, ?> run) {
+    }
+
+    @Override
+    public void onLoad(final Run<?, ?> run) {
+        migrateReportData(run);
+    }
+
+    /**
+     * Writes the report data kept in the build.xml to the report file and saves the Build without it, so it is no
+     * longer parsed and kept in memory with the Build. The data stays in the build.xml if the file can not be written.
+     *
+     */
+    private synchronized void migrateReportData(final Run<?, ?> run) {
+        if (reportData == null || build == null) {
+            return;
+        }
+        if (summary == null) {
+            summary = new HubRiskReportSummary(reportData);
+        }
+        try {
+            if (!getReportFile().isFile()) {
+                writeReportData(getGson().toJson(reportData));
+            }
+            reportData = null;
+            run.save();
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not move the Hub risk report of " + run + " out of the build.xml", e);
+        }
+    }
+
     public VersionReport getReport() {
-        return reportData.getReport();
+        final HubRiskReportData riskReportData = getReportData();
+        if (riskReportData == null) {
+            return null;
+        }
+        return riskReportData.getReport();
     }
 
     public DetailedReleaseSummary getReleaseSummary() {
-        if (reportData == null || reportData.getReport() == null) {
+        final HubRiskReportData riskReportData = getReportData();
+        if (riskReportData == null || riskReportData.getReport() == null) {
             return null;
         }
-        return reportData.getReport().getDetailedReleaseSummary();
+        return riskReportData.getReport().getDetailedReleaseSummary();
     }
 
     public List<AggregateBomViewEntry> getBomEntries() {
-        if (reportData == null || reportData.getReport() == null) {
+        final HubRiskReportData riskReportData = getReportData();
+        if (riskReportData == null || riskReportData.getReport() == null) {
             return null;
         }
-        return reportData.getReport().getAggregateBomViewEntries();
+        return riskReportData.getReport().getAggregateBomViewEntries();
     }
 
     public int getVulnerabilityRiskHighCount() {
-        return reportData.getVulnerabilityRiskHighCount();
+        return getSummary().getVulnerabilityRiskHighCount();
     }
 
     public int getVulnerabilityRiskMediumCount() {
-        return reportData.getVulnerabilityRiskMediumCount();
+        return getSummary().getVulnerabilityRiskMediumCount();
     }
 
     public int getVulnerabilityRiskLowCount() {
-        return reportData.getVulnerabilityRiskLowCount();
+        return getSummary().getVulnerabilityRiskLowCount();
     }
 
     public int getVulnerabilityRiskNoneCount() {
-        return reportData.getVulnerabilityRiskNoneCount();
+        return getSummary().getVulnerabilityRiskNoneCount();
     }
 
     public int getLicenseRiskHighCount() {
-        return reportData.getLicenseRiskHighCount();
+        return getSummary().getLicenseRiskHighCount();
     }
 
     public int getLicenseRiskMediumCount() {
-        return reportData.getLicenseRiskMediumCount();
+        return getSummary().getLicenseRiskMediumCount();
     }
 
     public int getLicenseRiskLowCount() {
-        return reportData.getLicenseRiskLowCount();
+        return getSummary().getLicenseRiskLowCount();
     }
 
     public int getLicenseRiskNoneCount() {
-        return reportData.getLicenseRiskNoneCount();
+        return getSummary().getLicenseRiskNoneCount();
     }
 
     public int getOperationalRiskHighCount() {
-        return reportData.getOperationalRiskHighCount();
+        return getSummary().getOperationalRiskHighCount();
     }
 
     public int getOperationalRiskMediumCount() {
-        return reportData.getOperationalRiskMediumCount();
+        return getSummary().getOperationalRiskMediumCount();
     }
 
     public int getOperationalRiskLowCount() {
-        return reportData.getOperationalRiskLowCount();
+        return getSummary().getOperationalRiskLowCount();
     }
 
     public int getOperationalRiskNoneCount() {
-        return reportData.getOperationalRiskNoneCount();
+        return getSummary().getOperationalRiskNoneCount();
     }
 
     public double getPercentage(final double count) {
-        if (getBomEntries() == null) {
+        final HubRiskReportSummary riskReportSummary = getSummary();
+        if (riskReportSummary == null) {
             return 0.0;
         }
-        final double totalCount = getBomEntries().size();
-        double percentage = 0;
-        if (totalCount > 0 && count > 0) {
-            percentage = (count / totalCount) * 100;
+        return riskReportSummary.getPercentage(count);
+    }
+
+    /**
+     * Returns the risk and policy counts of the report without loading the report data. The summary of a Build from
+     * before the summary was kept is computed from the report data the first time it is needed, and the Build is
+     * saved so it is only computed once.
+     *
+     */
+    public synchronized HubRiskReportSummary getSummary() {
+        if (summary == null) {
+            final HubRiskReportData riskReportData = getReportData();
+            if (riskReportData != null) {
+                summary = new HubRiskReportSummary(riskReportData);
+                saveBuild();
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Returns the summary only if it is already kept with the Build, so the Build page never loads the report data.
+     *
+     */
+    public synchronized HubRiskReportSummary getStoredSummary() {
+        return summary;
+    }
+
+    private void saveBuild() {
+        if (build == null) {
+            return;
+        }
+        try {
+            build.save();
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save the Hub risk report summary of " + build, e);
+        }
+    }
+
+    /**
+     * Serves one page of the BOM entries as json, so the report page can render a large BOM incrementally. The
+     * entries can be filtered with the vulnerabilityRisk, licenseRisk and operationalRisk (high, medium, low or
+     * none), name and license parameters, sorted with the sort and order (asc or desc) parameters, and paged with the
+     * start and pageSize parameters.
+     *
+     */
+    public void doBomEntries(final StaplerRequest req, final StaplerResponse rsp) throws IOException {
+        final BomEntryQuery query = new BomEntryQuery();
+        query.setSort(req.getParameter("sort"));
+        query.setDescending("desc".equalsIgnoreCase(req.getParameter("order")));
+        query.setVulnerabilityRisk(req.getParameter("vulnerabilityRisk"));
+        query.setLicenseRisk(req.getParameter("licenseRisk"));
+        query.setOperationalRisk(req.getParameter("operationalRisk"));
+        query.setName(req.getParameter("name"));
+        query.setLicense(req.getParameter("license"));
+        query.setStart(NumberUtils.toInt(req.getParameter("start"), 0));
+        query.setPageSize(NumberUtils.toInt(req.getParameter("pageSize"), BomEntryQuery.DEFAULT_PAGE_SIZE));
+
+        final VersionReport report = getReport();
+        final List<AggregateBomViewEntry> bomEntries = report == null ? null : report.getAggregateBomViewEntries();
+        final List<AggregateBomViewEntry> filteredEntries = query.filter(bomEntries);
+        final JSONArray entries = new JSONArray();
+        for (final AggregateBomViewEntry bomEntry : query.getPage(filteredEntries)) {
+            entries.add(getBomEntryJson(report, bomEntry));
         }
-        return percentage;
+        final JSONObject page = new JSONObject();
+        page.put("totalCount", bomEntries == null ? 0 : bomEntries.size());
+        page.put("filteredCount", filteredEntries.size());
+        page.put("start", query.getStart());
+        page.put("pageSize", query.getPageSize());
+        page.put("entries", entries);
+
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(page.toString());
+    }
+
+    private JSONObject getBomEntryJson(final VersionReport report, final AggregateBomViewEntry bomEntry) {
+        final JSONObject entry = new JSONObject();
+        entry.put("policyStatus", StringUtils.defaultString(bomEntry.getPolicyApprovalStatus()));
+        entry.put("name", StringUtils.defaultString(BomEntryQuery.getName(bomEntry)));
+        entry.put("componentUrl", StringUtils.defaultString(report.getComponentUrl(bomEntry)));
+        entry.put("version", StringUtils.defaultString(bomEntry.getProducerReleasesDisplay()));
+        entry.put("versionUrl", StringUtils.defaultString(report.getVersionUrl(bomEntry)));
+        entry.put("license", StringUtils.defaultString(bomEntry.getLicensesDisplay()));
+        entry.put("vulnerabilityHigh", bomEntry.getVulnerabilityRisk().getHIGH());
+        entry.put("vulnerabilityMedium", bomEntry.getVulnerabilityRisk().getMEDIUM());
+        entry.put("vulnerabilityLow", bomEntry.getVulnerabilityRisk().getLOW());
+        entry.put("licenseRisk", StringUtils.defaultString(bomEntry.getLicenseRiskString()));
+        entry.put("operationalRisk", StringUtils.defaultString(bomEntry.getOperationalRiskString()));
+        return entry;
     }
 
     public String htmlEscape(final String valueToEscape) {
@@ -134,8 +295,102 @@ public class HubReportAction implements Action {
         return StringEscapeUtils.escapeHtml4(valueToEscape);
     }
 
+    /**
+     * Writes the report data to the report file of the Build. If the file can not be written the data is kept in the
+     * build.xml, as before.
+     *
+     */
     public void setReportData(final HubRiskReportData reportData) {
-        this.reportData = reportData;
+        summary = new HubRiskReportSummary(reportData);
+        if (build == null) {
+            this.reportData = reportData;
+            return;
+        }
+        try {
+            final String json = getGson().toJson(reportData);
+            writeReportData(json);
+            HubReportDataCache.getInstance().put(getReportFile().getAbsolutePath(), reportData,
+                    HubReportDataCache.estimateSize(json.length()));
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write the Hub risk report of " + build, e);
+            this.reportData = reportData;
+        }
+    }
+
+    /**
+     * Returns the report data from the HubReportDataCache, or reads it from the report file if it is not cached.
+     * Returns null if the report could not be read.
+     *
+     */
+    public synchronized HubRiskReportData getReportData() {
+        if (reportData != null) {
+            return reportData;
+        }
+        if (build == null) {
+            return null;
+        }
+        final HubReportDataCache cache = HubReportDataCache.getInstance();
+        final String key = getReportFile().getAbsolutePath();
+        HubRiskReportData cachedReportData = cache.get(key);
+        if (cachedReportData == null) {
+            final String json = readReportJson();
+            cachedReportData = parseReportData(json);
+            if (cachedReportData != null) {
+                cache.put(key, cachedReportData, HubReportDataCache.estimateSize(json.length()));
+            }
+        }
+        return cachedReportData;
+    }
+
+    public File getReportFile() {
+        return new File(build.getRootDir(), REPORT_FILE_NAME);
+    }
+
+    private void writeReportData(final String json) throws IOException {
+        final File reportFile = getReportFile();
+        final File tempFile = new File(reportFile.getParentFile(), reportFile.getName() + ".tmp");
+        final Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)), "UTF-8");
+        try {
+            writer.write(json);
+        } finally {
+            writer.close();
+        }
+        Files.move(tempFile.toPath(), reportFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String readReportJson() {
+        final File reportFile = getReportFile();
+        if (!reportFile.isFile()) {
+            return null;
+        }
+        try {
+            final InputStream inputStream = new GZIPInputStream(new FileInputStream(reportFile));
+            try {
+                return IOUtils.toString(inputStream, "UTF-8");
+            } finally {
+                inputStream.close();
+            }
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read the Hub risk report : " + reportFile, e);
+        }
+        return null;
+    }
+
+    private HubRiskReportData parseReportData(final String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return getGson().fromJson(json, HubRiskReportData.class);
+        } catch (final JsonParseException e) {
+            LOGGER.log(Level.WARNING, "Could not read the Hub risk report : " + getReportFile(), e);
+        }
+        return null;
+    }
+
+    private Gson getGson() {
+        return new GsonBuilder().create();
     }
 
     @Override
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import org.apache.commons.io.FileUtils;
+
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubReportDataCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter.Metrics;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.ManagementLink;
+
+/**
+ * Shows the limits of the Hub requests of this Jenkins master with their queue depth and wait times, and the usage of
+ * the risk report cache
+ *
+ */
+@Extension
+public class HubRequestMetricsLink extends ManagementLink {
+
+    public Metrics getMetrics() {
+        return HubRequestLimiter.getInstance().getMetrics();
+    }
+
+    public int getMaxConcurrentRequests() {
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        return serverInfo == null ? HubServerInfo.getDefaultMaxConcurrentRequests()
+                : serverInfo.getMaxConcurrentRequestsValue();
+    }
+
+    public int getMaxRequestsPerSecond() {
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        return serverInfo == null ? HubServerInfo.getDefaultMaxRequestsPerSecond()
+                : serverInfo.getMaxRequestsPerSecondValue();
+    }
+
+    public HubReportDataCache.Metrics getReportCacheMetrics() {
+        return HubReportDataCache.getInstance().getMetrics();
+    }
+
+    public String formatDuration(final long milliseconds) {
+        return Util.getTimeSpanString(milliseconds);
+    }
+
+    public String formatSize(final long bytes) {
+        return FileUtils.byteCountToDisplaySize(bytes);
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "/plugin/hub-jenkins/images/Ducky-200.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.HubRequestMetricsLink_getDisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.HubRequestMetricsLink_getDescription();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "hub_requests";
+    }
+
+}
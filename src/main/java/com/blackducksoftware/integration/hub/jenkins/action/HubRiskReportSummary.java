@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.util.List;
+
+import com.blackducksoftware.integration.hub.api.report.AggregateBomViewEntry;
+import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
+
+/**
+ * The risk and policy counts of a Hub risk report. The summary is computed once when the report is generated and is
+ * kept in the build.xml, so the report summary can be shown without loading the BOM entries of the report.
+ *
+ */
+public class HubRiskReportSummary {
+    public static final String POLICY_IN_VIOLATION = "IN_VIOLATION";
+
+    public static final String POLICY_IN_VIOLATION_OVERRIDDEN = "IN_VIOLATION_OVERRIDDEN";
+
+    private final int totalComponentCount;
+
+    private final int vulnerabilityRiskHighCount;
+
+    private final int vulnerabilityRiskMediumCount;
+
+    private final int vulnerabilityRiskLowCount;
+
+    private final int vulnerabilityRiskNoneCount;
+
+    private final int licenseRiskHighCount;
+
+    private final int licenseRiskMediumCount;
+
+    private final int licenseRiskLowCount;
+
+    private final int licenseRiskNoneCount;
+
+    private final int operationalRiskHighCount;
+
+    private final int operationalRiskMediumCount;
+
+    private final int operationalRiskLowCount;
+
+    private final int operationalRiskNoneCount;
+
+    private final int policyInViolationCount;
+
+    private final int policyInViolationOverriddenCount;
+
+    private final int policyNotInViolationCount;
+
+    public HubRiskReportSummary(final HubRiskReportData reportData) {
+        vulnerabilityRiskHighCount = reportData.getVulnerabilityRiskHighCount();
+        vulnerabilityRiskMediumCount = reportData.getVulnerabilityRiskMediumCount();
+        vulnerabilityRiskLowCount = reportData.getVulnerabilityRiskLowCount();
+        vulnerabilityRiskNoneCount = reportData.getVulnerabilityRiskNoneCount();
+        licenseRiskHighCount = reportData.getLicenseRiskHighCount();
+        licenseRiskMediumCount = reportData.getLicenseRiskMediumCount();
+        licenseRiskLowCount = reportData.getLicenseRiskLowCount();
+        licenseRiskNoneCount = reportData.getLicenseRiskNoneCount();
+        operationalRiskHighCount = reportData.getOperationalRiskHighCount();
+        operationalRiskMediumCount = reportData.getOperationalRiskMediumCount();
+        operationalRiskLowCount = reportData.getOperationalRiskLowCount();
+        operationalRiskNoneCount = reportData.getOperationalRiskNoneCount();
+
+        List<AggregateBomViewEntry> bomEntries = null;
+        if (reportData.getReport() != null) {
+            bomEntries = reportData.getReport().getAggregateBomViewEntries();
+        }
+        int inViolation = 0;
+        int inViolationOverridden = 0;
+        int notInViolation = 0;
+        if (bomEntries != null) {
+            for (final AggregateBomViewEntry bomEntry : bomEntries) {
+                if (POLICY_IN_VIOLATION.equals(bomEntry.getPolicyApprovalStatus())) {
+                    inViolation++;
+                } else if (POLICY_IN_VIOLATION_OVERRIDDEN.equals(bomEntry.getPolicyApprovalStatus())) {
+                    inViolationOverridden++;
+                } else {
+                    notInViolation++;
+                }
+            }
+        }
+        totalComponentCount = bomEntries == null ? 0 : bomEntries.size();
+        policyInViolationCount = inViolation;
+        policyInViolationOverriddenCount = inViolationOverridden;
+        policyNotInViolationCount = notInViolation;
+    }
+
+    public int getTotalComponentCount() {
+        return totalComponentCount;
+    }
+
+    public int getVulnerabilityRiskHighCount() {
+        return vulnerabilityRiskHighCount;
+    }
+
+    public int getVulnerabilityRiskMediumCount() {
+        return vulnerabilityRiskMediumCount;
+    }
+
+    public int getVulnerabilityRiskLowCount() {
+        return vulnerabilityRiskLowCount;
+    }
+
+    public int getVulnerabilityRiskNoneCount() {
+        return vulnerabilityRiskNoneCount;
+    }
+
+    public int getLicenseRiskHighCount() {
+        return licenseRiskHighCount;
+    }
+
+    public int getLicenseRiskMediumCount() {
+        return licenseRiskMediumCount;
+    }
+
+    public int getLicenseRiskLowCount() {
+        return licenseRiskLowCount;
+    }
+
+    public int getLicenseRiskNoneCount() {
+        return licenseRiskNoneCount;
+    }
+
+    public int getOperationalRiskHighCount() {
+        return operationalRiskHighCount;
+    }
+
+    public int getOperationalRiskMediumCount() {
+        return operationalRiskMediumCount;
+    }
+
+    public int getOperationalRiskLowCount() {
+        return operationalRiskLowCount;
+    }
+
+    public int getOperationalRiskNoneCount() {
+        return operationalRiskNoneCount;
+    }
+
+    public int getPolicyInViolationCount() {
+        return policyInViolationCount;
+    }
+
+    public int getPolicyInViolationOverriddenCount() {
+        return policyInViolationOverriddenCount;
+    }
+
+    public int getPolicyNotInViolationCount() {
+        return policyNotInViolationCount;
+    }
+
+    /**
+     * Returns the percentage of the components of the report that the count represents
+     *
+     */
+    public double getPercentage(final double count) {
+        double percentage = 0;
+        if (totalComponentCount > 0 && count > 0) {
+            percentage = (count / totalComponentCount) * 100;
+        }
+        return percentage;
+    }
+
+    public double getVulnerabilityRiskHighPercentage() {
+        return getPercentage(vulnerabilityRiskHighCount);
+    }
+
+    public double getVulnerabilityRiskMediumPercentage() {
+        return getPercentage(vulnerabilityRiskMediumCount);
+    }
+
+    public double getVulnerabilityRiskLowPercentage() {
+        return getPercentage(vulnerabilityRiskLowCount);
+    }
+
+    public double getVulnerabilityRiskNonePercentage() {
+        return getPercentage(vulnerabilityRiskNoneCount);
+    }
+
+    public double getLicenseRiskHighPercentage() {
+        return getPercentage(licenseRiskHighCount);
+    }
+
+    public double getLicenseRiskMediumPercentage() {
+        return getPercentage(licenseRiskMediumCount);
+    }
+
+    public double getLicenseRiskLowPercentage() {
+        return getPercentage(licenseRiskLowCount);
+    }
+
+    public double getLicenseRiskNonePercentage() {
+        return getPercentage(licenseRiskNoneCount);
+    }
+
+    public double getOperationalRiskHighPercentage() {
+        return getPercentage(operationalRiskHighCount);
+    }
+
+    public double getOperationalRiskMediumPercentage() {
+        return getPercentage(operationalRiskMediumCount);
+    }
+
+    public double getOperationalRiskLowPercentage() {
+        return getPercentage(operationalRiskLowCount);
+    }
+
+    public double getOperationalRiskNonePercentage() {
+        return getPercentage(operationalRiskNoneCount);
+    }
+
+}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.bom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.HubIntRestService;
+import com.blackducksoftware.integration.hub.api.scan.ScanStatus;
+import com.blackducksoftware.integration.hub.api.scan.ScanSummaryItem;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Checks the scans that the Builds are waiting on from a single poller instead of one polling loop per Build. Each
+ * Build registers the scan summaries it waits for along with its own BomPollingSchedule. A scan summary that several
+ * due Builds wait for is only requested once per poll, and every result is applied to all the Builds waiting on that
+ * scan. A Build can either block on its Registration, or give a Callback and a deadline so that it does not hold
+ * a thread while it waits. The polls run on a thread of their own, a slow Hub does not hold up the shared Jenkins
+ * Timer.
+ *
+ */
+public class BomCompletionPoller {
+    private static final Logger LOGGER = Logger.getLogger(BomCompletionPoller.class.getName());
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Hub BOM completion poller"));
+
+    private static final BomCompletionPoller INSTANCE = new BomCompletionPoller();
+
+    private final List<Registration> registrations = new ArrayList<Registration>();
+
+    private ScheduledFuture<?> scheduledPoll;
+
+    private long scheduledPollAt;
+
+    private boolean polling;
+
+    public static BomCompletionPoller getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the scan summaries that a Build waits for and makes sure the poller will check them when the schedule
+     * says so. The Build waits with Registration.await and must cancel the Registration when it stops waiting.
+     *
+     */
+    public Registration register(final HubIntRestService service, final Collection<String> scanSummaryHrefs,
+            final BomPollingSchedule schedule) {
+        return register(service, scanSummaryHrefs, schedule, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Registers the scan summaries that a Build waits for, the callback is run once every scan has finished, one scan
+     * failed, or the scans have not finished by timeoutAt. The Registration is removed once it is done.
+     *
+     */
+    public Registration register(final HubIntRestService service, final Collection<String> scanSummaryHrefs,
+            final BomPollingSchedule schedule, final long timeoutAt, final Callback callback) {
+        final Registration registration = register(service, scanSummaryHrefs, schedule, timeoutAt, callback,
+                System.currentTimeMillis());
+        schedulePoll();
+        return registration;
+    }
+
+    public Registration register(final HubIntRestService service, final Collection<String> scanSummaryHrefs,
+            final BomPollingSchedule schedule, final long currentTime) {
+        return register(service, scanSummaryHrefs, schedule, Long.MAX_VALUE, null, currentTime);
+    }
+
+    public Registration register(final HubIntRestService service, final Collection<String> scanSummaryHrefs,
+            final BomPollingSchedule schedule, final long timeoutAt, final Callback callback, final long currentTime) {
+        final Registration registration = new Registration(service, scanSummaryHrefs, schedule, timeoutAt, callback,
+                currentTime);
+        if (registration.isDone()) {
+            registration.runCallback();
+        } else {
+            synchronized (registrations) {
+                registrations.add(registration);
+            }
+        }
+        return registration;
+    }
+
+    public void cancel(final Registration registration) {
+        synchronized (registrations) {
+            registrations.remove(registration);
+        }
+    }
+
+    public int getRegistrationCount() {
+        synchronized (registrations) {
+            return registrations.size();
+        }
+    }
+
+    /**
+     * Requests every scan summary that a due Registration waits for, once per scan summary, then completes the
+     * Registrations whose scans have all finished, one of whose scans failed, or that have timed out.
+     *
+     */
+    public void poll(final long currentTime) {
+        final Map<String, HubIntRestService> dueScans = new LinkedHashMap<String, HubIntRestService>();
+        final List<Registration> dueRegistrations = new ArrayList<Registration>();
+        synchronized (registrations) {
+            for (final Registration registration : registrations) {
+                if (registration.getNextCheckAt() <= currentTime) {
+                    dueRegistrations.add(registration);
+                    for (final String scanSummaryHref : registration.getPendingScans()) {
+                        if (!dueScans.containsKey(scanSummaryHref)) {
+                            dueScans.put(scanSummaryHref, registration.getService());
+                        }
+                    }
+                }
+            }
+        }
+        final Map<String, ScanSummaryItem> scanSummaries = new HashMap<String, ScanSummaryItem>();
+        final Map<String, Exception> failures = new HashMap<String, Exception>();
+        for (final Entry<String, HubIntRestService> dueScan : dueScans.entrySet()) {
+            try {
+                scanSummaries.put(dueScan.getKey(), getScanSummary(dueScan.getValue(), dueScan.getKey()));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final Exception e) {
+                failures.put(dueScan.getKey(), e);
+            }
+        }
+        final List<Registration> doneRegistrations = new ArrayList<Registration>();
+        synchronized (registrations) {
+            final Iterator<Registration> iterator = registrations.iterator();
+            while (iterator.hasNext()) {
+                final Registration registration = iterator.next();
+                registration.update(scanSummaries, failures);
+                if (dueRegistrations.contains(registration)) {
+                    registration.checked(currentTime);
+                }
+                if (!registration.isDone() && registration.getTimeoutAt() <= currentTime) {
+                    registration.timedOut();
+                }
+                if (registration.isDone()) {
+                    iterator.remove();
+                    doneRegistrations.add(registration);
+                }
+            }
+        }
+        for (final Registration registration : doneRegistrations) {
+            registration.runCallback();
+        }
+    }
+
+    protected ScanSummaryItem getScanSummary(final HubIntRestService service, final String scanSummaryHref)
+            throws Exception {
+        final HubRequestLimiter requestLimiter = HubRequestLimiter.getInstance();
+        requestLimiter.acquire();
+        try {
+            return service.getScanSummaryRestService().getItem(scanSummaryHref);
+        } finally {
+            requestLimiter.release();
+        }
+    }
+
+    private void schedulePoll() {
+        synchronized (registrations) {
+            if (polling || registrations.isEmpty()) {
+                return;
+            }
+            long nextPollAt = Long.MAX_VALUE;
+            for (final Registration registration : registrations) {
+                nextPollAt = Math.min(nextPollAt,
+                        Math.min(registration.getNextCheckAt(), registration.getTimeoutAt()));
+            }
+            if (scheduledPoll != null && !scheduledPoll.isDone() && scheduledPollAt <= nextPollAt) {
+                return;
+            }
+            if (scheduledPoll != null) {
+                scheduledPoll.cancel(false);
+            }
+            scheduledPollAt = nextPollAt;
+            scheduledPoll = EXECUTOR.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    runPoll();
+                }
+            }, Math.max(0, nextPollAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runPoll() {
+        synchronized (registrations) {
+            if (polling) {
+                return;
+            }
+            polling = true;
+            scheduledPoll = null;
+        }
+        try {
+            poll(System.currentTimeMillis());
+        } catch (final RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not check the status of the Hub scans", e);
+        } finally {
+            synchronized (registrations) {
+                polling = false;
+            }
+            schedulePoll();
+        }
+    }
+
+    public interface Callback {
+        void onDone(Registration registration);
+    }
+
+    /**
+     * The scans that one Build is waiting on. It is done once every scan has finished, as soon as one scan fails or
+     * can not be checked, or once it has timed out.
+     *
+     */
+    public static class Registration {
+        private final HubIntRestService service;
+
+        private final Set<String> pendingScans;
+
+        private final BomPollingSchedule schedule;
+
+        private final long timeoutAt;
+
+        private final Callback callback;
+
+        private final long registeredAt;
+
+        private long nextCheckAt;
+
+        private int pollCount;
+
+        private boolean done;
+
+        private boolean timedOut;
+
+        private Exception failure;
+
+        public Registration(final HubIntRestService service, final Collection<String> scanSummaryHrefs,
+                final BomPollingSchedule schedule, final long timeoutAt, final Callback callback,
+                final long registeredAt) {
+            this.service = service;
+            pendingScans = new LinkedHashSet<String>(scanSummaryHrefs);
+            this.schedule = schedule;
+            this.timeoutAt = timeoutAt;
+            this.callback = callback;
+            this.registeredAt = registeredAt;
+            nextCheckAt = registeredAt + schedule.getDelay(0);
+            done = pendingScans.isEmpty();
+        }
+
+        public HubIntRestService getService() {
+            return service;
+        }
+
+        public long getTimeoutAt() {
+            return timeoutAt;
+        }
+
+        public long getRegisteredAt() {
+            return registeredAt;
+        }
+
+        public synchronized long getNextCheckAt() {
+            return nextCheckAt;
+        }
+
+        public synchronized int getPollCount() {
+            return pollCount;
+        }
+
+        public synchronized List<String> getPendingScans() {
+            return new ArrayList<String>(pendingScans);
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Waits until every scan has finished, returns false if they have not finished within the timeout.
+         *
+         */
+        public synchronized boolean await(final long timeoutInMilliseconds)
+                throws InterruptedException, HubIntegrationException {
+            final long waitUntil = System.currentTimeMillis() + timeoutInMilliseconds;
+            long remaining = timeoutInMilliseconds;
+            while (!done && remaining > 0) {
+                wait(remaining);
+                remaining = waitUntil - System.currentTimeMillis();
+            }
+            return isUpdated();
+        }
+
+        /**
+         * Returns true once every scan has finished, throws if one scan failed or could not be checked.
+         *
+         */
+        public synchronized boolean isUpdated() throws HubIntegrationException {
+            if (failure instanceof HubIntegrationException) {
+                throw (HubIntegrationException) failure;
+            }
+            if (failure != null) {
+                throw new HubIntegrationException("Could not check the status of the scans : " + failure.getMessage(),
+                        failure);
+            }
+            return done && !timedOut;
+        }
+
+        private synchronized void update(final Map<String, ScanSummaryItem> scanSummaries,
+                final Map<String, Exception> failures) {
+            if (done) {
+                return;
+            }
+            final Iterator<String> iterator = pendingScans.iterator();
+            while (iterator.hasNext()) {
+                final String scanSummaryHref = iterator.next();
+                if (failures.containsKey(scanSummaryHref)) {
+                    complete(failures.get(scanSummaryHref));
+                    return;
+                }
+                final ScanSummaryItem scanSummaryItem = scanSummaries.get(scanSummaryHref);
+                if (scanSummaryItem == null) {
+                    continue;
+                }
+                if (ScanStatus.isErrorStatus(scanSummaryItem.getStatus())) {
+                    complete(new HubIntegrationException("There was a problem with one of the scans. Error Status : "
+                            + scanSummaryItem.getStatus()));
+                    return;
+                }
+                if (ScanStatus.isFinishedStatus(scanSummaryItem.getStatus())) {
+                    iterator.remove();
+                }
+            }
+            if (pendingScans.isEmpty()) {
+                complete(null);
+            }
+        }
+
+        private synchronized void checked(final long currentTime) {
+            pollCount++;
+            nextCheckAt = currentTime + schedule.getDelay(pollCount);
+        }
+
+        private synchronized void timedOut() {
+            timedOut = true;
+            complete(null);
+        }
+
+        private synchronized void complete(final Exception failure) {
+            this.failure = failure;
+            done = true;
+            notifyAll();
+        }
+
+        private void runCallback() {
+            if (callback == null) {
+                return;
+            }
+            try {
+                callback.onDone(this);
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.WARNING, "The Bom wait callback failed", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.bom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * When to check whether the Hub has finished updating the BOM. The first check waits for most of the shortest BOM time
+ * of the recent Builds of the Job, the following checks back off exponentially from MIN_INTERVAL to MAX_INTERVAL.
+ * Every delay is randomized by JITTER so the Builds that finished together do not poll the Hub together.
+ *
+ */
+public class BomPollingSchedule {
+    public static final long DEFAULT_INITIAL_DELAY = 5L * 1000;
+
+    public static final long MIN_INTERVAL = 5L * 1000;
+
+    public static final long MAX_INTERVAL = 60L * 1000;
+
+    public static final double BACKOFF_MULTIPLIER = 1.5;
+
+    public static final double JITTER = 0.2;
+
+    /**
+     * The part of the expected BOM time waited before the first check, so a faster BOM update is not missed by much
+     *
+     */
+    public static final double INITIAL_DELAY_RATIO = 0.8;
+
+    private final long initialDelay;
+
+    private final Random random;
+
+    public BomPollingSchedule(final List<Long> pastBomTimes) {
+        this(pastBomTimes, new Random());
+    }
+
+    public BomPollingSchedule(final List<Long> pastBomTimes, final Random random) {
+        initialDelay = getInitialDelay(pastBomTimes);
+        this.random = random;
+    }
+
+    public static long getInitialDelay(final List<Long> pastBomTimes) {
+        if (pastBomTimes == null || pastBomTimes.isEmpty()) {
+            return DEFAULT_INITIAL_DELAY;
+        }
+        final List<Long> sortedBomTimes = new ArrayList<Long>(pastBomTimes);
+        Collections.sort(sortedBomTimes);
+        // The lower quartile, one slow BOM update should not delay the next Builds
+        final long expectedBomTime = sortedBomTimes.get((sortedBomTimes.size() - 1) / 4);
+        return Math.min(MAX_INTERVAL * 5, Math.max(MIN_INTERVAL, (long) (expectedBomTime * INITIAL_DELAY_RATIO)));
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * The delay before the check number pollNumber, starting at 0, without the jitter
+     *
+     */
+    public long getBaseDelay(final int pollNumber) {
+        if (pollNumber <= 0) {
+            return initialDelay;
+        }
+        final double delay = MIN_INTERVAL * Math.pow(BACKOFF_MULTIPLIER, pollNumber - 1);
+        return (long) Math.min(MAX_INTERVAL, delay);
+    }
+
+    public long getDelay(final int pollNumber) {
+        final long baseDelay = getBaseDelay(pollNumber);
+        final double jitter = (random.nextDouble() * 2 - 1) * JITTER;
+        return Math.max(0, (long) (baseDelay * (1 + jitter)));
+    }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.bom;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.KeyedLocks;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import hudson.util.AtomicFileWriter;
+
+/**
+ * The time the Hub took to update the BOM after the last scans of a Job, kept in the Job directory to choose when the
+ * next Builds first check the BOM.
+ *
+ */
+public class BomTimeHistory {
+    public static final String HISTORY_FILE_NAME = "hubBomTimeHistory.json";
+
+    public static final int MAX_RECORDS = 10;
+
+    // The scan step and the failure steps each create their own BomTimeHistory, the history file is locked across the
+    // instances
+    private static final KeyedLocks LOCKS = new KeyedLocks();
+
+    private final File historyFile;
+
+    private final Gson gson = new GsonBuilder().create();
+
+    public BomTimeHistory(final File jobRootDirectory) {
+        historyFile = new File(jobRootDirectory, HISTORY_FILE_NAME);
+    }
+
+    /**
+     * Returns the recorded BOM times in milliseconds, oldest first. An unreadable history is treated as empty.
+     *
+     */
+    public List<Long> getBomTimes() {
+        final List<Long> bomTimes = new ArrayList<Long>();
+        if (!historyFile.isFile()) {
+            return bomTimes;
+        }
+        try {
+            final long[] storedBomTimes = gson.fromJson(FileUtils.readFileToString(historyFile, "UTF-8"),
+                    long[].class);
+            if (storedBomTimes != null) {
+                for (final long bomTime : storedBomTimes) {
+                    bomTimes.add(bomTime);
+                }
+            }
+        } catch (final IOException e) {
+            // start a new history
+        } catch (final JsonParseException e) {
+            // start a new history
+        }
+        return bomTimes;
+    }
+
+    public void addBomTime(final long bomTimeInMilliseconds) throws IOException {
+        final String key = historyFile.getAbsolutePath();
+        final Object lock = LOCKS.acquire(key);
+        try {
+            synchronized (lock) {
+                final List<Long> bomTimes = getBomTimes();
+                bomTimes.add(bomTimeInMilliseconds);
+                while (bomTimes.size() > MAX_RECORDS) {
+                    bomTimes.remove(0);
+                }
+                final AtomicFileWriter writer = new AtomicFileWriter(historyFile);
+                try {
+                    gson.toJson(bomTimes.toArray(new Long[bomTimes.size()]), writer);
+                    writer.commit();
+                } finally {
+                    writer.abort();
+                }
+            }
+        } finally {
+            LOCKS.release(key);
+        }
+    }
+
+
+}
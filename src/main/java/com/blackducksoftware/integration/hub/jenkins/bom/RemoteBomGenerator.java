@@ -33,6 +33,8 @@ public class RemoteBomGenerator extends RiskReportGenerator {
 
     private final VirtualChannel channel;
 
+    private BomTimeHistory bomTimeHistory;
+
     public RemoteBomGenerator(final HubReportGenerationInfo hubReportGenerationInfo,
             final HubSupportHelper supportHelper, final VirtualChannel channel) {
         super(hubReportGenerationInfo, supportHelper);
@@ -43,9 +45,15 @@ public class RemoteBomGenerator extends RiskReportGenerator {
         return channel;
     }
 
+    public void setBomTimeHistory(final BomTimeHistory bomTimeHistory) {
+        this.bomTimeHistory = bomTimeHistory;
+    }
+
     @Override
     public HubEventPolling getHubEventPolling(final HubIntRestService service) {
-        return new RemoteHubEventPolling(service, getChannel());
+        final RemoteHubEventPolling hubEventPolling = new RemoteHubEventPolling(service, getChannel());
+        hubEventPolling.setBomTimeHistory(bomTimeHistory);
+        return hubEventPolling;
     }
 
 }
@@ -25,29 +25,31 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.blackducksoftware.integration.hub.HubIntRestService;
 import com.blackducksoftware.integration.hub.api.report.HubReportGenerationInfo;
-import com.blackducksoftware.integration.hub.api.scan.ScanSummaryItem;
-import com.blackducksoftware.integration.hub.dataservices.scan.ScanStatusDataService;
 import com.blackducksoftware.integration.hub.exception.BDRestException;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.exception.ProjectDoesNotExistException;
 import com.blackducksoftware.integration.hub.exception.UnexpectedHubResponseException;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Callback;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Registration;
+import com.blackducksoftware.integration.hub.jenkins.remote.ReadScanStatusFiles;
 import com.blackducksoftware.integration.hub.polling.HubEventPolling;
 import com.blackducksoftware.integration.log.IntLogger;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
-import hudson.FilePath;
+import hudson.Util;
 import hudson.remoting.VirtualChannel;
 
 public class RemoteHubEventPolling extends HubEventPolling {
 
     private final VirtualChannel channel;
 
+    private BomTimeHistory bomTimeHistory;
+
     public RemoteHubEventPolling(final HubIntRestService service, final VirtualChannel channel) {
         super(service);
         this.channel = channel;
@@ -57,59 +59,115 @@ public class RemoteHubEventPolling extends HubEventPolling {
         return channel;
     }
 
+    /**
+     * The BOM times of the previous Builds of the Job, used to choose when to first check the BOM. Without a history
+     * the BOM is first checked after BomPollingSchedule.DEFAULT_INITIAL_DELAY.
+     *
+     */
+    public void setBomTimeHistory(final BomTimeHistory bomTimeHistory) {
+        this.bomTimeHistory = bomTimeHistory;
+    }
+
     @Override
     public void assertBomUpToDate(final HubReportGenerationInfo hubReportGenerationInfo, final IntLogger logger)
             throws InterruptedException, BDRestException, HubIntegrationException, URISyntaxException, IOException,
             ProjectDoesNotExistException, UnexpectedHubResponseException {
-        if (StringUtils.isBlank(hubReportGenerationInfo.getScanStatusDirectory())) {
-            throw new HubIntegrationException("The scan status directory must be a non empty value.");
+        final List<String> scanSummaryHrefs = getScanSummaryHrefs(hubReportGenerationInfo, logger);
+        if (scanSummaryHrefs.isEmpty()) {
+            return;
         }
-        final FilePath statusDirectory = new FilePath(getChannel(), hubReportGenerationInfo.getScanStatusDirectory());
-        if (!statusDirectory.exists()) {
-            throw new HubIntegrationException("The scan status directory does not exist.");
-        }
-        if (!statusDirectory.isDirectory()) {
-            throw new HubIntegrationException("The scan status directory provided is not a directory.");
+        waitForBomUpdate(logger, scanSummaryHrefs, hubReportGenerationInfo.getMaximumWaitTime());
+    }
+
+    /**
+     * Reads and removes the scan status files of this Build, and returns the scan summaries that the BOM update is
+     * waiting on. The list is empty if no targets were scanned.
+     *
+     */
+    public List<String> getScanSummaryHrefs(final HubReportGenerationInfo hubReportGenerationInfo,
+            final IntLogger logger) throws InterruptedException, HubIntegrationException, IOException {
+        if (hubReportGenerationInfo.getScanTargets() != null && hubReportGenerationInfo.getScanTargets().isEmpty()) {
+            // Every target was skipped by an incremental scan, so the Bom was not changed by this Build
+            logger.info("No targets were scanned, the Bom is already up to date.");
+            return new ArrayList<String>();
         }
-        final List<FilePath> statusFiles = statusDirectory.list();
-        if (statusFiles == null || statusFiles.size() == 0) {
-            throw new HubIntegrationException("Can not find the scan status files in the directory provided.");
+        if (StringUtils.isBlank(hubReportGenerationInfo.getScanStatusDirectory())) {
+            throw new HubIntegrationException("The scan status directory must be a non empty value.");
         }
         int expectedNumScans = 0;
         if (hubReportGenerationInfo.getScanTargets() != null && !hubReportGenerationInfo.getScanTargets().isEmpty()) {
             expectedNumScans = hubReportGenerationInfo.getScanTargets().size();
         }
-        if (statusFiles.size() != expectedNumScans) {
-            throw new HubIntegrationException("There were " + expectedNumScans + " scans configured and we found "
-                    + statusFiles.size() + " status files.");
+        logger.info("Checking the directory : " + hubReportGenerationInfo.getScanStatusDirectory()
+                + " for the scan status's.");
+        return getChannel()
+                .call(new ReadScanStatusFiles(hubReportGenerationInfo.getScanStatusDirectory(), expectedNumScans));
+    }
+
+    /**
+     * Registers the scan summaries with the BomCompletionPoller, the callback is run once the scans have finished,
+     * failed or timed out. The outcome is then checked with checkBomUpdated.
+     *
+     */
+    public Registration registerBomWait(final List<String> scanSummaryHrefs, final long timeoutAt,
+            final Callback callback) {
+        return BomCompletionPoller.getInstance().register(getService(), scanSummaryHrefs, getPollingSchedule(),
+                timeoutAt, callback);
+    }
+
+    /**
+     * Logs how long the BOM update took and records it in the BomTimeHistory, throws if the scans failed or did not
+     * finish in time.
+     *
+     */
+    public void checkBomUpdated(final IntLogger logger, final Registration registration, final long waitStartedAt,
+            final long timeoutInMilliseconds) throws HubIntegrationException {
+        final long waitTime = System.currentTimeMillis() - waitStartedAt;
+        if (!registration.isUpdated()) {
+            logger.info("The Bom was not updated, checked " + registration.getPollCount() + " times over "
+                    + Util.getTimeSpanString(waitTime) + ".");
+            throw new HubIntegrationException("The pending scans have not completed within the specified wait time: "
+                    + TimeUnit.MILLISECONDS.toMinutes(timeoutInMilliseconds) + " minutes");
         }
-        logger.info("Checking the directory : " + statusDirectory.getRemote() + " for the scan status's.");
-        final List<ScanSummaryItem> scanSummaryItems = new ArrayList<ScanSummaryItem>();
-        for (final FilePath currentStatusFile : statusFiles) {
-            final String fileContent = currentStatusFile.readToString();
-            final Gson gson = new GsonBuilder().create();
-            final ScanSummaryItem scanSummaryItem = gson.fromJson(fileContent, ScanSummaryItem.class);
-            if (scanSummaryItem.getMeta() == null || scanSummaryItem.getStatus() == null) {
-                throw new HubIntegrationException("The scan status file : " + currentStatusFile.getRemote()
-                        + " does not contain valid scan status json.");
-            }
-            scanSummaryItems.add(scanSummaryItem);
+        logger.info("The Bom has been updated, checked " + registration.getPollCount() + " times over "
+                + Util.getTimeSpanString(waitTime) + ".");
+        recordBomTime(logger, waitTime);
+    }
+
+    /**
+     * Registers the scan summaries with the BomCompletionPoller and waits until every scan has finished updating the
+     * BOM, or the maximum wait time has passed.
+     *
+     */
+    private void waitForBomUpdate(final IntLogger logger, final List<String> scanSummaryHrefs,
+            final long timeoutInMilliseconds) throws InterruptedException, HubIntegrationException {
+        final BomCompletionPoller poller = BomCompletionPoller.getInstance();
+        final Registration registration = poller.register(getService(), scanSummaryHrefs, getPollingSchedule());
+        try {
+            registration.await(timeoutInMilliseconds);
+        } finally {
+            poller.cancel(registration);
         }
+        checkBomUpdated(logger, registration, registration.getRegisteredAt(), timeoutInMilliseconds);
+    }
 
-        logger.debug("Cleaning up the scan status files at : " + statusDirectory.getRemote());
-        // We delete the files in a second loop to ensure we have all the scan
-        // status's in memory before we start
-        // deleting the files. This way, if there is an exception thrown, the
-        // User can go look at the files to see what
-        // went wrong.
-        for (final FilePath currentStatusFile : statusFiles) {
-            currentStatusFile.delete();
+    private BomPollingSchedule getPollingSchedule() {
+        List<Long> pastBomTimes = null;
+        if (bomTimeHistory != null) {
+            pastBomTimes = bomTimeHistory.getBomTimes();
         }
-        statusDirectory.delete();
+        return new BomPollingSchedule(pastBomTimes);
+    }
 
-        final long timeoutInMilliseconds = hubReportGenerationInfo.getMaximumWaitTime();
-        final ScanStatusDataService scanStatusDataService = getService().getScanStatusDataService();
-        scanStatusDataService.assertBomImportScansFinished(scanSummaryItems, timeoutInMilliseconds);
+    private void recordBomTime(final IntLogger logger, final long bomTimeInMilliseconds) {
+        if (bomTimeHistory == null) {
+            return;
+        }
+        try {
+            bomTimeHistory.addBomTime(bomTimeInMilliseconds);
+        } catch (final IOException e) {
+            logger.debug("Could not record the Bom update time : " + e.getMessage());
+        }
     }
 
 }
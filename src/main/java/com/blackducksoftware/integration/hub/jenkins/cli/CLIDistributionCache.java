@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+import com.blackducksoftware.integration.hub.jenkins.helper.KeyedLocks;
+import com.blackducksoftware.integration.hub.jenkins.remote.CleanCLIDistributions;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetCLIDistributionMarker;
+import com.blackducksoftware.integration.hub.jenkins.remote.InstallCLIDistribution;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.FilePath;
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import jenkins.model.Jenkins;
+
+/**
+ * Keeps the CLI archives downloaded from the Hub on the Jenkins master, one per Hub version and OS, and pushes them to
+ * the nodes over the remoting channel. The Hub is contacted once per version instead of once per node.
+ *
+ */
+public class CLIDistributionCache {
+    public static final String DIRECTORY_NAME = "hubScanCliDistributions";
+
+    public static final String LINUX_ARCHIVE = "scan.cli.zip";
+
+    public static final String WINDOWS_ARCHIVE = "scan.cli-windows.zip";
+
+    public static final String MAC_ARCHIVE = "scan.cli-macosx.zip";
+
+    public static final int MAX_CACHED_VERSIONS = 3;
+
+    private static CLIDistributionCache instance;
+
+    private final File rootDirectory;
+
+    private final KeyedLocks locks = new KeyedLocks();
+
+    public CLIDistributionCache(final File rootDirectory) {
+        this.rootDirectory = rootDirectory;
+    }
+
+    public static synchronized CLIDistributionCache getInstance() {
+        if (instance == null) {
+            instance = new CLIDistributionCache(new File(Jenkins.getInstance().getRootDir(), DIRECTORY_NAME));
+        }
+        return instance;
+    }
+
+    public int getLockCount() {
+        return locks.size();
+    }
+
+    public static String getArchiveName(final boolean windows, final boolean mac) {
+        if (windows) {
+            return WINDOWS_ARCHIVE;
+        } else if (mac) {
+            return MAC_ARCHIVE;
+        }
+        return LINUX_ARCHIVE;
+    }
+
+    public static String getDownloadUrl(final String hubUrl, final String archiveName) {
+        return StringUtils.removeEnd(hubUrl, "/") + "/download/" + archiveName;
+    }
+
+    /**
+     * Returns the cached CLI archive for this Hub version, downloading it from the Hub the first time it is needed.
+     * The download fails fast with a HubUnavailableException while the HubCircuitBreaker is open for this Hub.
+     *
+     */
+    public Distribution getDistribution(final IntLogger logger, final String hubUrl, final String hubVersion,
+            final String archiveName, final int timeoutInSeconds) throws IOException, HubUnavailableException {
+        final File hubDirectory = new File(rootDirectory, Util.getDigestOf(hubUrl));
+        final File versionDirectory = new File(hubDirectory, hubVersion.replaceAll("[^\\w.-]", "_"));
+        final File archive = new File(versionDirectory, archiveName);
+        final File checksumFile = new File(versionDirectory, archiveName + ".md5");
+        final String lockKey = archive.getPath();
+        final Object lock = locks.acquire(lockKey);
+        try {
+            synchronized (lock) {
+                if (archive.isFile() && checksumFile.isFile()) {
+                    return new Distribution(hubVersion, archive,
+                            FileUtils.readFileToString(checksumFile, "UTF-8").trim());
+                }
+                final URL downloadUrl = new URL(getDownloadUrl(hubUrl, archiveName));
+                logger.info("Downloading the BlackDuck scan CLI for Hub version " + hubVersion + " from : "
+                        + downloadUrl);
+                if (!versionDirectory.isDirectory() && !versionDirectory.mkdirs()) {
+                    throw new IOException("Could not create the directory : " + versionDirectory);
+                }
+                final File download = new File(versionDirectory, archiveName + ".part");
+                // Only a download from the Hub tells whether the Hub is available, a cached archive does not
+                final HubCircuitBreaker circuitBreaker = HubCircuitBreaker.getInstance();
+                circuitBreaker.checkAvailable(hubUrl);
+                final HubRequestLimiter requestLimiter = HubRequestLimiter.getInstance();
+                try {
+                    requestLimiter.acquire();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to download the CLI");
+                }
+                try {
+                    final URLConnection connection = ProxyConfiguration.open(downloadUrl);
+                    connection.setConnectTimeout(timeoutInSeconds * 1000);
+                    connection.setReadTimeout(timeoutInSeconds * 1000);
+                    final InputStream inputStream = connection.getInputStream();
+                    try {
+                        FileUtils.copyInputStreamToFile(inputStream, download);
+                    } finally {
+                        inputStream.close();
+                    }
+                } catch (final IOException e) {
+                    FileUtils.deleteQuietly(download);
+                    circuitBreaker.recordFailure(hubUrl, e);
+                    throw e;
+                } finally {
+                    requestLimiter.release();
+                }
+                circuitBreaker.recordSuccess(hubUrl);
+                try {
+                    validateArchive(download);
+                } catch (final IOException e) {
+                    FileUtils.deleteQuietly(download);
+                    throw e;
+                }
+                final String checksum = getChecksum(download);
+                if ((archive.exists() && !archive.delete()) || !download.renameTo(archive)) {
+                    throw new IOException("Could not move the downloaded CLI to : " + archive);
+                }
+                FileUtils.writeStringToFile(checksumFile, checksum, "UTF-8");
+                pruneVersions(hubDirectory, versionDirectory);
+                return new Distribution(hubVersion, archive, checksum);
+            }
+        } finally {
+            locks.release(lockKey);
+        }
+    }
+
+    /**
+     * Checks that the download is a readable zip, so a truncated download or an error page of a proxy is not cached
+     * and pushed to every node.
+     *
+     */
+    public void validateArchive(final File archive) throws IOException {
+        try {
+            final ZipFile zipFile = new ZipFile(archive);
+            try {
+                if (zipFile.size() == 0) {
+                    throw new IOException("The downloaded CLI archive is empty : " + archive);
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (final ZipException e) {
+            throw new IOException("The downloaded CLI archive is not a valid zip file : " + archive, e);
+        }
+    }
+
+    /**
+     * Pushes the archive to the node and publishes it as the current distribution, unless it already is. Returns true
+     * if the CLI was installed.
+     *
+     */
+    public boolean install(final IntLogger logger, final Node node, final String toolsDirectory,
+            final Distribution distribution) throws IOException, InterruptedException {
+        final VirtualChannel channel = node.getChannel();
+        if (channel == null) {
+            throw new IOException("The node " + node.getDisplayName() + " is offline.");
+        }
+        // Deletes the retired distributions in the background
+        channel.callAsync(new CleanCLIDistributions(toolsDirectory));
+        if (distribution.getMarker().equals(channel.call(new GetCLIDistributionMarker(toolsDirectory)))) {
+            return false;
+        }
+        final FilePath remoteArchive = new FilePath(channel, toolsDirectory)
+                .child(distribution.getArchive().getName());
+        remoteArchive.getParent().mkdirs();
+        remoteArchive.copyFrom(new FilePath(distribution.getArchive()));
+        final String remoteChecksum = remoteArchive.digest();
+        if (!distribution.getChecksum().equalsIgnoreCase(remoteChecksum)) {
+            remoteArchive.delete();
+            throw new IOException("The checksum of the CLI archive on the node : " + remoteChecksum
+                    + " does not match the checksum of the cached archive : " + distribution.getChecksum());
+        }
+        logger.debug("Copied the BlackDuck scan CLI archive to : " + remoteArchive.getRemote());
+        try {
+            channel.call(new InstallCLIDistribution(toolsDirectory, remoteArchive.getRemote(),
+                    distribution.getChecksum(), distribution.getMarker()));
+        } catch (final IOException e) {
+            throw e;
+        } catch (final InterruptedException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IOException("Could not install the CLI archive on the node : " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the MAX_CACHED_VERSIONS most recently downloaded versions of a Hub
+     *
+     */
+    public void pruneVersions(final File hubDirectory, final File currentVersionDirectory) {
+        final File[] versionDirectories = hubDirectory.listFiles();
+        if (versionDirectories == null || versionDirectories.length <= MAX_CACHED_VERSIONS) {
+            return;
+        }
+        final List<File> oldVersions = new ArrayList<File>(Arrays.asList(versionDirectories));
+        oldVersions.remove(currentVersionDirectory);
+        Collections.sort(oldVersions, new Comparator<File>() {
+            @Override
+            public int compare(final File first, final File second) {
+                return Long.valueOf(second.lastModified()).compareTo(Long.valueOf(first.lastModified()));
+            }
+        });
+        for (int i = MAX_CACHED_VERSIONS - 1; i < oldVersions.size(); i++) {
+            FileUtils.deleteQuietly(oldVersions.get(i));
+        }
+    }
+
+    private String getChecksum(final File file) throws IOException {
+        final InputStream inputStream = new FileInputStream(file);
+        try {
+            return Util.getDigestOf(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    public static class Distribution {
+        private final String hubVersion;
+
+        private final File archive;
+
+        private final String checksum;
+
+        public Distribution(final String hubVersion, final File archive, final String checksum) {
+            this.hubVersion = hubVersion;
+            this.archive = archive;
+            this.checksum = checksum;
+        }
+
+        public String getHubVersion() {
+            return hubVersion;
+        }
+
+        public File getArchive() {
+            return archive;
+        }
+
+        /**
+         * The MD5 of the archive
+         *
+         */
+        public String getChecksum() {
+            return checksum;
+        }
+
+        /**
+         * Written next to the installed CLI to recognize the distribution it was installed from
+         *
+         */
+        public String getMarker() {
+            return hubVersion + " " + archive.getName() + " " + checksum;
+        }
+
+    }
+
+}
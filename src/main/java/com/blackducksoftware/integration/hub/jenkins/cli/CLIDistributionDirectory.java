@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.cli.CLILocation;
+
+import hudson.FilePath;
+import hudson.Util;
+
+/**
+ * The CLI distributions installed on a node. Each distribution is unpacked into a staging directory, then renamed to
+ * a directory named by the checksum of its archive, so a distribution directory is never seen half written and is
+ * never modified once published. The "current" file names the distribution the Builds should use and is replaced
+ * atomically. A distribution that is no longer current is kept for RETIRED_DISTRIBUTION_LIFETIME so the scans still
+ * using it can finish, then it is deleted by clean.
+ *
+ */
+public class CLIDistributionDirectory {
+    public static final String DIRECTORY_NAME = "HubScanCliDistributions";
+
+    public static final String CURRENT_FILE_NAME = "current";
+
+    public static final String MARKER_FILE_NAME = "hubScanCliDistribution.txt";
+
+    public static final String STAGING_PREFIX = "staging-";
+
+    public static final long RETIRED_DISTRIBUTION_LIFETIME = 24L * 60 * 60 * 1000;
+
+    private final File toolsDirectory;
+
+    private final File root;
+
+    public CLIDistributionDirectory(final File toolsDirectory) {
+        this.toolsDirectory = toolsDirectory;
+        root = new File(toolsDirectory, DIRECTORY_NAME);
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    public File getDistributionDirectory(final String checksum) {
+        return new File(root, checksum);
+    }
+
+    /**
+     * The checksum of the current distribution, null if there is none or if its directory is missing
+     *
+     */
+    public String getCurrentChecksum() throws IOException {
+        final File currentFile = new File(root, CURRENT_FILE_NAME);
+        if (!currentFile.isFile()) {
+            return null;
+        }
+        final String checksum = FileUtils.readFileToString(currentFile, "UTF-8").trim();
+        if (!isChecksum(checksum) || !getDistributionDirectory(checksum).isDirectory()) {
+            return null;
+        }
+        return checksum;
+    }
+
+    public File getCurrentDistribution() throws IOException {
+        final String checksum = getCurrentChecksum();
+        if (checksum == null) {
+            return null;
+        }
+        return getDistributionDirectory(checksum);
+    }
+
+    /**
+     * The directory to give to the CLILocation : the current distribution, or the tools directory if the CLI was
+     * installed there directly by the CLIInstaller
+     *
+     */
+    public File getCLIRoot() throws IOException {
+        final File currentDistribution = getCurrentDistribution();
+        if (currentDistribution == null) {
+            return toolsDirectory;
+        }
+        return currentDistribution;
+    }
+
+    public String getCurrentMarker() throws IOException {
+        final File currentDistribution = getCurrentDistribution();
+        if (currentDistribution == null) {
+            return null;
+        }
+        final File markerFile = new File(currentDistribution, MARKER_FILE_NAME);
+        if (!markerFile.isFile()) {
+            return null;
+        }
+        return FileUtils.readFileToString(markerFile, "UTF-8").trim();
+    }
+
+    /**
+     * Publishes the content of the archive as the distribution named by its checksum, unless it is already published,
+     * and makes it the current distribution.
+     *
+     */
+    public void install(final File archive, final String checksum, final String marker)
+            throws IOException, InterruptedException {
+        if (!isChecksum(checksum)) {
+            throw new IOException("Not a valid CLI archive checksum : " + checksum);
+        }
+        final File distribution = getDistributionDirectory(checksum);
+        if (!distribution.isDirectory()) {
+            final File staging = new File(root, STAGING_PREFIX + checksum + "-" + System.nanoTime());
+            try {
+                final CLILocation cliLocation = new CLILocation(staging);
+                new FilePath(archive).unzip(new FilePath(cliLocation.getCLIInstallDir()));
+                final File providedJavaExec = cliLocation.getProvidedJavaExec();
+                if (providedJavaExec != null && providedJavaExec.isFile()) {
+                    providedJavaExec.setExecutable(true);
+                }
+                FileUtils.writeStringToFile(new File(staging, MARKER_FILE_NAME), marker, "UTF-8");
+                if (!staging.renameTo(distribution) && !distribution.isDirectory()) {
+                    throw new IOException("Could not publish the CLI distribution to : " + distribution);
+                }
+            } finally {
+                if (staging.exists()) {
+                    Util.deleteRecursive(staging);
+                }
+            }
+        }
+        setCurrent(checksum);
+    }
+
+    public void setCurrent(final String checksum) throws IOException {
+        final File previousDistribution = getCurrentDistribution();
+        final File currentFile = new File(root, CURRENT_FILE_NAME);
+        final File newCurrentFile = new File(root, CURRENT_FILE_NAME + "-" + System.nanoTime() + ".tmp");
+        FileUtils.writeStringToFile(newCurrentFile, checksum, "UTF-8");
+        try {
+            Files.move(newCurrentFile.toPath(), currentFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            newCurrentFile.delete();
+        }
+        retire(previousDistribution, getDistributionDirectory(checksum));
+    }
+
+    /**
+     * Stops using the distributions, for when the CLIInstaller installs the CLI in the tools directory directly
+     *
+     */
+    public void clearCurrent() throws IOException {
+        final File previousDistribution = getCurrentDistribution();
+        final File currentFile = new File(root, CURRENT_FILE_NAME);
+        if (currentFile.exists() && !currentFile.delete()) {
+            throw new IOException("Could not delete : " + currentFile);
+        }
+        retire(previousDistribution, null);
+    }
+
+    /**
+     * Deletes the distributions that were retired more than RETIRED_DISTRIBUTION_LIFETIME ago and the abandoned
+     * staging directories. Returns the number of directories deleted.
+     *
+     */
+    public int clean(final long currentTime) throws IOException, InterruptedException {
+        final File[] children = root.listFiles();
+        if (children == null) {
+            return 0;
+        }
+        final File currentDistribution = getCurrentDistribution();
+        int deleted = 0;
+        for (final File child : children) {
+            if (!child.isDirectory() || child.equals(currentDistribution)) {
+                continue;
+            }
+            if (currentTime - child.lastModified() > RETIRED_DISTRIBUTION_LIFETIME) {
+                Util.deleteRecursive(child);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void retire(final File previousDistribution, final File currentDistribution) {
+        if (previousDistribution != null && !previousDistribution.equals(currentDistribution)) {
+            // The last modified time of a retired distribution is the time it was retired
+            previousDistribution.setLastModified(System.currentTimeMillis());
+        }
+    }
+
+    private boolean isChecksum(final String checksum) {
+        return StringUtils.isNotBlank(checksum) && checksum.matches("[0-9a-fA-F]+");
+    }
+
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.KeyedLocks;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+
+/**
+ * Remembers, per node, the Hub version the CLI was last installed or checked for, so the Hub is only asked whether
+ * the CLI is current once the TTL expires or the Hub changes. Builds on the same node synchronize on the lock of the
+ * node so only one of them runs the install check at a time.
+ *
+ */
+public class CLIInstallationCache {
+    private static final CLIInstallationCache INSTANCE = new CLIInstallationCache();
+
+    private final Map<String, Installation> installations = new HashMap<String, Installation>();
+
+    private final KeyedLocks locks = new KeyedLocks();
+
+    public static CLIInstallationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Every acquireLock must be followed by a releaseLock, the lock of a node is dropped once no Build uses it.
+     *
+     */
+    public Object acquireLock(final String nodeName) {
+        return locks.acquire(nodeName);
+    }
+
+    public void releaseLock(final String nodeName) {
+        locks.release(nodeName);
+    }
+
+    public int getLockCount() {
+        return locks.size();
+    }
+
+    public boolean isCurrent(final String nodeName, final String toolsDirectory, final String hubUrl,
+            final String hubVersion, final long ttlInMilliseconds) {
+        return isCurrent(nodeName, toolsDirectory, hubUrl, hubVersion, ttlInMilliseconds, System.currentTimeMillis());
+    }
+
+    public boolean isCurrent(final String nodeName, final String toolsDirectory, final String hubUrl,
+            final String hubVersion, final long ttlInMilliseconds, final long currentTime) {
+        if (hubVersion == null || ttlInMilliseconds <= 0) {
+            return false;
+        }
+        final Installation installation;
+        synchronized (installations) {
+            installation = installations.get(nodeName);
+        }
+        return installation != null && installation.toolsDirectory.equals(toolsDirectory)
+                && installation.hubUrl.equals(hubUrl) && installation.hubVersion.equals(hubVersion)
+                && currentTime - installation.checkedAt < ttlInMilliseconds;
+    }
+
+    public void setInstalled(final String nodeName, final String toolsDirectory, final String hubUrl,
+            final String hubVersion) {
+        setInstalled(nodeName, toolsDirectory, hubUrl, hubVersion, System.currentTimeMillis());
+    }
+
+    public void setInstalled(final String nodeName, final String toolsDirectory, final String hubUrl,
+            final String hubVersion, final long checkedAt) {
+        if (toolsDirectory == null || hubUrl == null || hubVersion == null) {
+            return;
+        }
+        synchronized (installations) {
+            installations.put(nodeName, new Installation(toolsDirectory, hubUrl, hubVersion, checkedAt));
+        }
+    }
+
+    public void invalidate(final String nodeName) {
+        synchronized (installations) {
+            installations.remove(nodeName);
+        }
+    }
+
+    public void clear() {
+        synchronized (installations) {
+            installations.clear();
+        }
+    }
+
+    private static class Installation {
+        private final String toolsDirectory;
+
+        private final String hubUrl;
+
+        private final String hubVersion;
+
+        private final long checkedAt;
+
+        private Installation(final String toolsDirectory, final String hubUrl, final String hubVersion,
+                final long checkedAt) {
+            this.toolsDirectory = toolsDirectory;
+            this.hubUrl = hubUrl;
+            this.hubVersion = hubVersion;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    /**
+     * A node that reconnects may be a new machine with the same name, its CLI is checked again.
+     *
+     */
+    @Extension
+    public static class CLIInstallationCacheInvalidator extends ComputerListener {
+        @Override
+        public void onOnline(final Computer computer, final TaskListener listener) {
+            getInstance().invalidate(computer.getName());
+        }
+
+        @Override
+        public void onOffline(final Computer computer) {
+            getInstance().invalidate(computer.getName());
+        }
+    }
+
+}
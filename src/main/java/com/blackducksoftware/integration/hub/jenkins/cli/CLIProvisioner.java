@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFactsCache;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeProbe;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.LogTaskListener;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Installs or validates the CLI on the nodes that come online, in the background, so the first Build on a new node
+ * does not pay for the CLI download. At most MAX_CONCURRENT_PROVISIONS nodes are provisioned at a time so a burst of
+ * new nodes does not flood the Hub.
+ *
+ */
+public class CLIProvisioner {
+    public static final int MAX_CONCURRENT_PROVISIONS = 2;
+
+    private static final Logger LOGGER = Logger.getLogger(CLIProvisioner.class.getName());
+
+    private static final CLIProvisioner INSTANCE = new CLIProvisioner();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_PROVISIONS,
+            new NamingThreadFactory(new DaemonThreadFactory(), "Hub CLI provisioning"));
+
+    private final Map<String, Status> statuses = new HashMap<String, Status>();
+
+    public static CLIProvisioner getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        final HubServerInfo hubServerInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        return hubServerInfo != null && hubServerInfo.isPluginConfigured() && hubServerInfo.isCliPreProvisioning();
+    }
+
+    public Status getStatus(final String nodeName) {
+        synchronized (statuses) {
+            return statuses.get(nodeName);
+        }
+    }
+
+    /**
+     * Forgets the status of a node that went offline or was deleted, a provisioning that is still running finishes
+     * without being shown.
+     *
+     */
+    public void removeStatus(final String nodeName) {
+        synchronized (statuses) {
+            statuses.remove(nodeName);
+        }
+    }
+
+    public int getStatusCount() {
+        synchronized (statuses) {
+            return statuses.size();
+        }
+    }
+
+    /**
+     * Queues the provisioning of the node, unless it is already queued or running
+     *
+     */
+    public void provision(final Computer computer) {
+        final String nodeName = computer.getName();
+        final Status status = new Status();
+        synchronized (statuses) {
+            final Status currentStatus = statuses.get(nodeName);
+            if (currentStatus != null && !currentStatus.isFinished()) {
+                return;
+            }
+            statuses.put(nodeName, status);
+        }
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                provisionNow(computer, status);
+            }
+        });
+    }
+
+    private void provisionNow(final Computer computer, final Status status) {
+        status.setStartedAt(System.currentTimeMillis());
+        status.setState(State.RUNNING);
+        try {
+            final Node node = computer.getNode();
+            if (node == null || computer.getChannel() == null) {
+                throw new IllegalStateException("The node is no longer online.");
+            }
+            final HubServerInfo hubServerInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+            final HubJenkinsLogger logger = new HubJenkinsLogger(new LogTaskListener(LOGGER, Level.FINE));
+
+            final String hubVersion = HubSupportCache.getInstance().getHubSupport(logger, hubServerInfo)
+                    .getHubVersion();
+            status.setHubVersion(hubVersion);
+
+            final String toolsDirectory = new DummyToolInstaller().getToolDir(new DummyToolInstallation(), node)
+                    .getRemote();
+            final NodeFacts nodeFacts = NodeFactsCache.getInstance().getFacts(node);
+            final EnvVars envVars = computer.getEnvironment();
+            final NodeProbe cliProbe = new NodeCLIInstaller(hubServerInfo).installCLI(logger, node, toolsDirectory,
+                    nodeFacts.getHostName(), envVars, nodeFacts.getJavaHome(), hubVersion);
+            status.setCliPath(cliProbe.getCliPath());
+            status.setJavaExec(cliProbe.getJavaExec());
+            status.setState(cliProbe.isJavaExecExists() ? State.SUCCEEDED : State.FAILED);
+            if (!cliProbe.isJavaExecExists()) {
+                status.setMessage("Could not find the java executable : " + cliProbe.getJavaExec());
+            }
+        } catch (final InterruptedException e) {
+            status.setState(State.FAILED);
+            status.setMessage("The provisioning was interrupted.");
+        } catch (final Exception e) {
+            LOGGER.log(Level.WARNING, "Could not provision the BlackDuck scan CLI on " + computer.getName(), e);
+            status.setState(State.FAILED);
+            status.setMessage(e.getMessage());
+        } finally {
+            status.setFinishedAt(System.currentTimeMillis());
+        }
+    }
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+    }
+
+    public static class Status {
+        private final long queuedAt = System.currentTimeMillis();
+
+        private volatile State state = State.QUEUED;
+
+        private volatile long startedAt;
+
+        private volatile long finishedAt;
+
+        private volatile String hubVersion;
+
+        private volatile String cliPath;
+
+        private volatile String javaExec;
+
+        private volatile String message;
+
+        public boolean isFinished() {
+            return state == State.SUCCEEDED || state == State.FAILED;
+        }
+
+        public long getQueuedAt() {
+            return queuedAt;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public void setState(final State state) {
+            this.state = state;
+        }
+
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        public void setStartedAt(final long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        public long getFinishedAt() {
+            return finishedAt;
+        }
+
+        public void setFinishedAt(final long finishedAt) {
+            this.finishedAt = finishedAt;
+        }
+
+        /**
+         * The time spent waiting for a free provisioning slot
+         *
+         */
+        public long getWaitTimeInMilliseconds() {
+            if (startedAt == 0) {
+                return System.currentTimeMillis() - queuedAt;
+            }
+            return startedAt - queuedAt;
+        }
+
+        public long getDurationInMilliseconds() {
+            if (startedAt == 0) {
+                return 0;
+            } else if (finishedAt == 0) {
+                return System.currentTimeMillis() - startedAt;
+            }
+            return finishedAt - startedAt;
+        }
+
+        public String getHubVersion() {
+            return hubVersion;
+        }
+
+        public void setHubVersion(final String hubVersion) {
+            this.hubVersion = hubVersion;
+        }
+
+        public String getCliPath() {
+            return cliPath;
+        }
+
+        public void setCliPath(final String cliPath) {
+            this.cliPath = cliPath;
+        }
+
+        public String getJavaExec() {
+            return javaExec;
+        }
+
+        public void setJavaExec(final String javaExec) {
+            this.javaExec = javaExec;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(final String message) {
+            this.message = message;
+        }
+
+    }
+
+    @Extension
+    public static class CLIProvisioningListener extends ComputerListener {
+        @Override
+        public void onOnline(final Computer computer, final TaskListener listener) {
+            if (isEnabled()) {
+                getInstance().provision(computer);
+            }
+        }
+
+        @Override
+        public void onOffline(final Computer computer) {
+            getInstance().removeStatus(computer.getName());
+        }
+    }
+
+}
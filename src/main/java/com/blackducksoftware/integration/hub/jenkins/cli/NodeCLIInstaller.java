@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionCache.Distribution;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubScanToolMissingException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.remote.CLIRemoteInstall;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetNodeProbe;
+import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonScanStep;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFactsCache;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeProbe;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.EnvVars;
+import hudson.ProxyConfiguration;
+import hudson.model.Node;
+import jenkins.model.Jenkins;
+
+/**
+ * Installs or validates the CLI on a node, for a Build or for the background provisioning of a node.
+ *
+ */
+public class NodeCLIInstaller {
+    private final HubServerInfo hubServerInfo;
+
+    public NodeCLIInstaller(final HubServerInfo hubServerInfo) {
+        this.hubServerInfo = hubServerInfo;
+    }
+
+    public void addProxySettingsToCLIInstaller(final IntLogger logger, final CLIRemoteInstall remoteCLIInstall)
+            throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException, MalformedURLException {
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins != null) {
+            final ProxyConfiguration proxyConfig = jenkins.proxy;
+            if (proxyConfig != null) {
+
+                final URL serverUrl = new URL(hubServerInfo.getServerUrl());
+
+                final Proxy proxy = ProxyConfiguration.createProxy(serverUrl.getHost(), proxyConfig.name,
+                        proxyConfig.port, proxyConfig.noProxyHost);
+
+                if (proxy != Proxy.NO_PROXY && proxy.address() != null) {
+                    final InetSocketAddress proxyAddress = (InetSocketAddress) proxy.address();
+                    if (StringUtils.isNotBlank(proxyAddress.getHostName()) && proxyAddress.getPort() != 0) {
+                        if (StringUtils.isNotBlank(jenkins.proxy.getUserName())
+                                && StringUtils.isNotBlank(jenkins.proxy.getPassword())) {
+                            remoteCLIInstall.setProxyHost(proxyAddress.getHostName());
+                            remoteCLIInstall.setProxyPort(proxyAddress.getPort());
+                            remoteCLIInstall.setProxyUserName(jenkins.proxy.getUserName());
+                            remoteCLIInstall.setProxyPassword(jenkins.proxy.getPassword());
+
+                        } else {
+                            remoteCLIInstall.setProxyHost(proxyAddress.getHostName());
+                            remoteCLIInstall.setProxyPort(proxyAddress.getPort());
+                        }
+                        if (logger != null) {
+                            logger.debug("Using proxy: '" + proxyAddress.getHostName() + "' at Port: '"
+                                    + proxyAddress.getPort() + "'");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Installs or updates the CLI on the node, then probes the node for the CLI, the JRE and the one-jar cache. The
+     * Hub is only asked whether the CLI is current if the CLI was not checked for this Hub version within the CLI
+     * install check interval.
+     *
+     */
+    public NodeProbe installCLI(final HubJenkinsLogger logger, final Node node, final String toolsDirectory,
+            final String localHostName, final EnvVars variables, final String javaHome, final String hubVersion)
+            throws IOException, InterruptedException, Exception {
+        final CLIInstallationCache installationCache = CLIInstallationCache.getInstance();
+        final String hubUrl = hubServerInfo.getServerUrl();
+        final int installCheckTtl = hubServerInfo.getCliInstallCheckTtlInMinutes();
+        final Object lock = installationCache.acquireLock(node.getNodeName());
+        try {
+            synchronized (lock) {
+                NodeProbe cliProbe = null;
+                if (installationCache.isCurrent(node.getNodeName(), toolsDirectory, hubUrl, hubVersion,
+                        installCheckTtl * 60L * 1000L)) {
+                    cliProbe = probeCLI(logger, node, toolsDirectory, javaHome);
+                    if (cliProbe.isCliExists()) {
+                        logger.debug("The BlackDuck scan CLI was checked for Hub version " + hubVersion
+                                + " less than " + installCheckTtl + " minutes ago, skipping the install check.");
+                    } else {
+                        cliProbe = null;
+                    }
+                }
+                if (cliProbe == null) {
+                    if (!installCLIFromMaster(logger, node, toolsDirectory, hubUrl, hubVersion)) {
+                        final CLIRemoteInstall remoteCLIInstall = new CLIRemoteInstall(logger, toolsDirectory,
+                                localHostName, hubUrl, hubServerInfo.getUsername(),
+                                hubServerInfo.getPassword(), hubServerInfo.getTimeout(), variables);
+
+                        addProxySettingsToCLIInstaller(logger, remoteCLIInstall);
+
+                        final HubCircuitBreaker circuitBreaker = HubCircuitBreaker.getInstance();
+                        circuitBreaker.checkAvailable(hubUrl);
+                        // The node sends its own Hub requests and unzips the CLI, this does not hold a request
+                        // slot of the master
+                        try {
+                            node.getChannel().call(remoteCLIInstall);
+                        } catch (final Exception e) {
+                            circuitBreaker.recordFailure(hubUrl, e);
+                            throw e;
+                        }
+                        circuitBreaker.recordSuccess(hubUrl);
+                    }
+
+                    cliProbe = probeCLI(logger, node, toolsDirectory, javaHome);
+                    if (cliProbe.isCliExists()) {
+                        installationCache.setInstalled(node.getNodeName(), toolsDirectory, hubUrl, hubVersion);
+                    } else {
+                        installationCache.invalidate(node.getNodeName());
+                    }
+                }
+                if (!cliProbe.isCliExists()) {
+                    throw new HubScanToolMissingException("Could not find the CLI file to execute.");
+                }
+                logger.debug("Using this BlackDuck scan CLI at : " + cliProbe.getCliPath());
+                return cliProbe;
+            }
+        } finally {
+            installationCache.releaseLock(node.getNodeName());
+        }
+    }
+
+    /**
+     * Installs the CLI archive cached on the Jenkins master for this Hub version, so the Hub is contacted once per
+     * version instead of once per node. Returns false if the node should download the CLI from the Hub itself.
+     *
+     */
+    private boolean installCLIFromMaster(final HubJenkinsLogger logger, final Node node, final String toolsDirectory,
+            final String hubUrl, final String hubVersion) throws InterruptedException, HubUnavailableException {
+        if (hubVersion == null) {
+            return false;
+        }
+        try {
+            final NodeFacts nodeFacts = NodeFactsCache.getInstance().getFacts(node);
+            final CLIDistributionCache distributionCache = CLIDistributionCache.getInstance();
+            final Distribution distribution = distributionCache.getDistribution(logger, hubUrl, hubVersion,
+                    CLIDistributionCache.getArchiveName(nodeFacts.isWindows(), nodeFacts.isMac()),
+                    hubServerInfo.getTimeout());
+            if (distributionCache.install(logger, node, toolsDirectory, distribution)) {
+                logger.info("Installed the BlackDuck scan CLI for Hub version " + hubVersion
+                        + " from the Jenkins master.");
+            }
+            return true;
+        } catch (final IOException e) {
+            logger.warn("Could not install the BlackDuck scan CLI from the Jenkins master, the node will download it "
+                    + "from the Hub : " + e.getMessage());
+            return false;
+        }
+    }
+
+    private NodeProbe probeCLI(final HubJenkinsLogger logger, final Node node, final String toolsDirectory,
+            final String javaHome) throws IOException, InterruptedException, Exception {
+        final GetNodeProbe getCLIProbe = new GetNodeProbe(logger);
+        getCLIProbe.setToolsDirectory(toolsDirectory);
+        getCLIProbe.setJavaHome(javaHome);
+        return BDCommonScanStep.probeNode(logger, node, getCLIProbe);
+    }
+
+}
@@ -19,26 +19,28 @@
  * specific language governing permissions and limitations
  * under the License.
  *******************************************************************************/
-package com.blackducksoftware.integration.hub.jenkins.remote;
+package com.blackducksoftware.integration.hub.jenkins.exceptions;
 
-import hudson.remoting.Callable;
-
-import java.io.File;
-import java.io.IOException;
+/**
+ * Thrown without contacting the Hub while the HubCircuitBreaker is open for this Hub server.
+ *
+ */
+public class HubUnavailableException extends BDJenkinsHubPluginException {
+    private static final long serialVersionUID = 6318240918263541781L;
 
-import org.jenkinsci.remoting.Role;
-import org.jenkinsci.remoting.RoleChecker;
+    public HubUnavailableException() {
+    }
 
-public class GetPathSeparator implements Callable<String, IOException> {
-    private static final long serialVersionUID = 3459426768733083577L;
+    public HubUnavailableException(final String message) {
+        super(message);
+    }
 
-    @Override
-    public String call() throws IOException {
-        return File.pathSeparator;
+    public HubUnavailableException(final Throwable cause) {
+        super(cause);
     }
 
-    @Override
-    public void checkRoles(RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetPathSeparator.class));
+    public HubUnavailableException(final String message, final Throwable cause) {
+        super(message, cause);
     }
+
 }
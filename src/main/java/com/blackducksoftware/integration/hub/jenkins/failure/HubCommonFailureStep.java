@@ -23,6 +23,8 @@ package com.blackducksoftware.integration.hub.jenkins.failure;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.blackducksoftware.integration.exception.EncryptionException;
 import com.blackducksoftware.integration.hub.HubIntRestService;
@@ -41,9 +43,15 @@ import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
 import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubVariableContributor;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomTimeHistory;
 import com.blackducksoftware.integration.hub.jenkins.bom.RemoteHubEventPolling;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache;
 import com.blackducksoftware.integration.log.IntLogger;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
 
@@ -80,12 +88,20 @@ public class HubCommonFailureStep {
         }
 
         final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        final HubCircuitBreaker circuitBreaker = HubCircuitBreaker.getInstance();
         try {
             final HubIntRestService restService = getHubIntRestService(logger, serverInfo);
+            circuitBreaker.checkAvailable(serverInfo.getServerUrl());
 
             final HubSupportHelper hubSupport = getCheckedHubSupportHelper();
 
-            waitForBomToBeUpdated(builtOn, logger, bomUpToDateAction, restService, hubSupport);
+            try {
+                waitForBomToBeUpdated(builtOn, logger, bomUpToDateAction, restService, hubSupport,
+                        new BomTimeHistory(run.getParent().getRootDir()));
+            } catch (final Exception e) {
+                circuitBreaker.recordFailure(serverInfo.getServerUrl(), e);
+                throw e;
+            }
 
             if (!hubSupport.hasCapability(HubCapabilitiesEnum.POLICY_API)) {
                 logger.error("This version of the Hub does not have support for Policies.");
@@ -100,8 +116,30 @@ public class HubCommonFailureStep {
                 }
                 // We use this conditional in case there are other failure
                 // conditions in the future
-                final PolicyStatusItem policyStatus = restService
-                        .getPolicyStatus(bomUpToDateAction.getPolicyStatusUrl());
+                PolicyStatusItem policyStatus;
+                try {
+                    policyStatus = getPolicyStatus(restService, bomUpToDateAction.getPolicyStatusUrl());
+                } catch (final BDRestException e) {
+                    if (!HubRestConnectionRegistry.isSessionExpired(e)) {
+                        circuitBreaker.recordFailure(serverInfo.getServerUrl(), e);
+                        throw e;
+                    }
+                    // The Hub no longer knows the shared session, log in again and retry once
+                    logger.info("The Hub session is no longer valid, logging in again.");
+                    HubRestConnectionRegistry.getInstance().invalidate(serverInfo.getServerUrl(),
+                            serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
+                    try {
+                        policyStatus = getPolicyStatus(getHubIntRestService(logger, serverInfo),
+                                bomUpToDateAction.getPolicyStatusUrl());
+                    } catch (final Exception retryException) {
+                        circuitBreaker.recordFailure(serverInfo.getServerUrl(), retryException);
+                        throw retryException;
+                    }
+                } catch (final Exception e) {
+                    circuitBreaker.recordFailure(serverInfo.getServerUrl(), e);
+                    throw e;
+                }
+                circuitBreaker.recordSuccess(serverInfo.getServerUrl());
                 if (policyStatus == null) {
                     logger.error("Could not find any information about the Policy status of the bom.");
                     run.setResult(Result.UNSTABLE);
@@ -135,6 +173,8 @@ public class HubCommonFailureStep {
                 }
                 run.addAction(variableContributor);
             }
+        } catch (final HubUnavailableException e) {
+            BuildHelper.handleHubUnavailable(run, logger, serverInfo, e);
         } catch (final BDJenkinsHubPluginException e) {
             logger.error(e.getMessage(), e);
             run.setResult(Result.UNSTABLE);
@@ -160,17 +200,55 @@ public class HubCommonFailureStep {
         return true;
     }
 
+    /**
+     * Reads the scans that the BOM of this Build is waiting on, so that a Pipeline step can wait for the BOM without
+     * holding a thread. The list is empty if there is nothing to wait for. Returns null if this Hub does not write
+     * scan status files, the BOM then has to be waited on by checkFailureConditions.
+     *
+     */
+    public List<String> getPendingScans(final Node builtOn, final EnvVars envVars, final HubJenkinsLogger logger,
+            final BomUpToDateAction bomUpToDateAction) throws InterruptedException, IOException,
+            IllegalArgumentException, EncryptionException, BDRestException, URISyntaxException,
+            BDJenkinsHubPluginException, HubIntegrationException {
+        final CIEnvironmentVariables variables = new CIEnvironmentVariables();
+        variables.putAll(envVars);
+        logger.setLogLevel(variables);
+
+        if (!getFailBuildForPolicyViolations() || bomUpToDateAction.isHasBomBeenUdpated()) {
+            return new ArrayList<String>();
+        }
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        final HubIntRestService restService = getHubIntRestService(logger, serverInfo);
+        HubCircuitBreaker.getInstance().checkAvailable(serverInfo.getServerUrl());
+
+        final HubSupportHelper hubSupport = getCheckedHubSupportHelper();
+        if (!hubSupport.hasCapability(HubCapabilitiesEnum.CLI_STATUS_DIRECTORY_OPTION)) {
+            return null;
+        }
+        final RemoteHubEventPolling hubEventPolling = new RemoteHubEventPolling(restService, builtOn.getChannel());
+        return hubEventPolling.getScanSummaryHrefs(getReportGenerationInfo(bomUpToDateAction, restService), logger);
+    }
+
+    private PolicyStatusItem getPolicyStatus(final HubIntRestService restService, final String policyStatusUrl)
+            throws InterruptedException, IOException, BDRestException, URISyntaxException, BDJenkinsHubPluginException,
+            HubIntegrationException, ProjectDoesNotExistException, MissingUUIDException,
+            UnexpectedHubResponseException {
+        final HubRequestLimiter requestLimiter = HubRequestLimiter.getInstance();
+        requestLimiter.acquire();
+        try {
+            return restService.getPolicyStatus(policyStatusUrl);
+        } finally {
+            requestLimiter.release();
+        }
+    }
+
     public HubSupportHelper getCheckedHubSupportHelper() {
-        final HubSupportHelper hubSupport = new HubSupportHelper();
         final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
         try {
-            final HubIntRestService service = BuildHelper.getRestService(null, serverInfo.getServerUrl(),
-                    serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
-            hubSupport.checkHubSupport(service, null);
+            return HubSupportCache.getInstance().getHubSupport(null, serverInfo).getHubSupportHelper();
         } catch (final Exception e) {
             return null;
         }
-        return hubSupport;
     }
 
     public HubIntRestService getHubIntRestService(final HubJenkinsLogger logger, final HubServerInfo serverInfo)
@@ -181,13 +259,28 @@ public class HubCommonFailureStep {
     }
 
     public void waitForBomToBeUpdated(final Node builtOn, final IntLogger logger, final BomUpToDateAction action,
-            final HubIntRestService service, final HubSupportHelper supportHelper) throws BDJenkinsHubPluginException,
-            InterruptedException, BDRestException, HubIntegrationException, URISyntaxException, IOException,
-            ProjectDoesNotExistException, MissingUUIDException, UnexpectedHubResponseException {
+            final HubIntRestService service, final HubSupportHelper supportHelper, final BomTimeHistory bomTimeHistory)
+            throws BDJenkinsHubPluginException, InterruptedException, BDRestException, HubIntegrationException,
+            URISyntaxException, IOException, ProjectDoesNotExistException, MissingUUIDException,
+            UnexpectedHubResponseException {
         if (action.isHasBomBeenUdpated()) {
             return;
         }
 
+        final HubReportGenerationInfo reportGenInfo = getReportGenerationInfo(action, service);
+        final RemoteHubEventPolling hubEventPolling = new RemoteHubEventPolling(service, builtOn.getChannel());
+        hubEventPolling.setBomTimeHistory(bomTimeHistory);
+
+        if (supportHelper.hasCapability(HubCapabilitiesEnum.CLI_STATUS_DIRECTORY_OPTION)) {
+            hubEventPolling.assertBomUpToDate(reportGenInfo, logger);
+        } else {
+            hubEventPolling.assertBomUpToDate(reportGenInfo);
+        }
+
+    }
+
+    private HubReportGenerationInfo getReportGenerationInfo(final BomUpToDateAction action,
+            final HubIntRestService service) {
         final HubReportGenerationInfo reportGenInfo = new HubReportGenerationInfo();
         reportGenInfo.setService(service);
         reportGenInfo.setHostname(action.getLocalHostName());
@@ -199,14 +292,7 @@ public class HubCommonFailureStep {
         reportGenInfo.setAfterScanTime(action.getAfterScanTime());
 
         reportGenInfo.setScanStatusDirectory(action.getScanStatusDirectory());
-
-        final RemoteHubEventPolling hubEventPolling = new RemoteHubEventPolling(service, builtOn.getChannel());
-
-        if (supportHelper.hasCapability(HubCapabilitiesEnum.CLI_STATUS_DIRECTORY_OPTION)) {
-            hubEventPolling.assertBomUpToDate(reportGenInfo, logger);
-        } else {
-            hubEventPolling.assertBomUpToDate(reportGenInfo);
-        }
-
+        return reportGenInfo;
     }
+
 }
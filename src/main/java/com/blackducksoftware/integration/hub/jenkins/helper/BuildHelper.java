@@ -27,6 +27,7 @@ import java.net.Proxy;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.blackducksoftware.integration.exception.EncryptionException;
 import com.blackducksoftware.integration.hub.HubIntRestService;
@@ -34,7 +35,10 @@ import com.blackducksoftware.integration.hub.builder.HubServerConfigBuilder;
 import com.blackducksoftware.integration.hub.exception.BDRestException;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry.ConnectionRequest;
 import com.blackducksoftware.integration.hub.rest.CredentialsRestConnection;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.log.IntLogger;
@@ -43,6 +47,7 @@ import hudson.ProxyConfiguration;
 import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.Result;
+import hudson.model.Run;
 import jenkins.model.Jenkins;
 
 public class BuildHelper {
@@ -58,10 +63,7 @@ public class BuildHelper {
             final int hubTimeout) throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException,
             MalformedURLException, BDRestException, IllegalArgumentException, EncryptionException {
 
-        final HubIntRestService service = new HubIntRestService(
-                getRestConnection(null, serverUrl, username, password, hubTimeout));
-
-        return service;
+        return new HubIntRestService(getSharedConnection(serverUrl, username, password, hubTimeout));
     }
 
     public static HubIntRestService getRestService(final IntLogger logger, final String serverUrl,
@@ -69,12 +71,59 @@ public class BuildHelper {
             throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException, MalformedURLException,
             BDRestException, IllegalArgumentException, EncryptionException {
 
-        final HubIntRestService service = new HubIntRestService(
-                getRestConnection(logger, serverUrl, username, password, hubTimeout));
+        // The connection is shared, so it is not given the logger of this Build
+        return new HubIntRestService(getSharedConnection(serverUrl, username, password, hubTimeout));
+    }
+
+    /**
+     * Runs the Hub requests through the HubCircuitBreaker with the shared connection of the Hub server. If the session
+     * of the shared connection has expired on the Hub, the requests are retried once with a new login.
+     *
+     */
+    public static <T> T callRestService(final String serverUrl, final String username, final String password,
+            final int hubTimeout, final HubRestRequest<T> request) throws Exception {
+        return HubCircuitBreaker.getInstance().call(serverUrl, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return HubRestConnectionRegistry.getInstance().call(serverUrl, username, password, hubTimeout,
+                        new ConnectionRequest<T>() {
+                            @Override
+                            public T call(final RestConnection connection) throws Exception {
+                                return request.call(new HubIntRestService(connection));
+                            }
+                        });
+            }
+        });
+    }
+
+    public static <T> T callRestService(final HubServerInfo serverInfo, final HubRestRequest<T> request)
+            throws Exception {
+        return callRestService(serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(),
+                serverInfo.getTimeout(), request);
+    }
 
-        return service;
+    /**
+     * Fails fast with a HubUnavailableException while the HubCircuitBreaker is open for this Hub. Only failures are
+     * recorded here, a connection reused from the registry does not show that the Hub is reachable.
+     *
+     */
+    private static RestConnection getSharedConnection(final String serverUrl, final String username,
+            final String password, final int hubTimeout) throws BDJenkinsHubPluginException, HubIntegrationException,
+            URISyntaxException, MalformedURLException, BDRestException, IllegalArgumentException, EncryptionException {
+        final HubCircuitBreaker circuitBreaker = HubCircuitBreaker.getInstance();
+        circuitBreaker.checkAvailable(serverUrl);
+        try {
+            return HubRestConnectionRegistry.getInstance().getConnection(serverUrl, username, password, hubTimeout);
+        } catch (final Exception e) {
+            circuitBreaker.recordFailure(serverUrl, e);
+            throw e;
+        }
     }
 
+    /**
+     * Logs in to the Hub with a new connection. Use getRestService to reuse the connection of a previous login.
+     *
+     */
     public static RestConnection getRestConnection(final IntLogger logger, final String serverUrl,
             final String username, final String password, final int hubTimeout)
             throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException, MalformedURLException,
@@ -109,6 +158,21 @@ public class BuildHelper {
         return restConnection;
     }
 
+    /**
+     * Applies the Hub unavailable policy of the global configuration : the step is either skipped, leaving the Build
+     * result unchanged, or marks the Build unstable like any other Hub failure.
+     *
+     */
+    public static void handleHubUnavailable(final Run run, final IntLogger logger, final HubServerInfo serverInfo,
+            final HubUnavailableException e) {
+        if (serverInfo != null && serverInfo.isSkipWhenHubUnavailable()) {
+            logger.warn(e.getMessage() + " Skipping this Hub step.");
+        } else {
+            logger.error(e.getMessage());
+            run.setResult(Result.UNSTABLE);
+        }
+    }
+
     public static String handleVariableReplacement(final Map<String, String> variables, final String value)
             throws BDJenkinsHubPluginException {
         if (value != null) {
@@ -125,4 +189,8 @@ public class BuildHelper {
         }
     }
 
+    public interface HubRestRequest<T> {
+        T call(HubIntRestService service) throws Exception;
+    }
+
 }
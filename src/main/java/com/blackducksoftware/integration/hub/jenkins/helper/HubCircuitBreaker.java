@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+
+import com.blackducksoftware.integration.hub.exception.BDRestException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
+
+/**
+ * Stops every Build of the Jenkins master from waiting out the Hub timeout while a Hub server is down. After
+ * FAILURE_THRESHOLD consecutive connection failures the circuit of the Hub server opens and the Hub steps fail
+ * immediately with a HubUnavailableException. Once the circuit has been open for OPEN_DURATION a single request is let
+ * through to probe the Hub, its success closes the circuit and its failure opens it again.
+ *
+ */
+public class HubCircuitBreaker {
+    public static final int FAILURE_THRESHOLD = 3;
+
+    public static final long OPEN_DURATION = 60L * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(HubCircuitBreaker.class.getName());
+
+    private static final HubCircuitBreaker INSTANCE = new HubCircuitBreaker();
+
+    private final Map<String, Circuit> circuits = new HashMap<String, Circuit>();
+
+    public static HubCircuitBreaker getInstance() {
+        return INSTANCE;
+    }
+
+    public void checkAvailable(final String serverUrl) throws HubUnavailableException {
+        checkAvailable(serverUrl, System.currentTimeMillis());
+    }
+
+    public void checkAvailable(final String serverUrl, final long currentTime) throws HubUnavailableException {
+        synchronized (circuits) {
+            final Circuit circuit = circuits.get(serverUrl);
+            if (circuit == null || circuit.getState() == State.CLOSED) {
+                return;
+            }
+            if (circuit.getState() == State.HALF_OPEN && circuit.getProbeThread() == Thread.currentThread()) {
+                // The probing Build makes several requests before its outcome is known
+                return;
+            }
+            // A probe that never reported its outcome does not keep the circuit half open forever
+            if (currentTime - circuit.getOpenedAt() >= OPEN_DURATION) {
+                LOGGER.info("Probing the Hub " + serverUrl + " after " + circuit.getConsecutiveFailures()
+                        + " connection failures.");
+                circuit.setState(State.HALF_OPEN);
+                circuit.setOpenedAt(currentTime);
+                circuit.setProbeThread(Thread.currentThread());
+                return;
+            }
+            throw new HubUnavailableException("The Hub " + serverUrl + " is unavailable, it failed "
+                    + circuit.getConsecutiveFailures() + " consecutive requests. It will be tried again in "
+                    + ((OPEN_DURATION - (currentTime - circuit.getOpenedAt())) / 1000 + 1) + " seconds.");
+        }
+    }
+
+    public void recordSuccess(final String serverUrl) {
+        synchronized (circuits) {
+            final Circuit circuit = circuits.remove(serverUrl);
+            if (circuit != null && circuit.getState() != State.CLOSED) {
+                LOGGER.info("The Hub " + serverUrl + " is available again.");
+            }
+        }
+    }
+
+    /**
+     * Records the failure if it shows that the Hub could not be reached. Returns false if the Hub did respond.
+     *
+     */
+    public boolean recordFailure(final String serverUrl, final Throwable failure) {
+        return recordFailure(serverUrl, failure, System.currentTimeMillis());
+    }
+
+    public boolean recordFailure(final String serverUrl, final Throwable failure, final long currentTime) {
+        if (!isOutage(failure)) {
+            return false;
+        }
+        synchronized (circuits) {
+            Circuit circuit = circuits.get(serverUrl);
+            if (circuit == null) {
+                circuit = new Circuit();
+                circuits.put(serverUrl, circuit);
+            }
+            circuit.setConsecutiveFailures(circuit.getConsecutiveFailures() + 1);
+            if (circuit.getState() == State.HALF_OPEN
+                    || (circuit.getState() == State.CLOSED && circuit.getConsecutiveFailures() >= FAILURE_THRESHOLD)) {
+                LOGGER.warning("The Hub " + serverUrl + " could not be reached " + circuit.getConsecutiveFailures()
+                        + " consecutive times, the Hub steps will fail fast for " + OPEN_DURATION / 1000
+                        + " seconds.");
+                circuit.setState(State.OPEN);
+                circuit.setOpenedAt(currentTime);
+                circuit.setProbeThread(null);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the Hub request unless the circuit of the Hub server is open, and records its outcome.
+     *
+     */
+    public <T> T call(final String serverUrl, final Callable<T> request) throws Exception {
+        checkAvailable(serverUrl);
+        try {
+            final T result = request.call();
+            recordSuccess(serverUrl);
+            return result;
+        } catch (final Exception e) {
+            if (!recordFailure(serverUrl, e)) {
+                recordSuccess(serverUrl);
+            }
+            throw e;
+        }
+    }
+
+    public State getState(final String serverUrl) {
+        synchronized (circuits) {
+            final Circuit circuit = circuits.get(serverUrl);
+            if (circuit == null) {
+                return State.CLOSED;
+            }
+            return circuit.getState();
+        }
+    }
+
+    public void clear() {
+        synchronized (circuits) {
+            circuits.clear();
+        }
+    }
+
+    /**
+     * The Hub could not be reached if the failure was caused by a network problem or a gateway / unavailable
+     * response. Any other response from the Hub means the Hub is up, and failures of the nodes or of the local disk
+     * are not counted.
+     *
+     */
+    public static boolean isOutage(final Throwable failure) {
+        Throwable cause = failure;
+        while (cause != null) {
+            if (cause instanceof HubUnavailableException) {
+                return false;
+            }
+            if (cause instanceof SocketException || cause instanceof SocketTimeoutException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+            if (cause instanceof ResourceException && isOutage(((ResourceException) cause).getStatus())) {
+                return true;
+            }
+            if (cause instanceof BDRestException && ((BDRestException) cause).getResource() != null
+                    && isOutage(((BDRestException) cause).getResource().getStatus())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private static boolean isOutage(final Status status) {
+        return status != null && (status.isConnectorError() || Status.SERVER_ERROR_BAD_GATEWAY.equals(status)
+                || Status.SERVER_ERROR_SERVICE_UNAVAILABLE.equals(status)
+                || Status.SERVER_ERROR_GATEWAY_TIMEOUT.equals(status));
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN;
+    }
+
+    private static class Circuit {
+        private State state = State.CLOSED;
+
+        private int consecutiveFailures;
+
+        private long openedAt;
+
+        private Thread probeThread;
+
+        public State getState() {
+            return state;
+        }
+
+        public void setState(final State state) {
+            this.state = state;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public void setConsecutiveFailures(final int consecutiveFailures) {
+            this.consecutiveFailures = consecutiveFailures;
+        }
+
+        public long getOpenedAt() {
+            return openedAt;
+        }
+
+        public void setOpenedAt(final long openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        public Thread getProbeThread() {
+            return probeThread;
+        }
+
+        public void setProbeThread(final Thread probeThread) {
+            this.probeThread = probeThread;
+        }
+
+    }
+
+}
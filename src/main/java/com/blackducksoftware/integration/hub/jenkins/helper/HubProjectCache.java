@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Shares the Hub Projects and Versions resolved by the Builds of the Jenkins master for RESOLUTION_TTL. Only one
+ * Build at a time resolves a given Project or Version, the other Builds that need it wait for that result instead of
+ * looking it up, or creating it, themselves. Failed resolutions are not cached.
+ *
+ */
+public class HubProjectCache {
+    public static final long RESOLUTION_TTL = 10L * 60 * 1000;
+
+    private static final HubProjectCache INSTANCE = new HubProjectCache();
+
+    private final Map<String, Resolution> resolutions = new HashMap<String, Resolution>();
+
+    private final Map<String, FutureTask<Object>> inFlight = new HashMap<String, FutureTask<Object>>();
+
+    public static HubProjectCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static String getProjectKey(final String serverUrl, final String username, final String projectName) {
+        return serverUrl + "|" + username + "|" + projectName;
+    }
+
+    public static String getVersionKey(final String serverUrl, final String username, final String projectName,
+            final String versionName) {
+        return getProjectKey(serverUrl, username, projectName) + "|" + versionName;
+    }
+
+    public <T> T resolve(final String key, final Callable<T> resolver) throws Exception {
+        return resolve(key, resolver, System.currentTimeMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T resolve(final String key, final Callable<T> resolver, final long currentTime) throws Exception {
+        FutureTask<Object> task;
+        boolean owner = false;
+        synchronized (resolutions) {
+            removeExpiredResolutions(currentTime);
+            final Resolution resolution = resolutions.get(key);
+            if (resolution != null) {
+                return (T) resolution.getItem();
+            }
+            task = inFlight.get(key);
+            if (task == null) {
+                task = new FutureTask<Object>(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return resolver.call();
+                    }
+                });
+                inFlight.put(key, task);
+                owner = true;
+            }
+        }
+        if (owner) {
+            try {
+                task.run();
+                final Object item = getResult(task);
+                if (item != null) {
+                    synchronized (resolutions) {
+                        resolutions.put(key, new Resolution(item, currentTime));
+                    }
+                }
+            } finally {
+                synchronized (resolutions) {
+                    inFlight.remove(key);
+                }
+            }
+        }
+        return (T) getResult(task);
+    }
+
+    public void invalidate(final String key) {
+        synchronized (resolutions) {
+            resolutions.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (resolutions) {
+            return resolutions.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (resolutions) {
+            resolutions.clear();
+        }
+    }
+
+    private Object getResult(final FutureTask<Object> task) throws Exception {
+        try {
+            return task.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void removeExpiredResolutions(final long currentTime) {
+        final Iterator<Resolution> iterator = resolutions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(currentTime)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public static class Resolution {
+        private final Object item;
+
+        private final long resolvedAt;
+
+        public Resolution(final Object item, final long resolvedAt) {
+            this.item = item;
+            this.resolvedAt = resolvedAt;
+        }
+
+        public Object getItem() {
+            return item;
+        }
+
+        public long getResolvedAt() {
+            return resolvedAt;
+        }
+
+        public boolean isExpired(final long currentTime) {
+            return currentTime - resolvedAt >= RESOLUTION_TTL;
+        }
+
+    }
+
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
+
+/**
+ * Keeps the risk report data that was loaded for the report pages of the Builds, so the Actions only hold the key of
+ * their report. The least recently used reports are evicted once the estimated size of the cached reports goes over
+ * the maximum size, and are then only kept through a SoftReference until the garbage collector needs the memory.
+ *
+ */
+public class HubReportDataCache {
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final HubReportDataCache INSTANCE = new HubReportDataCache(DEFAULT_MAX_SIZE);
+
+    private final long maxSize;
+
+    private final LinkedHashMap<String, CachedReport> reports = new LinkedHashMap<String, CachedReport>(16, 0.75f,
+            true);
+
+    private final Map<String, EvictedReport> evictedReports = new HashMap<String, EvictedReport>();
+
+    private long size;
+
+    private long hits;
+
+    private long softHits;
+
+    private long misses;
+
+    private long evictions;
+
+    public HubReportDataCache(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static HubReportDataCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Estimates the memory used by a report from the length of its json, each character of the strings takes two
+     * bytes and the objects around them take about as much again.
+     *
+     */
+    public static long estimateSize(final long jsonLength) {
+        return jsonLength * 4;
+    }
+
+    /**
+     * Returns the cached report, or null if the report has to be loaded again.
+     *
+     */
+    public HubRiskReportData get(final String key) {
+        synchronized (reports) {
+            final CachedReport cachedReport = reports.get(key);
+            if (cachedReport != null) {
+                hits++;
+                return cachedReport.getReportData();
+            }
+            final EvictedReport evictedReport = evictedReports.remove(key);
+            final HubRiskReportData reportData = evictedReport == null ? null : evictedReport.get();
+            if (reportData != null) {
+                // Used again, so it goes back to the most recently used end of the cache
+                softHits++;
+                put(key, reportData, evictedReport.getEstimatedSize());
+                return reportData;
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    public void put(final String key, final HubRiskReportData reportData, final long estimatedSize) {
+        synchronized (reports) {
+            invalidate(key);
+            if (estimatedSize > maxSize) {
+                // Larger than the whole cache, it would only evict every other report
+                evictedReports.put(key, new EvictedReport(reportData, estimatedSize));
+                return;
+            }
+            reports.put(key, new CachedReport(reportData, estimatedSize));
+            size += estimatedSize;
+            evict();
+        }
+    }
+
+    public void invalidate(final String key) {
+        synchronized (reports) {
+            final CachedReport cachedReport = reports.remove(key);
+            if (cachedReport != null) {
+                size -= cachedReport.getEstimatedSize();
+            }
+            evictedReports.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (reports) {
+            reports.clear();
+            evictedReports.clear();
+            size = 0;
+        }
+    }
+
+    public Metrics getMetrics() {
+        synchronized (reports) {
+            return new Metrics(reports.size(), size, maxSize, hits, softHits, misses, evictions);
+        }
+    }
+
+    private void evict() {
+        final Iterator<Entry<String, CachedReport>> iterator = reports.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Entry<String, CachedReport> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue().getEstimatedSize();
+            evictedReports.put(eldest.getKey(),
+                    new EvictedReport(eldest.getValue().getReportData(), eldest.getValue().getEstimatedSize()));
+            evictions++;
+        }
+        final Iterator<EvictedReport> evictedIterator = evictedReports.values().iterator();
+        while (evictedIterator.hasNext()) {
+            if (evictedIterator.next().get() == null) {
+                evictedIterator.remove();
+            }
+        }
+    }
+
+    private static class CachedReport {
+        private final HubRiskReportData reportData;
+
+        private final long estimatedSize;
+
+        public CachedReport(final HubRiskReportData reportData, final long estimatedSize) {
+            this.reportData = reportData;
+            this.estimatedSize = estimatedSize;
+        }
+
+        public HubRiskReportData getReportData() {
+            return reportData;
+        }
+
+        public long getEstimatedSize() {
+            return estimatedSize;
+        }
+
+    }
+
+    private static class EvictedReport extends SoftReference<HubRiskReportData> {
+        private final long estimatedSize;
+
+        public EvictedReport(final HubRiskReportData reportData, final long estimatedSize) {
+            super(reportData);
+            this.estimatedSize = estimatedSize;
+        }
+
+        public long getEstimatedSize() {
+            return estimatedSize;
+        }
+
+    }
+
+    public static class Metrics {
+        private final int cachedReports;
+
+        private final long size;
+
+        private final long maxSize;
+
+        private final long hits;
+
+        private final long softHits;
+
+        private final long misses;
+
+        private final long evictions;
+
+        public Metrics(final int cachedReports, final long size, final long maxSize, final long hits,
+                final long softHits, final long misses, final long evictions) {
+            this.cachedReports = cachedReports;
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.softHits = softHits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getCachedReports() {
+            return cachedReports;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * The reports that had been evicted but were still held by their SoftReference
+         *
+         */
+        public long getSoftHits() {
+            return softHits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+    }
+
+}
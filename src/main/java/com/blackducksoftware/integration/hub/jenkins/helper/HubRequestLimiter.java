@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+
+/**
+ * Bounds the Hub REST requests of the Jenkins master to the maximum number of concurrent requests and the maximum
+ * number of requests per second of the global configuration, 0 meaning no limit. Requests over the limits wait for a
+ * free slot in a first in, first out queue, so a waiting request is never overtaken by a later one. The queue depth
+ * and the wait times are kept for the Hub requests page.
+ *
+ */
+public class HubRequestLimiter {
+    private static final HubRequestLimiter INSTANCE = new HubRequestLimiter();
+
+    private final Object lock = new Object();
+
+    // The tokens of the waiting requests, in arrival order
+    private final LinkedList<Object> waitingRequests = new LinkedList<Object>();
+
+    private int activeRequests;
+
+    private int queuedRequests;
+
+    private int maxQueuedRequests;
+
+    private long nextRequestAt;
+
+    private long startedRequests;
+
+    private long totalWaitTime;
+
+    private long maxWaitTime;
+
+    public static HubRequestLimiter getInstance() {
+        return INSTANCE;
+    }
+
+    public <T> T call(final Callable<T> request) throws Exception {
+        acquire();
+        try {
+            return request.call();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Waits for a request slot within the limits of the global configuration. Every acquire must be followed by a
+     * release once the request is done.
+     *
+     */
+    public void acquire() throws InterruptedException {
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        if (serverInfo == null) {
+            acquire(HubServerInfo.getDefaultMaxConcurrentRequests(), HubServerInfo.getDefaultMaxRequestsPerSecond());
+        } else {
+            acquire(serverInfo.getMaxConcurrentRequestsValue(), serverInfo.getMaxRequestsPerSecondValue());
+        }
+    }
+
+    public void acquire(final int maxConcurrentRequests, final int maxRequestsPerSecond) throws InterruptedException {
+        final long queuedAt = System.currentTimeMillis();
+        long requestAt;
+        final Object token = new Object();
+        synchronized (lock) {
+            queuedRequests++;
+            maxQueuedRequests = Math.max(maxQueuedRequests, queuedRequests);
+            waitingRequests.addLast(token);
+            try {
+                while (waitingRequests.getFirst() != token
+                        || (maxConcurrentRequests > 0 && activeRequests >= maxConcurrentRequests)) {
+                    lock.wait();
+                }
+            } catch (final InterruptedException e) {
+                queuedRequests--;
+                waitingRequests.remove(token);
+                // The next request may now be at the head of the queue
+                lock.notifyAll();
+                throw e;
+            }
+            waitingRequests.removeFirst();
+            // The next request may also fit within the limit
+            lock.notifyAll();
+            activeRequests++;
+            // The requests are spaced evenly to stay under the rate, the next slot is reserved before waiting for it
+            requestAt = System.currentTimeMillis();
+            if (maxRequestsPerSecond > 0) {
+                requestAt = Math.max(requestAt, nextRequestAt);
+                nextRequestAt = requestAt + 1000L / maxRequestsPerSecond;
+            }
+        }
+        try {
+            final long delay = requestAt - System.currentTimeMillis();
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (final InterruptedException e) {
+            synchronized (lock) {
+                queuedRequests--;
+            }
+            release();
+            throw e;
+        }
+        final long waitTime = System.currentTimeMillis() - queuedAt;
+        synchronized (lock) {
+            queuedRequests--;
+            startedRequests++;
+            totalWaitTime += waitTime;
+            maxWaitTime = Math.max(maxWaitTime, waitTime);
+        }
+    }
+
+    public void release() {
+        synchronized (lock) {
+            activeRequests--;
+            lock.notifyAll();
+        }
+    }
+
+    public Metrics getMetrics() {
+        synchronized (lock) {
+            return new Metrics(activeRequests, queuedRequests, maxQueuedRequests, startedRequests, totalWaitTime,
+                    maxWaitTime);
+        }
+    }
+
+    public void resetMetrics() {
+        synchronized (lock) {
+            maxQueuedRequests = queuedRequests;
+            startedRequests = 0;
+            totalWaitTime = 0;
+            maxWaitTime = 0;
+        }
+    }
+
+    public static class Metrics {
+        private final int activeRequests;
+
+        private final int queuedRequests;
+
+        private final int maxQueuedRequests;
+
+        private final long startedRequests;
+
+        private final long totalWaitTime;
+
+        private final long maxWaitTime;
+
+        public Metrics(final int activeRequests, final int queuedRequests, final int maxQueuedRequests,
+                final long startedRequests, final long totalWaitTime, final long maxWaitTime) {
+            this.activeRequests = activeRequests;
+            this.queuedRequests = queuedRequests;
+            this.maxQueuedRequests = maxQueuedRequests;
+            this.startedRequests = startedRequests;
+            this.totalWaitTime = totalWaitTime;
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public int getActiveRequests() {
+            return activeRequests;
+        }
+
+        public int getQueuedRequests() {
+            return queuedRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        public long getStartedRequests() {
+            return startedRequests;
+        }
+
+        public long getTotalWaitTimeInMilliseconds() {
+            return totalWaitTime;
+        }
+
+        public long getMaxWaitTimeInMilliseconds() {
+            return maxWaitTime;
+        }
+
+        public long getAverageWaitTimeInMilliseconds() {
+            if (startedRequests == 0) {
+                return 0;
+            }
+            return totalWaitTime / startedRequests;
+        }
+
+    }
+
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+
+import com.blackducksoftware.integration.exception.EncryptionException;
+import com.blackducksoftware.integration.hub.exception.BDRestException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import jenkins.model.Jenkins;
+
+/**
+ * Shares the logged in Hub connections between the Builds and the form validations of the Jenkins master. A
+ * connection is reused for the same Hub URL, credentials, proxy and timeout, and is replaced by a new login once its
+ * session is older than MAX_SESSION_AGE or has been idle for MAX_SESSION_IDLE_TIME, before the Hub expires it. The
+ * registry is cleared when the global configuration is saved.
+ *
+ */
+public class HubRestConnectionRegistry {
+    public static final long MAX_SESSION_AGE = 60L * 60 * 1000;
+
+    public static final long MAX_SESSION_IDLE_TIME = 15L * 60 * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(HubRestConnectionRegistry.class.getName());
+
+    private static final HubRestConnectionRegistry INSTANCE = new HubRestConnectionRegistry();
+
+    private final Map<String, Session> sessions = new HashMap<String, Session>();
+
+    private final KeyedLocks locks = new KeyedLocks();
+
+    public static HubRestConnectionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public RestConnection getConnection(final String serverUrl, final String username, final String password,
+            final int hubTimeout) throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException,
+            MalformedURLException, BDRestException, IllegalArgumentException, EncryptionException {
+        final String key = getKey(serverUrl, username, password, hubTimeout, getProxyKey());
+        // The lock of the key is only kept while a login may be running for it
+        final Object lock = locks.acquire(key);
+        try {
+            synchronized (lock) {
+                final long currentTime = System.currentTimeMillis();
+                Session session;
+                synchronized (sessions) {
+                    removeExpiredSessions(currentTime);
+                    session = sessions.get(key);
+                }
+                if (session == null) {
+                    session = new Session(login(serverUrl, username, password, hubTimeout), currentTime);
+                    synchronized (sessions) {
+                        sessions.put(key, session);
+                    }
+                }
+                session.setLastUsedAt(currentTime);
+                return session.getConnection();
+            }
+        } finally {
+            locks.release(key);
+        }
+    }
+
+    /**
+     * Runs the requests with the shared connection. If the Hub refuses them because the session has expired, the
+     * session is removed from the registry and the requests are retried once with a new login.
+     *
+     */
+    public <T> T call(final String serverUrl, final String username, final String password, final int hubTimeout,
+            final ConnectionRequest<T> request) throws Exception {
+        final RestConnection connection = getConnection(serverUrl, username, password, hubTimeout);
+        try {
+            return request.call(connection);
+        } catch (final Exception e) {
+            if (!isSessionExpired(e)) {
+                throw e;
+            }
+            LOGGER.info("The Hub session of " + username + " on " + serverUrl
+                    + " is no longer valid, logging in again.");
+            invalidate(serverUrl, username, password, hubTimeout, connection);
+            return request.call(getConnection(serverUrl, username, password, hubTimeout));
+        }
+    }
+
+    /**
+     * Removes the current session from the registry, the next request logs in again. Used by the callers that do not
+     * hold the connection of the session that expired.
+     *
+     */
+    public void invalidate(final String serverUrl, final String username, final String password,
+            final int hubTimeout) {
+        final String key = getKey(serverUrl, username, password, hubTimeout, getProxyKey());
+        synchronized (sessions) {
+            sessions.remove(key);
+        }
+    }
+
+    /**
+     * Removes the session of the connection from the registry, unless another request has already replaced it with a
+     * new login.
+     *
+     */
+    public void invalidate(final String serverUrl, final String username, final String password,
+            final int hubTimeout, final RestConnection connection) {
+        final String key = getKey(serverUrl, username, password, hubTimeout, getProxyKey());
+        synchronized (sessions) {
+            final Session session = sessions.get(key);
+            if (session != null && session.getConnection() == connection) {
+                sessions.remove(key);
+            }
+        }
+    }
+
+    protected RestConnection login(final String serverUrl, final String username, final String password,
+            final int hubTimeout) throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException,
+            MalformedURLException, BDRestException, IllegalArgumentException, EncryptionException {
+        final HubRequestLimiter requestLimiter = HubRequestLimiter.getInstance();
+        try {
+            requestLimiter.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BDJenkinsHubPluginException("Interrupted while waiting to log in to the Hub.", e);
+        }
+        try {
+            return BuildHelper.getRestConnection(null, serverUrl, username, password, hubTimeout);
+        } finally {
+            requestLimiter.release();
+        }
+    }
+
+    public int getLockCount() {
+        return locks.size();
+    }
+
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (sessions) {
+            sessions.clear();
+        }
+    }
+
+    public static String getKey(final String serverUrl, final String username, final String password,
+            final int hubTimeout, final String proxyKey) {
+        return serverUrl + "|" + username + "|" + Util.getDigestOf(String.valueOf(password)) + "|" + hubTimeout
+                + "|" + proxyKey;
+    }
+
+    /**
+     * The Hub refuses the requests of an expired session as unauthorized.
+     *
+     */
+    public static boolean isSessionExpired(final Throwable failure) {
+        Throwable cause = failure;
+        while (cause != null) {
+            if (cause instanceof ResourceException
+                    && Status.CLIENT_ERROR_UNAUTHORIZED.equals(((ResourceException) cause).getStatus())) {
+                return true;
+            }
+            if (cause instanceof BDRestException && ((BDRestException) cause).getResource() != null
+                    && Status.CLIENT_ERROR_UNAUTHORIZED.equals(((BDRestException) cause).getResource().getStatus())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private String getProxyKey() {
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null || jenkins.proxy == null) {
+            return "";
+        }
+        final ProxyConfiguration proxyConfig = jenkins.proxy;
+        return proxyConfig.name + ":" + proxyConfig.port + ":" + proxyConfig.noProxyHost + ":"
+                + proxyConfig.getUserName() + ":" + Util.getDigestOf(String.valueOf(proxyConfig.getPassword()));
+    }
+
+    private void removeExpiredSessions(final long currentTime) {
+        final Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(currentTime)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public interface ConnectionRequest<T> {
+        T call(RestConnection connection) throws Exception;
+    }
+
+    public static class Session {
+        private final RestConnection connection;
+
+        private final long loggedInAt;
+
+        private volatile long lastUsedAt;
+
+        public Session(final RestConnection connection, final long loggedInAt) {
+            this.connection = connection;
+            this.loggedInAt = loggedInAt;
+            lastUsedAt = loggedInAt;
+        }
+
+        public RestConnection getConnection() {
+            return connection;
+        }
+
+        public long getLoggedInAt() {
+            return loggedInAt;
+        }
+
+        public long getLastUsedAt() {
+            return lastUsedAt;
+        }
+
+        public void setLastUsedAt(final long lastUsedAt) {
+            this.lastUsedAt = lastUsedAt;
+        }
+
+        public boolean isExpired(final long currentTime) {
+            return currentTime - loggedInAt >= MAX_SESSION_AGE || currentTime - lastUsedAt >= MAX_SESSION_IDLE_TIME;
+        }
+
+    }
+
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.HubIntRestService;
+import com.blackducksoftware.integration.hub.HubSupportHelper;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper.HubRestRequest;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import jenkins.util.Timer;
+
+/**
+ * Shares the Hub version and capabilities of each Hub server between the Builds. A cached entry is used as is for
+ * REFRESH_AFTER, then used while it is refreshed in the background until MAX_AGE, after which the Build waits for a
+ * fresh check. Only one check of a Hub server runs at a time, the Builds that need it meanwhile wait for its result.
+ * A refresh that finds a new Hub version replaces the capabilities of the previous version. Failed checks are not
+ * cached.
+ *
+ */
+public class HubSupportCache {
+    public static final long REFRESH_AFTER = 5L * 60 * 1000;
+
+    public static final long MAX_AGE = 30L * 60 * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(HubSupportCache.class.getName());
+
+    private static final HubSupportCache INSTANCE = new HubSupportCache();
+
+    private final Map<String, HubSupport> cache = new HashMap<String, HubSupport>();
+
+    private final Map<String, FutureTask<HubSupport>> inFlight = new HashMap<String, FutureTask<HubSupport>>();
+
+    public static HubSupportCache getInstance() {
+        return INSTANCE;
+    }
+
+    public HubSupport getHubSupport(final IntLogger logger, final HubServerInfo serverInfo) throws Exception {
+        return getHubSupport(serverInfo.getServerUrl(), new Callable<HubSupport>() {
+            @Override
+            public HubSupport call() throws Exception {
+                return checkHubSupport(logger, serverInfo);
+            }
+        }, System.currentTimeMillis());
+    }
+
+    public HubSupport getHubSupport(final String serverUrl, final Callable<HubSupport> checker,
+            final long currentTime) throws Exception {
+        final HubSupport hubSupport;
+        synchronized (cache) {
+            hubSupport = cache.get(serverUrl);
+        }
+        if (hubSupport != null && currentTime - hubSupport.getCheckedAt() < MAX_AGE) {
+            if (currentTime - hubSupport.getCheckedAt() >= REFRESH_AFTER) {
+                refreshInBackground(serverUrl, checker);
+            }
+            return hubSupport;
+        }
+        final FutureTask<HubSupport> task;
+        boolean owner = false;
+        synchronized (cache) {
+            FutureTask<HubSupport> currentTask = inFlight.get(serverUrl);
+            if (currentTask == null) {
+                currentTask = createCheck(serverUrl, checker);
+                inFlight.put(serverUrl, currentTask);
+                owner = true;
+            }
+            task = currentTask;
+        }
+        if (owner) {
+            task.run();
+        }
+        return getResult(task);
+    }
+
+    public void invalidate(final String serverUrl) {
+        synchronized (cache) {
+            cache.remove(serverUrl);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private void refreshInBackground(final String serverUrl, final Callable<HubSupport> checker) {
+        final FutureTask<HubSupport> task;
+        synchronized (cache) {
+            if (inFlight.containsKey(serverUrl)) {
+                return;
+            }
+            task = createCheck(serverUrl, checker);
+            inFlight.put(serverUrl, task);
+        }
+        Timer.get().submit(new Runnable() {
+            @Override
+            public void run() {
+                task.run();
+                try {
+                    getResult(task);
+                } catch (final Exception e) {
+                    LOGGER.log(Level.FINE, "Could not refresh the Hub version of " + serverUrl, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * The check caches its result before it leaves the in flight checks, so a Build never misses both.
+     *
+     */
+    private FutureTask<HubSupport> createCheck(final String serverUrl, final Callable<HubSupport> checker) {
+        return new FutureTask<HubSupport>(new Callable<HubSupport>() {
+            @Override
+            public HubSupport call() throws Exception {
+                try {
+                    final HubSupport hubSupport = checker.call();
+                    put(serverUrl, hubSupport);
+                    return hubSupport;
+                } finally {
+                    synchronized (cache) {
+                        inFlight.remove(serverUrl);
+                    }
+                }
+            }
+        });
+    }
+
+    private HubSupport getResult(final FutureTask<HubSupport> task) throws Exception {
+        try {
+            return task.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void put(final String serverUrl, final HubSupport hubSupport) {
+        synchronized (cache) {
+            final HubSupport previous = cache.get(serverUrl);
+            if (previous != null && previous.getHubVersion() != null
+                    && !previous.getHubVersion().equals(hubSupport.getHubVersion())) {
+                LOGGER.info("The Hub " + serverUrl + " was updated from version " + previous.getHubVersion() + " to "
+                        + hubSupport.getHubVersion());
+            }
+            cache.put(serverUrl, hubSupport);
+        }
+    }
+
+    private HubSupport checkHubSupport(final IntLogger logger, final HubServerInfo serverInfo) throws Exception {
+        return BuildHelper.callRestService(serverInfo, new HubRestRequest<HubSupport>() {
+            @Override
+            public HubSupport call(final HubIntRestService service) throws Exception {
+                final HubSupportHelper hubSupportHelper = new HubSupportHelper();
+                final HubRequestLimiter requestLimiter = HubRequestLimiter.getInstance();
+                requestLimiter.call(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        hubSupportHelper.checkHubSupport(service, logger);
+                        return null;
+                    }
+                });
+                String hubVersion = null;
+                try {
+                    hubVersion = requestLimiter.call(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return hubSupportHelper.getHubVersion(service);
+                        }
+                    });
+                } catch (final Exception e) {
+                    if (HubRestConnectionRegistry.isSessionExpired(e)) {
+                        throw e;
+                    }
+                    if (logger != null) {
+                        logger.debug("Could not get the Hub version.", e);
+                    }
+                }
+                return new HubSupport(hubSupportHelper, hubVersion, System.currentTimeMillis());
+            }
+        });
+    }
+
+    public static class HubSupport {
+        private final HubSupportHelper hubSupportHelper;
+
+        private final String hubVersion;
+
+        private final long checkedAt;
+
+        public HubSupport(final HubSupportHelper hubSupportHelper, final String hubVersion, final long checkedAt) {
+            this.hubSupportHelper = hubSupportHelper;
+            this.hubVersion = hubVersion;
+            this.checkedAt = checkedAt;
+        }
+
+        public HubSupportHelper getHubSupportHelper() {
+            return hubSupportHelper;
+        }
+
+        public String getHubVersion() {
+            return hubVersion;
+        }
+
+        public long getCheckedAt() {
+            return checkedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One lock object per key, for the state that is shared by key across the instances or the Builds that use it, like
+ * a file of the Job directory or a node. A lock is only kept while it is in use, so the keys of deleted Jobs or of
+ * ephemeral nodes do not pile up. Every acquire must be followed by a release :
+ *
+ * <pre>
+ * final Object lock = locks.acquire(key);
+ * try {
+ *     synchronized (lock) {
+ *         ...
+ *     }
+ * } finally {
+ *     locks.release(key);
+ * }
+ * </pre>
+ *
+ */
+public class KeyedLocks {
+    private final Map<String, KeyedLock> locks = new HashMap<String, KeyedLock>();
+
+    public Object acquire(final String key) {
+        synchronized (locks) {
+            KeyedLock lock = locks.get(key);
+            if (lock == null) {
+                lock = new KeyedLock();
+                locks.put(key, lock);
+            }
+            lock.users++;
+            return lock;
+        }
+    }
+
+    public void release(final String key) {
+        synchronized (locks) {
+            final KeyedLock lock = locks.get(key);
+            if (lock != null && --lock.users <= 0) {
+                locks.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (locks) {
+            return locks.size();
+        }
+    }
+
+    private static class KeyedLock {
+        private int users;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.data.Protocol;
+
+import com.blackducksoftware.integration.hub.HubIntRestService;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper.HubRestRequest;
+import com.blackducksoftware.integration.phone.home.PhoneHomeClient;
+import com.blackducksoftware.integration.phone.home.enums.BlackDuckName;
+import com.blackducksoftware.integration.phone.home.enums.ThirdPartyName;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+/**
+ * "Phones-home" to the internal BlackDuck Integrations server in the background, at most once per
+ * PHONE_HOME_INTERVAL for each Hub server and plugin version. The connection to the phone-home server has connect and
+ * read timeouts of PHONE_HOME_TIMEOUT_IN_SECONDS, and a phone-home that takes longer is cancelled, the Builds never
+ * wait for it.
+ *
+ */
+public class PhoneHomeService {
+    public static final long PHONE_HOME_INTERVAL = 24L * 60 * 60 * 1000;
+
+    public static final long PHONE_HOME_TIMEOUT_IN_SECONDS = 10;
+
+    private static final Logger LOGGER = Logger.getLogger(PhoneHomeService.class.getName());
+
+    private static final PhoneHomeService INSTANCE = new PhoneHomeService();
+
+    private final ExecutorService executor = Executors
+            .newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), "Hub phone home"));
+
+    private final Map<String, Long> lastPhoneHomes = new HashMap<String, Long>();
+
+    public static PhoneHomeService getInstance() {
+        return INSTANCE;
+    }
+
+    public static String getKey(final String serverUrl, final String pluginVersion) {
+        return serverUrl + "|" + pluginVersion;
+    }
+
+    /**
+     * Returns true if the phone-home was submitted, false if this Hub server and plugin version already phoned-home
+     * within the PHONE_HOME_INTERVAL.
+     *
+     */
+    public boolean phoneHome(final HubServerInfo serverInfo, final String hubVersion) {
+        final String pluginVersion = PluginHelper.getPluginVersion();
+        if (!shouldPhoneHome(getKey(serverInfo.getServerUrl(), pluginVersion), System.currentTimeMillis())) {
+            return false;
+        }
+        final Future<?> phoneHome = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callHome(serverInfo, hubVersion, pluginVersion);
+                } catch (final Exception e) {
+                    LOGGER.log(Level.FINE, "Unable to phone-home", e);
+                }
+            }
+        });
+        Timer.get().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!phoneHome.isDone()) {
+                    LOGGER.fine("The phone-home did not complete within " + PHONE_HOME_TIMEOUT_IN_SECONDS
+                            + " seconds, cancelling it.");
+                    phoneHome.cancel(true);
+                }
+            }
+        }, PHONE_HOME_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        return true;
+    }
+
+    /**
+     * The phone-home is recorded when it is attempted, so an unreachable phone-home server is only tried once per
+     * PHONE_HOME_INTERVAL.
+     *
+     */
+    public boolean shouldPhoneHome(final String key, final long currentTime) {
+        synchronized (lastPhoneHomes) {
+            final Long lastPhoneHome = lastPhoneHomes.get(key);
+            if (lastPhoneHome != null && currentTime - lastPhoneHome < PHONE_HOME_INTERVAL) {
+                return false;
+            }
+            lastPhoneHomes.put(key, currentTime);
+            return true;
+        }
+    }
+
+    private void callHome(final HubServerInfo serverInfo, final String hubVersion, final String pluginVersion)
+            throws Exception {
+        String regId = null;
+        String hubHostName = null;
+        try {
+            regId = BuildHelper.callRestService(serverInfo, new HubRestRequest<String>() {
+                @Override
+                public String call(final HubIntRestService service) throws Exception {
+                    return HubRequestLimiter.getInstance().call(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return service.getRegistrationId();
+                        }
+                    });
+                }
+            });
+        } catch (final Exception e) {
+            LOGGER.log(Level.FINE, "Could not get the Hub registration Id.", e);
+        }
+        try {
+            final URL url = new URL(serverInfo.getServerUrl());
+            hubHostName = url.getHost();
+        } catch (final Exception e) {
+            LOGGER.log(Level.FINE, "Could not get the Hub Host name.", e);
+        }
+        final String thirdPartyVersion = Jenkins.getVersion().toString();
+
+        final PhoneHomeClient phClient = new PhoneHomeClient();
+        final Context context = createPhoneHomeContext();
+        final Client client = (Client) context.getClientDispatcher();
+        final Context previousContext = Context.getCurrent();
+        Context.setCurrent(context);
+        try {
+            client.start();
+            phClient.callHomeIntegrations(regId, hubHostName, BlackDuckName.HUB, hubVersion, ThirdPartyName.JENKINS,
+                    thirdPartyVersion, pluginVersion);
+        } finally {
+            Context.setCurrent(previousContext);
+            client.stop();
+        }
+    }
+
+    /**
+     * The PhoneHomeClient creates its ClientResource with the Context of the current thread, so its request is sent
+     * through the Client of this Context, which has the connect and read timeouts. Cancelling the phone-home does not
+     * interrupt a blocked socket read, the read timeout does.
+     *
+     */
+    public static Context createPhoneHomeContext() {
+        final String timeout = String.valueOf(TimeUnit.SECONDS.toMillis(PHONE_HOME_TIMEOUT_IN_SECONDS));
+        final Context context = new Context();
+        // The parameter names differ between the Restlet client connectors
+        context.getParameters().add("socketConnectTimeoutMs", timeout);
+        context.getParameters().add("readTimeout", timeout);
+        context.getParameters().add("socketTimeout", timeout);
+        context.setClientDispatcher(new Client(context, Arrays.asList(Protocol.HTTP, Protocol.HTTPS)));
+        return context;
+    }
+
+}
@@ -32,6 +32,7 @@ import com.blackducksoftware.integration.hub.cli.CLIInstaller;
 import com.blackducksoftware.integration.hub.cli.CLILocation;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionDirectory;
 import com.blackducksoftware.integration.hub.rest.CredentialsRestConnection;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
@@ -122,6 +123,8 @@ public class CLIRemoteInstall implements Callable<Void, Exception> {
         final HubIntRestService service = new HubIntRestService(restConnection);
 
         installer.performInstallation(logger, service, localHost);
+        // The CLI installed in the tools directory replaces any distribution pushed by the master
+        new CLIDistributionDirectory(hubToolDir).clearCurrent();
         return null;
     }
 
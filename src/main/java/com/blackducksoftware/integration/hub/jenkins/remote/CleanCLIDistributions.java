@@ -22,36 +22,37 @@
 package com.blackducksoftware.integration.hub.jenkins.remote;
 
 import java.io.File;
+import java.io.IOException;
 
 import org.jenkinsci.remoting.Role;
 import org.jenkinsci.remoting.RoleChecker;
 
-import com.blackducksoftware.integration.hub.cli.CLILocation;
-import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionDirectory;
 
 import hudson.remoting.Callable;
 
-public class GetCLIExists implements Callable<Boolean, Exception> {
+/**
+ * Deletes the CLI distributions of the node that have been retired long enough for the scans using them to finish.
+ * Returns the number of directories deleted.
+ *
+ */
+public class CleanCLIDistributions implements Callable<Integer, Exception> {
     private static final long serialVersionUID = 3459269768733083577L;
 
-    private final HubJenkinsLogger logger;
-
-    private final String directoryToInstallTo;
+    private final String toolsDirectory;
 
-    public GetCLIExists(final HubJenkinsLogger logger, final String directoryToInstallTo) {
-        this.logger = logger;
-        this.directoryToInstallTo = directoryToInstallTo;
+    public CleanCLIDistributions(final String toolsDirectory) {
+        this.toolsDirectory = toolsDirectory;
     }
 
     @Override
-    public Boolean call() throws Exception {
-        final File hubToolDir = new File(directoryToInstallTo);
-        final CLILocation cliLocation = new CLILocation(hubToolDir);
-        return cliLocation.getCLIExists(logger);
+    public Integer call() throws IOException, InterruptedException {
+        return new CLIDistributionDirectory(new File(toolsDirectory)).clean(System.currentTimeMillis());
     }
 
     @Override
     public void checkRoles(final RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetCLIExists.class));
+        checker.check(this, new Role(CleanCLIDistributions.class));
     }
+
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import hudson.remoting.Callable;
+
+/**
+ * Checks on the node whether a line of a text file contains the text, reading the file a line at a time so that a
+ * large log is neither loaded in memory nor copied to the master. Returns false if the file does not exist.
+ *
+ */
+public class FileContains implements Callable<Boolean, IOException> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    private final String filePath;
+
+    private final String text;
+
+    public FileContains(final String filePath, final String text) {
+        this.filePath = filePath;
+        this.text = text;
+    }
+
+    @Override
+    public Boolean call() throws IOException {
+        final File file = new File(filePath);
+        if (!file.isFile()) {
+            return false;
+        }
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(text)) {
+                    return true;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return false;
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(FileContains.class));
+    }
+
+}
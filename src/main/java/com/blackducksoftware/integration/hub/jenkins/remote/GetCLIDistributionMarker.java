@@ -22,37 +22,37 @@
 package com.blackducksoftware.integration.hub.jenkins.remote;
 
 import java.io.File;
+import java.io.IOException;
 
 import org.jenkinsci.remoting.Role;
 import org.jenkinsci.remoting.RoleChecker;
 
-import com.blackducksoftware.integration.hub.cli.CLILocation;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionDirectory;
 
 import hudson.remoting.Callable;
 
-public class GetOneJarFile implements Callable<String, Exception> {
+/**
+ * Returns the marker of the current CLI distribution of the node, or null if the CLI was not installed from a
+ * distribution pushed by the Jenkins master.
+ *
+ */
+public class GetCLIDistributionMarker implements Callable<String, IOException> {
     private static final long serialVersionUID = 3459269768733083577L;
 
-    private final String directoryToInstallTo;
+    private final String toolsDirectory;
 
-    public GetOneJarFile(final String directoryToInstallTo) {
-        this.directoryToInstallTo = directoryToInstallTo;
+    public GetCLIDistributionMarker(final String toolsDirectory) {
+        this.toolsDirectory = toolsDirectory;
     }
 
     @Override
-    public String call() throws Exception {
-        final File hubToolDir = new File(directoryToInstallTo);
-        final CLILocation cliLocation = new CLILocation(hubToolDir);
-        final File file = cliLocation.getOneJarFile();
-        if (file != null) {
-            return file.getCanonicalPath();
-        }
-        return null;
+    public String call() throws IOException {
+        return new CLIDistributionDirectory(new File(toolsDirectory)).getCurrentMarker();
     }
 
     @Override
     public void checkRoles(final RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetOneJarFile.class));
+        checker.check(this, new Role(GetCLIDistributionMarker.class));
     }
 
 }
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import hudson.remoting.Callable;
+
+/**
+ * Returns the physical memory of the node that is available to a new process in MB, or -1 if it is not known. On
+ * Linux this is the MemAvailable of /proc/meminfo, which counts the page cache that the kernel can reclaim. The free
+ * physical memory of the JVM excludes the page cache, so it is only used when MemAvailable can not be read.
+ *
+ */
+public class GetFreePhysicalMemory implements Callable<Long, IOException> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    public static final String MEMINFO_PATH = "/proc/meminfo";
+
+    @Override
+    public Long call() throws IOException {
+        final File meminfo = new File(MEMINFO_PATH);
+        if (meminfo.isFile()) {
+            try {
+                final long availableMb = parseMemAvailable(FileUtils.readFileToString(meminfo, "UTF-8"));
+                if (availableMb >= 0) {
+                    return availableMb;
+                }
+            } catch (final IOException e) {
+                // use the free physical memory of the JVM
+            }
+        }
+        final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            final long freeBytes = ((com.sun.management.OperatingSystemMXBean) osBean).getFreePhysicalMemorySize();
+            return freeBytes / (1024L * 1024L);
+        }
+        return -1L;
+    }
+
+    /**
+     * Returns the MemAvailable of the meminfo in MB, or -1 if the kernel does not report it.
+     *
+     */
+    public static long parseMemAvailable(final String meminfo) {
+        for (final String line : meminfo.split("\\r?\\n")) {
+            if (line.startsWith("MemAvailable:")) {
+                final String[] fields = line.substring("MemAvailable:".length()).trim().split("\\s+");
+                try {
+                    // The kernel reports the memory in kB
+                    return Long.parseLong(fields[0]) / 1024L;
+                } catch (final NumberFormatException e) {
+                    return -1L;
+                }
+            }
+        }
+        return -1L;
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(GetFreePhysicalMemory.class));
+    }
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Enumeration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
+
+import hudson.remoting.Callable;
+
+/**
+ * Collects the facts about the node that do not change while it stays connected. The host name lookups can do a
+ * reverse DNS lookup, so each one is given at most hostNameTimeout milliseconds before falling back to the address of
+ * the first non loop back network interface.
+ *
+ */
+public class GetNodeFacts implements Callable<NodeFacts, IOException> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    private final long hostNameTimeout;
+
+    public GetNodeFacts(final long hostNameTimeout) {
+        this.hostNameTimeout = hostNameTimeout;
+    }
+
+    @Override
+    public NodeFacts call() throws IOException {
+        final NodeFacts facts = new NodeFacts();
+        facts.setWindows(SystemUtils.IS_OS_WINDOWS);
+        facts.setMac(SystemUtils.IS_OS_MAC);
+        facts.setSeparator(File.separator);
+        facts.setPathSeparator(File.pathSeparator);
+        facts.setJavaClassVersion(System.getProperty("java.class.version"));
+        facts.setJavaHome(System.getProperty("java.home"));
+
+        String hostName = getBounded(new java.util.concurrent.Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return new GetHostName().call();
+            }
+        });
+        if (StringUtils.isBlank(hostName)) {
+            hostName = getBounded(new java.util.concurrent.Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return new GetHostNameFromNetworkInterfaces().call();
+                }
+            });
+        }
+        if (StringUtils.isBlank(hostName)) {
+            hostName = getFirstAddress();
+        }
+        facts.setHostName(hostName);
+        return facts;
+    }
+
+    private String getBounded(final java.util.concurrent.Callable<String> lookup) {
+        final FutureTask<String> task = new FutureTask<String>(lookup);
+        final Thread thread = new Thread(task, "Hub host name lookup");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            return task.get(hostNameTimeout, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            // The lookup thread is left to finish on its own, it can not be interrupted while in the resolver
+            return null;
+        } catch (final ExecutionException e) {
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String getFirstAddress() throws IOException {
+        final Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces != null && interfaces.hasMoreElements()) {
+            final Enumeration<InetAddress> addresses = interfaces.nextElement().getInetAddresses();
+            while (addresses.hasMoreElements()) {
+                final InetAddress address = addresses.nextElement();
+                if (!address.isLoopbackAddress()) {
+                    return address.getHostAddress();
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(GetNodeFacts.class));
+    }
+
+}
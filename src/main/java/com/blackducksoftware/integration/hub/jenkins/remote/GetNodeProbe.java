@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import com.blackducksoftware.integration.hub.cli.CLILocation;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionDirectory;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeProbe;
+
+import hudson.remoting.Callable;
+
+/**
+ * Collects in one remote call what used to take a remote call each : the OS, the canonical path and
+ * existence of each scan target, the CLI, the CLI provided JRE, the one-jar cache and the java executable.
+ *
+ */
+public class GetNodeProbe implements Callable<NodeProbe, Exception> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    private final HubJenkinsLogger logger;
+
+    private List<String> scanTargets;
+
+    private String toolsDirectory;
+
+    private String javaHome;
+
+    public GetNodeProbe(final HubJenkinsLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * The absolute paths of the scan targets to canonicalize and check
+     *
+     */
+    public void setScanTargets(final List<String> scanTargets) {
+        this.scanTargets = scanTargets;
+    }
+
+    /**
+     * The directory the CLI is installed in, the CLI facts are only collected if it is set
+     *
+     */
+    public void setToolsDirectory(final String toolsDirectory) {
+        this.toolsDirectory = toolsDirectory;
+    }
+
+    /**
+     * The java home to use if the CLI does not provide a JRE
+     *
+     */
+    public void setJavaHome(final String javaHome) {
+        this.javaHome = javaHome;
+    }
+
+    @Override
+    public NodeProbe call() throws Exception {
+        final NodeProbe probe = new NodeProbe();
+        probe.setWindows(SystemUtils.IS_OS_WINDOWS);
+        if (scanTargets != null) {
+            for (final String scanTarget : scanTargets) {
+                String canonicalTarget = scanTarget;
+                try {
+                    canonicalTarget = new File(scanTarget).getCanonicalPath();
+                } catch (final IOException e) {
+                    probe.addError("Problem getting the real path of the target : " + scanTarget
+                            + " on this node. Error : " + e.getMessage());
+                }
+                probe.addScanTarget(canonicalTarget, new File(canonicalTarget).exists());
+                probe.addReplacedCalls(2);
+            }
+        }
+        if (toolsDirectory != null) {
+            probeCLI(probe);
+        }
+        return probe;
+    }
+
+    private void probeCLI(final NodeProbe probe) throws Exception {
+        final CLILocation cliLocation = new CLILocation(
+                new CLIDistributionDirectory(new File(toolsDirectory)).getCLIRoot());
+        probe.setCliExists(cliLocation.getCLIExists(logger));
+        probe.addReplacedCalls(1);
+        if (probe.isCliExists()) {
+            probe.setCliPath(getCanonicalPath(cliLocation.getCLI(logger)));
+            probe.addReplacedCalls(2);
+        }
+        probe.setProvidedJrePath(getCanonicalPath(cliLocation.getProvidedJavaExec()));
+        probe.setOneJarPath(getCanonicalPath(cliLocation.getOneJarFile()));
+        probe.addReplacedCalls(2);
+
+        File javaExec = null;
+        if (StringUtils.isNotBlank(probe.getProvidedJrePath())) {
+            javaExec = new File(probe.getProvidedJrePath());
+        } else if (StringUtils.isNotBlank(javaHome)) {
+            javaExec = new File(new File(javaHome, "bin"), probe.isWindows() ? "java.exe" : "java");
+            probe.addReplacedCalls(1);
+        }
+        if (javaExec != null) {
+            probe.setJavaExec(javaExec.getPath());
+            probe.setJavaExecExists(javaExec.exists());
+            probe.addReplacedCalls(1);
+        }
+    }
+
+    private String getCanonicalPath(final File file) throws IOException {
+        if (file == null) {
+            return null;
+        }
+        return file.getCanonicalPath();
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(GetNodeProbe.class));
+    }
+
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import com.blackducksoftware.integration.hub.jenkins.scan.ScanTargetManifest;
+import com.blackducksoftware.integration.hub.jenkins.scan.ScanTargetManifest.FileEntry;
+
+import hudson.Util;
+import hudson.remoting.Callable;
+
+/**
+ * Builds the manifest of a scan target on the node. Files with the same size and last modified time as in the
+ * previous manifest keep their previous hash, only new or changed files are hashed. A directory that is reached again
+ * through a symbolic link, like a link to a parent directory, is only walked once. The excluded directory, if any, is
+ * left out of the manifest with everything under it.
+ *
+ */
+public class GetScanTargetManifest implements Callable<ScanTargetManifest, IOException> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    private final String scanTarget;
+
+    private final ScanTargetManifest previousManifest;
+
+    private final String excludedDirectory;
+
+    public GetScanTargetManifest(final String scanTarget, final ScanTargetManifest previousManifest) {
+        this(scanTarget, previousManifest, null);
+    }
+
+    public GetScanTargetManifest(final String scanTarget, final ScanTargetManifest previousManifest,
+            final String excludedDirectory) {
+        this.scanTarget = scanTarget;
+        this.previousManifest = previousManifest;
+        this.excludedDirectory = excludedDirectory;
+    }
+
+    @Override
+    public ScanTargetManifest call() throws IOException {
+        final ScanTargetManifest manifest = new ScanTargetManifest(scanTarget);
+        final File target = new File(scanTarget);
+        final MessageDigest digest = getDigest();
+        if (target.isFile()) {
+            addFile(manifest, digest, target, target.getName());
+        } else {
+            final Set<String> walkedDirectories = new HashSet<String>();
+            if (excludedDirectory != null) {
+                // Marking the excluded directory as walked skips it wherever it is reached from
+                walkedDirectories.add(new File(excludedDirectory).getCanonicalPath());
+            }
+            addDirectory(manifest, digest, target, "", walkedDirectories);
+        }
+        return manifest;
+    }
+
+    private void addDirectory(final ScanTargetManifest manifest, final MessageDigest digest, final File directory,
+            final String relativePath, final Set<String> walkedDirectories) throws IOException {
+        if (!walkedDirectories.add(directory.getCanonicalPath())) {
+            return;
+        }
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (final File child : children) {
+            final String childPath = relativePath + "/" + child.getName();
+            if (child.isDirectory()) {
+                addDirectory(manifest, digest, child, childPath, walkedDirectories);
+            } else {
+                addFile(manifest, digest, child, childPath);
+            }
+        }
+    }
+
+    private void addFile(final ScanTargetManifest manifest, final MessageDigest digest, final File file,
+            final String relativePath) throws IOException {
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        String hash = null;
+        if (previousManifest != null) {
+            final FileEntry previousEntry = previousManifest.getFile(relativePath);
+            if (previousEntry != null && previousEntry.getSize() == size
+                    && previousEntry.getLastModified() == lastModified) {
+                hash = previousEntry.getHash();
+            }
+        }
+        if (hash == null) {
+            hash = hash(digest, file);
+            manifest.setHashedFileCount(manifest.getHashedFileCount() + 1);
+        }
+        manifest.addFile(relativePath, new FileEntry(size, lastModified, hash));
+    }
+
+    private String hash(final MessageDigest digest, final File file) throws IOException {
+        digest.reset();
+        final byte[] buffer = new byte[8192];
+        final InputStream inputStream = new FileInputStream(file);
+        try {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            inputStream.close();
+        }
+        return Util.toHexString(digest.digest());
+    }
+
+    private MessageDigest getDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(GetScanTargetManifest.class));
+    }
+
+}
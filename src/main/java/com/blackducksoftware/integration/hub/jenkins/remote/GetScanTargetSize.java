@@ -22,39 +22,53 @@
 package com.blackducksoftware.integration.hub.jenkins.remote;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
 
 import org.jenkinsci.remoting.Role;
 import org.jenkinsci.remoting.RoleChecker;
 
-import com.blackducksoftware.integration.hub.cli.CLILocation;
-import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.scan.ScanTargetSize;
 
 import hudson.remoting.Callable;
 
-public class GetCLI implements Callable<String, Exception> {
+public class GetScanTargetSize implements Callable<ScanTargetSize, IOException> {
     private static final long serialVersionUID = 3459269768733083577L;
 
-    private final HubJenkinsLogger logger;
+    private final List<String> scanTargets;
 
-    private final String directoryToInstallTo;
-
-    public GetCLI(final HubJenkinsLogger logger, final String directoryToInstallTo) {
-        this.logger = logger;
-        this.directoryToInstallTo = directoryToInstallTo;
+    public GetScanTargetSize(final List<String> scanTargets) {
+        this.scanTargets = scanTargets;
     }
 
     @Override
-    public String call() throws Exception {
-        final CLILocation cliLocation = new CLILocation(new File(directoryToInstallTo));
-        final File file = cliLocation.getCLI(logger);
-        if (file != null) {
-            return file.getCanonicalPath();
+    public ScanTargetSize call() throws IOException {
+        final ScanTargetSize size = new ScanTargetSize();
+        for (final String scanTarget : scanTargets) {
+            final long[] counts = new long[2];
+            count(new File(scanTarget), counts);
+            size.addTarget(counts[0], counts[1]);
+        }
+        return size;
+    }
+
+    private void count(final File file, final long[] counts) {
+        if (file.isDirectory()) {
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (final File child : children) {
+                    count(child, counts);
+                }
+            }
+        } else if (file.isFile()) {
+            counts[0]++;
+            counts[1] += file.length();
         }
-        return null;
     }
 
     @Override
     public void checkRoles(final RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetCLI.class));
+        checker.check(this, new Role(GetScanTargetSize.class));
     }
+
 }
@@ -1,44 +0,0 @@
-/*******************************************************************************
- * Copyright (C) 2016 Black Duck Software, Inc.
- * http://www.blackducksoftware.com/
- *
- * Licensed to the Apache Software Foundation (ASF) under one
- * or more contributor license agreements. See the NOTICE file
- * distributed with this work for additional information
- * regarding copyright ownership. The ASF licenses this file
- * to you under the Apache License, Version 2.0 (the
- * "License"); you may not use this file except in compliance
- * with the License. You may obtain a copy of the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing,
- * software distributed under the License is distributed on an
- * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
- * KIND, either express or implied. See the License for the
- * specific language governing permissions and limitations
- * under the License.
- *******************************************************************************/
-package com.blackducksoftware.integration.hub.jenkins.remote;
-
-import hudson.remoting.Callable;
-
-import java.io.File;
-import java.io.IOException;
-
-import org.jenkinsci.remoting.Role;
-import org.jenkinsci.remoting.RoleChecker;
-
-public class GetSeparator implements Callable<String, IOException> {
-    private static final long serialVersionUID = 3459269768733083577L;
-
-    @Override
-    public String call() throws IOException {
-        return File.separator;
-    }
-
-    @Override
-    public void checkRoles(RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetSeparator.class));
-    }
-}
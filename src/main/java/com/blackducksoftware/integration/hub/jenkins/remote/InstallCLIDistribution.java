@@ -26,37 +26,47 @@ import java.io.File;
 import org.jenkinsci.remoting.Role;
 import org.jenkinsci.remoting.RoleChecker;
 
-import com.blackducksoftware.integration.hub.cli.CLILocation;
+import com.blackducksoftware.integration.hub.jenkins.cli.CLIDistributionDirectory;
 
 import hudson.remoting.Callable;
 
-public class GetCLIProvidedJRE implements Callable<String, Exception> {
+/**
+ * Publishes the CLI archive pushed from the Jenkins master as the current CLI distribution of the node
+ *
+ */
+public class InstallCLIDistribution implements Callable<Void, Exception> {
     private static final long serialVersionUID = 3459269768733083577L;
 
-    private final String directoryToInstallTo;
+    private final String toolsDirectory;
 
-    public GetCLIProvidedJRE(final String directoryToInstallTo) {
-        this.directoryToInstallTo = directoryToInstallTo;
-    }
+    private final String archivePath;
+
+    private final String checksum;
+
+    private final String marker;
 
-    public String getDirectoryToInstallTo() {
-        return directoryToInstallTo;
+    public InstallCLIDistribution(final String toolsDirectory, final String archivePath, final String checksum,
+            final String marker) {
+        this.toolsDirectory = toolsDirectory;
+        this.archivePath = archivePath;
+        this.checksum = checksum;
+        this.marker = marker;
     }
 
     @Override
-    public String call() throws Exception {
-        final File hubToolDir = new File(directoryToInstallTo);
-        final CLILocation cliLocation = new CLILocation(hubToolDir);
-        final File file = cliLocation.getProvidedJavaExec();
-        if (file != null) {
-            return file.getCanonicalPath();
+    public Void call() throws Exception {
+        final File archive = new File(archivePath);
+        try {
+            new CLIDistributionDirectory(new File(toolsDirectory)).install(archive, checksum, marker);
+        } finally {
+            archive.delete();
         }
         return null;
     }
 
     @Override
     public void checkRoles(final RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetCLIProvidedJRE.class));
+        checker.check(this, new Role(InstallCLIDistribution.class));
     }
 
 }
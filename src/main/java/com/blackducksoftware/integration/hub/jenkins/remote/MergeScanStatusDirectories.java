@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import hudson.remoting.Callable;
+
+/**
+ * Moves the scan status files of several CLI runs into a single status directory so the Bom update can be checked
+ * the same way as for a single CLI run. Returns the number of status files in the target directory.
+ *
+ */
+public class MergeScanStatusDirectories implements Callable<Integer, IOException> {
+    private static final long serialVersionUID = 3459269768733083577L;
+
+    private final List<String> sourceDirectories;
+
+    private final String targetDirectory;
+
+    public MergeScanStatusDirectories(final List<String> sourceDirectories, final String targetDirectory) {
+        this.sourceDirectories = sourceDirectories;
+        this.targetDirectory = targetDirectory;
+    }
+
+    @Override
+    public Integer call() throws IOException {
+        final File target = new File(targetDirectory);
+        if (!target.exists() && !target.mkdirs()) {
+            throw new IOException("Could not create the scan status directory : " + target.getCanonicalPath());
+        }
+        int sourceIndex = 0;
+        for (final String sourceDirectory : sourceDirectories) {
+            final File source = new File(sourceDirectory);
+            final File[] statusFiles = source.listFiles();
+            if (statusFiles != null) {
+                for (final File statusFile : statusFiles) {
+                    // Prefix the file names with the index of the scan in case two targets produce the same status
+                    // file name
+                    final File mergedFile = new File(target, sourceIndex + "_" + statusFile.getName());
+                    if (!statusFile.renameTo(mergedFile)) {
+                        throw new IOException("Could not move the scan status file : " + statusFile.getCanonicalPath()
+                                + " to : " + mergedFile.getCanonicalPath());
+                    }
+                }
+                source.delete();
+            }
+            sourceIndex++;
+        }
+        final String[] mergedFiles = target.list();
+        if (mergedFiles == null) {
+            return 0;
+        }
+        return mergedFiles.length;
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(MergeScanStatusDirectories.class));
+    }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import com.blackducksoftware.integration.hub.api.scan.ScanSummaryItem;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import hudson.remoting.Callable;
+
+/**
+ * Reads, validates and removes all the scan status files of a Build in a single call to the node. Returns the scan
+ * summary URL of every status file.
+ *
+ */
+public class ReadScanStatusFiles implements Callable<List<String>, HubIntegrationException> {
+    private static final long serialVersionUID = 5275941232815739465L;
+
+    private final String scanStatusDirectory;
+
+    private final int expectedNumScans;
+
+    public ReadScanStatusFiles(final String scanStatusDirectory, final int expectedNumScans) {
+        this.scanStatusDirectory = scanStatusDirectory;
+        this.expectedNumScans = expectedNumScans;
+    }
+
+    @Override
+    public List<String> call() throws HubIntegrationException {
+        final File statusDirectory = new File(scanStatusDirectory);
+        if (!statusDirectory.exists()) {
+            throw new HubIntegrationException("The scan status directory does not exist.");
+        }
+        if (!statusDirectory.isDirectory()) {
+            throw new HubIntegrationException("The scan status directory provided is not a directory.");
+        }
+        final File[] statusFiles = statusDirectory.listFiles();
+        if (statusFiles == null || statusFiles.length == 0) {
+            throw new HubIntegrationException("Can not find the scan status files in the directory provided.");
+        }
+        if (statusFiles.length != expectedNumScans) {
+            throw new HubIntegrationException("There were " + expectedNumScans + " scans configured and we found "
+                    + statusFiles.length + " status files.");
+        }
+        final Gson gson = new GsonBuilder().create();
+        final List<String> scanSummaryHrefs = new ArrayList<String>();
+        for (final File statusFile : statusFiles) {
+            ScanSummaryItem scanSummaryItem;
+            try {
+                scanSummaryItem = gson.fromJson(FileUtils.readFileToString(statusFile, "UTF-8"),
+                        ScanSummaryItem.class);
+            } catch (final IOException e) {
+                throw new HubIntegrationException("Could not read the scan status file : "
+                        + statusFile.getAbsolutePath() + " : " + e.getMessage(), e);
+            } catch (final JsonParseException e) {
+                scanSummaryItem = null;
+            }
+            if (scanSummaryItem == null || scanSummaryItem.getMeta() == null || scanSummaryItem.getStatus() == null) {
+                throw new HubIntegrationException("The scan status file : " + statusFile.getAbsolutePath()
+                        + " does not contain valid scan status json.");
+            }
+            scanSummaryHrefs.add(scanSummaryItem.getMeta().getHref());
+        }
+
+        // We delete the files once every status has been read, so that if one file is not valid the User can go look
+        // at the files to see what went wrong
+        for (final File statusFile : statusFiles) {
+            statusFile.delete();
+        }
+        statusDirectory.delete();
+        return scanSummaryHrefs;
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(ReadScanStatusFiles.class));
+    }
+
+}
@@ -45,6 +45,8 @@ import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
 import com.blackducksoftware.integration.hub.jenkins.PostBuildScanDescriptor;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper.HubRestRequest;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry;
 import com.blackducksoftware.integration.hub.job.HubScanJobConfig;
 import com.blackducksoftware.integration.hub.job.HubScanJobFieldEnum;
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
@@ -160,10 +162,13 @@ public class BDCommonDescriptorUtil {
                     return potentialMatches;
                 }
 
-                final HubIntRestService service = BuildHelper.getRestService(serverInfo.getServerUrl(),
-                        serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
-
-                final List<ProjectItem> suggestions = service.getProjectMatches(hubProjectName);
+                final List<ProjectItem> suggestions = BuildHelper.callRestService(serverInfo,
+                        new HubRestRequest<List<ProjectItem>>() {
+                            @Override
+                            public List<ProjectItem> call(final HubIntRestService service) throws Exception {
+                                return service.getProjectMatches(hubProjectName);
+                            }
+                        });
 
                 final HubItemFilterUtil<ProjectItem> filter = new HubItemFilterUtil<ProjectItem>();
                 final List<ProjectItem> accessibleSuggestions = filter.getAccessibleItems(suggestions);
@@ -208,10 +213,12 @@ public class BDCommonDescriptorUtil {
                     return FormValidation.warning(Messages.HubBuildScan_getProjectNameContainsVariable());
                 }
 
-                final HubIntRestService service = BuildHelper.getRestService(serverInfo.getServerUrl(),
-                        serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
-
-                final ProjectItem project = service.getProjectByName(hubProjectName);
+                final ProjectItem project = BuildHelper.callRestService(serverInfo, new HubRestRequest<ProjectItem>() {
+                    @Override
+                    public ProjectItem call(final HubIntRestService service) throws Exception {
+                        return service.getProjectByName(hubProjectName);
+                    }
+                });
                 if (!project.getMeta().isAccessible()) {
                     return FormValidation.error(Messages.HubBuildScan_getProjectNotAccessible());
                 }
@@ -284,33 +291,39 @@ public class BDCommonDescriptorUtil {
                     return FormValidation.ok();
                 }
 
-                final HubIntRestService service = BuildHelper.getRestService(serverInfo.getServerUrl(),
-                        serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
-
-                ProjectItem project = null;
-                try {
-                    project = service.getProjectByName(hubProjectName);
-                } catch (final Exception e) {
-                    // This error will already show up for the project name
-                    // field
-                    return FormValidation.ok();
-                }
-                final List<ProjectVersionItem> releases = service.getProjectVersionsForProject(project);
-
-                final StringBuilder projectVersions = new StringBuilder();
-                for (final ProjectVersionItem release : releases) {
-                    if (release.getVersionName().equals(hubProjectVersion)) {
-                        return FormValidation.ok(Messages.HubBuildScan_getVersionExistsIn_0_(project.getName()));
-                    } else {
-                        if (projectVersions.length() > 0) {
-                            projectVersions.append(", " + release.getVersionName());
-                        } else {
-                            projectVersions.append(release.getVersionName());
+                return BuildHelper.callRestService(serverInfo, new HubRestRequest<FormValidation>() {
+                    @Override
+                    public FormValidation call(final HubIntRestService service) throws Exception {
+                        ProjectItem project = null;
+                        try {
+                            project = service.getProjectByName(hubProjectName);
+                        } catch (final Exception e) {
+                            if (HubRestConnectionRegistry.isSessionExpired(e)) {
+                                throw e;
+                            }
+                            // This error will already show up for the project name
+                            // field
+                            return FormValidation.ok();
                         }
+                        final List<ProjectVersionItem> releases = service.getProjectVersionsForProject(project);
+
+                        final StringBuilder projectVersions = new StringBuilder();
+                        for (final ProjectVersionItem release : releases) {
+                            if (release.getVersionName().equals(hubProjectVersion)) {
+                                return FormValidation
+                                        .ok(Messages.HubBuildScan_getVersionExistsIn_0_(project.getName()));
+                            } else {
+                                if (projectVersions.length() > 0) {
+                                    projectVersions.append(", " + release.getVersionName());
+                                } else {
+                                    projectVersions.append(release.getVersionName());
+                                }
+                            }
+                        }
+                        return FormValidation.error(Messages.HubBuildScan_getVersionNonExistingIn_0_(
+                                project.getName(), projectVersions.toString()));
                     }
-                }
-                return FormValidation.error(Messages.HubBuildScan_getVersionNonExistingIn_0_(project.getName(),
-                        projectVersions.toString()));
+                });
             } catch (final BDRestException e) {
                 String message;
                 if (e.getCause() != null) {
@@ -383,31 +396,35 @@ public class BDCommonDescriptorUtil {
             credentialUserName = credential.getUsername();
             credentialPassword = credential.getPassword().getPlainText();
 
-            final HubIntRestService service = BuildHelper.getRestService(serverInfo.getServerUrl(), credentialUserName,
-                    credentialPassword, serverInfo.getTimeout());
-
-            Boolean projectCreated = false;
-
-            ProjectItem project = null;
-            try {
-                project = service.getProjectByName(hubProjectName);
-            } catch (final ProjectDoesNotExistException e) {
-                final String projectUrl = service.createHubProject(hubProjectName);
-                project = service.getProject(projectUrl);
-                projectCreated = true;
-            }
-
-            try {
-                service.getVersion(project, hubProjectVersion);
-                return FormValidation.warning(Messages.HubBuildScan_getProjectAndVersionExist());
-            } catch (final VersionDoesNotExistException e) {
-                service.createHubVersion(project, hubProjectVersion, hubVersionPhase, hubVersionDist);
-                if (projectCreated) {
-                    return FormValidation.ok(Messages.HubBuildScan_getProjectAndVersionCreated());
-                } else {
-                    return FormValidation.ok(Messages.HubBuildScan_getVersionCreated());
-                }
-            }
+            return BuildHelper.callRestService(serverInfo.getServerUrl(), credentialUserName, credentialPassword,
+                    serverInfo.getTimeout(), new HubRestRequest<FormValidation>() {
+                        @Override
+                        public FormValidation call(final HubIntRestService service) throws Exception {
+                            Boolean projectCreated = false;
+
+                            ProjectItem project = null;
+                            try {
+                                project = service.getProjectByName(hubProjectName);
+                            } catch (final ProjectDoesNotExistException e) {
+                                final String projectUrl = service.createHubProject(hubProjectName);
+                                project = service.getProject(projectUrl);
+                                projectCreated = true;
+                            }
+
+                            try {
+                                service.getVersion(project, hubProjectVersion);
+                                return FormValidation.warning(Messages.HubBuildScan_getProjectAndVersionExist());
+                            } catch (final VersionDoesNotExistException e) {
+                                service.createHubVersion(project, hubProjectVersion, hubVersionPhase,
+                                        hubVersionDist);
+                                if (projectCreated) {
+                                    return FormValidation.ok(Messages.HubBuildScan_getProjectAndVersionCreated());
+                                } else {
+                                    return FormValidation.ok(Messages.HubBuildScan_getVersionCreated());
+                                }
+                            }
+                        }
+                    });
         } catch (final BDRestException e) {
             if (e.getResource().getResponse().getStatus().getCode() == 412) {
                 return FormValidation.error(e, Messages.HubBuildScan_getProjectVersionCreationProblem());
@@ -446,6 +463,9 @@ public class BDCommonDescriptorUtil {
     }
 
     public static FormValidation doCheckScanMemory(final String scanMemory) throws IOException, ServletException {
+        if (ScanMemorySizer.isAutoScanMemory(scanMemory)) {
+            return FormValidation.ok();
+        }
         final ValidationResults<HubScanJobFieldEnum, HubScanJobConfig> results = new ValidationResults<HubScanJobFieldEnum, HubScanJobConfig>();
         final HubScanJobConfigBuilder builder = new HubScanJobConfigBuilder(false);
         builder.setScanMemory(scanMemory);
@@ -32,11 +32,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
-import org.json.JSONException;
-import org.restlet.resource.ResourceException;
 
 import com.blackducksoftware.integration.builder.ValidationResult;
 import com.blackducksoftware.integration.builder.ValidationResultEnum;
@@ -46,6 +45,7 @@ import com.blackducksoftware.integration.hub.HubSupportHelper;
 import com.blackducksoftware.integration.hub.api.project.ProjectItem;
 import com.blackducksoftware.integration.hub.api.project.version.ProjectVersionItem;
 import com.blackducksoftware.integration.hub.api.report.HubReportGenerationInfo;
+import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
 import com.blackducksoftware.integration.hub.api.report.ReportCategoriesEnum;
 import com.blackducksoftware.integration.hub.api.version.ReleaseItem;
 import com.blackducksoftware.integration.hub.builder.HubScanJobConfigBuilder;
@@ -64,31 +64,30 @@ import com.blackducksoftware.integration.hub.jenkins.ScanJobs;
 import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubReportAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubScanFinishedAction;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomTimeHistory;
 import com.blackducksoftware.integration.hub.jenkins.bom.RemoteBomGenerator;
 import com.blackducksoftware.integration.hub.jenkins.cli.DummyToolInstallation;
 import com.blackducksoftware.integration.hub.jenkins.cli.DummyToolInstaller;
+import com.blackducksoftware.integration.hub.jenkins.cli.NodeCLIInstaller;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.HubConfigurationException;
-import com.blackducksoftware.integration.hub.jenkins.exceptions.HubScanToolMissingException;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper.HubRestRequest;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubProjectCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache.HubSupport;
+import com.blackducksoftware.integration.hub.jenkins.helper.PhoneHomeService;
 import com.blackducksoftware.integration.hub.jenkins.helper.PluginHelper;
-import com.blackducksoftware.integration.hub.jenkins.remote.CLIRemoteInstall;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetCLI;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetCLIExists;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetCLIProvidedJRE;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetCanonicalPath;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetHostName;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetHostNameFromNetworkInterfaces;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetIsOsWindows;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetOneJarFile;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetFreePhysicalMemory;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetNodeProbe;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetScanTargetManifest;
+import com.blackducksoftware.integration.hub.jenkins.remote.GetScanTargetSize;
 import com.blackducksoftware.integration.hub.job.HubScanJobConfig;
 import com.blackducksoftware.integration.hub.job.HubScanJobFieldEnum;
 import com.blackducksoftware.integration.log.IntLogger;
-import com.blackducksoftware.integration.phone.home.PhoneHomeClient;
-import com.blackducksoftware.integration.phone.home.enums.BlackDuckName;
-import com.blackducksoftware.integration.phone.home.enums.ThirdPartyName;
-import com.blackducksoftware.integration.phone.home.exception.PhoneHomeException;
-import com.blackducksoftware.integration.phone.home.exception.PropertiesLoaderException;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
 
 import hudson.EnvVars;
@@ -99,7 +98,6 @@ import hudson.model.Node;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.remoting.VirtualChannel;
 import jenkins.model.Jenkins;
 
 public class BDCommonScanStep {
@@ -124,12 +122,24 @@ public class BDCommonScanStep {
 
     private final Boolean verbose;
 
+    private final boolean parallelScans;
+
+    private final boolean incrementalScan;
+
     private final BomUpToDateAction bomUpToDateAction = new BomUpToDateAction();
 
+    private int autoScanMemory;
+
+    private boolean scanOutOfMemory;
+
+    private List<String> cliJvmOptions;
+
+    private boolean executablesVerified;
+
     public BDCommonScanStep(final ScanJobs[] scans, final String hubProjectName, final String hubProjectVersion,
             final String hubVersionPhase, final String hubVersionDist, final String scanMemory,
             final boolean shouldGenerateHubReport, final String bomUpdateMaxiumWaitTime, final boolean dryRun,
-            final Boolean verbose) {
+            final Boolean verbose, final boolean parallelScans, final boolean incrementalScan) {
         this.scans = scans;
         this.hubProjectName = hubProjectName;
         this.hubVersionPhase = hubVersionPhase;
@@ -140,6 +150,8 @@ public class BDCommonScanStep {
         this.bomUpdateMaxiumWaitTime = bomUpdateMaxiumWaitTime;
         this.dryRun = dryRun;
         this.verbose = verbose;
+        this.parallelScans = parallelScans;
+        this.incrementalScan = incrementalScan;
     }
 
     public ScanJobs[] getScans() {
@@ -166,6 +178,10 @@ public class BDCommonScanStep {
         return scanMemory;
     }
 
+    public boolean isAutoScanMemory() {
+        return ScanMemorySizer.isAutoScanMemory(getScanMemory());
+    }
+
     public boolean isShouldGenerateHubReport() {
         return shouldGenerateHubReport;
     }
@@ -182,6 +198,14 @@ public class BDCommonScanStep {
         return verbose;
     }
 
+    public boolean isParallelScans() {
+        return parallelScans;
+    }
+
+    public boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+
     public BomUpToDateAction getBomUpToDateAction() {
         return bomUpToDateAction;
     }
@@ -205,12 +229,21 @@ public class BDCommonScanStep {
             try {
                 logger.alwaysLog("Starting BlackDuck Scans...");
 
-                final String localHostName = getLocalHostName(logger, builtOn);
-
                 if (validateGlobalConfiguration()) {
                     final String workingDirectory = workspace.getRemote();
 
-                    final List<String> scanTargetPaths = getScanTargets(logger, builtOn, envVars, workingDirectory);
+                    final DummyToolInstaller dummyInstaller = new DummyToolInstaller();
+                    final String toolsDirectory = dummyInstaller.getToolDir(new DummyToolInstallation(), builtOn)
+                            .getRemote();
+
+                    final String localHostName = NodeFactsCache.getInstance().getFacts(builtOn).getHostName();
+                    logger.info("Hub Plugin running on machine : " + localHostName);
+
+                    final GetNodeProbe getNodeProbe = new GetNodeProbe(logger);
+                    getNodeProbe.setScanTargets(getScanTargets(envVars, workingDirectory));
+                    final NodeProbe nodeProbe = probeNode(logger, builtOn, getNodeProbe);
+
+                    final List<String> scanTargetPaths = nodeProbe.getScanTargets();
 
                     String projectName = null;
                     String projectVersion = null;
@@ -237,7 +270,12 @@ public class BDCommonScanStep {
                     } else {
                         hubScanJobConfigBuilder.setMaxWaitTimeForBomUpdate(getBomUpdateMaxiumWaitTime());
                     }
-                    hubScanJobConfigBuilder.setScanMemory(getScanMemory());
+                    if (isAutoScanMemory()) {
+                        // The memory is sized once the scan targets are known
+                        hubScanJobConfigBuilder.setScanMemory(String.valueOf(ScanMemorySizer.DEFAULT_SCAN_MEMORY));
+                    } else {
+                        hubScanJobConfigBuilder.setScanMemory(getScanMemory());
+                    }
                     hubScanJobConfigBuilder.addAllScanTargetPaths(scanTargetPaths);
                     hubScanJobConfigBuilder.disableScanTargetPathExistenceCheck();
 
@@ -266,72 +304,103 @@ public class BDCommonScanStep {
                             }
                         }
                     }
-                    final DummyToolInstaller dummyInstaller = new DummyToolInstaller();
-                    final String toolsDirectory = dummyInstaller.getToolDir(new DummyToolInstallation(), builtOn)
-                            .getRemote();
-
-                    final String scanExec = getScanCLI(logger, builtOn, toolsDirectory, localHostName, envVars);
+                    validateScanTargets(logger, jobConfig.getScanTargetPaths(), jobConfig.getWorkingDirectory(),
+                            nodeProbe);
 
-                    final String jrePath = getJavaExec(logger, builtOn, toolsDirectory, envVars, javaHome.getRemote());
+                    final HubSupport cachedHubSupport = HubSupportCache.getInstance().getHubSupport(logger,
+                            getHubServerInfo());
+                    final HubSupportHelper hubSupport = cachedHubSupport.getHubSupportHelper();
+                    final String hubVersion = cachedHubSupport.getHubVersion();
 
-                    final String oneJarPath = getOneJarFile(builtOn, toolsDirectory);
+                    final NodeProbe cliProbe = new NodeCLIInstaller(getHubServerInfo()).installCLI(logger, builtOn,
+                            toolsDirectory, localHostName, envVars, javaHome.getRemote(), hubVersion);
+                    final String scanExec = cliProbe.getCliPath();
+                    final String jrePath = cliProbe.getJavaExec();
+                    final String oneJarPath = cliProbe.getOneJarPath();
+                    executablesVerified = cliProbe.isCliExists() && cliProbe.isJavaExecExists();
 
-                    final HubIntRestService service = BuildHelper.getRestService(logger,
-                            getHubServerInfo().getServerUrl(), getHubServerInfo().getUsername(),
-                            getHubServerInfo().getPassword(), getHubServerInfo().getTimeout());
                     ProjectItem project = null;
                     ProjectVersionItem version = null;
                     if (!isDryRun() && StringUtils.isNotBlank(projectName) && StringUtils.isNotBlank(projectVersion)) {
-                        project = ensureProjectExists(service, logger, projectName);
+                        project = resolveProject(logger, projectName);
                         if (!project.getMeta().isAccessible()) {
                             throw new ProjectNotAccessibleException(Messages.HubBuildScan_getProjectNotAccessible());
                         }
-                        version = ensureVersionExists(service, logger, projectVersion, project);
+                        version = resolveVersion(logger, projectName, projectVersion, project);
+                        checkVersionSettings(logger, version);
                         logger.debug("Found Project : " + projectName);
                         logger.debug("Found Version : " + projectVersion);
                     }
-                    final HubSupportHelper hubSupport = new HubSupportHelper();
-                    hubSupport.checkHubSupport(service, logger);
 
                     // Phone-Home
-                    try {
-                        final String hubVersion = hubSupport.getHubVersion(service);
-                        String regId = null;
-                        String hubHostName = null;
-                        try {
-                            regId = service.getRegistrationId();
-                        } catch (final Exception e) {
-                            logger.debug("Could not get the Hub registration Id.");
-                        }
-                        try {
-                            final URL url = new URL(getHubServerInfo().getServerUrl());
-                            hubHostName = url.getHost();
-                        } catch (final Exception e) {
-                            logger.debug("Could not get the Hub Host name.");
-                        }
-                        bdPhoneHome(hubVersion, regId, hubHostName);
-                    } catch (final Exception e) {
-                        logger.debug("Unable to phone-home", e);
+                    PhoneHomeService.getInstance().phoneHome(getHubServerInfo(), hubVersion);
+
+                    List<String> targetsToScan = jobConfig.getScanTargetPaths();
+                    ScanManifestStore manifestStore = null;
+                    final List<ScanTargetManifest> changedManifests = new ArrayList<ScanTargetManifest>();
+                    if (isIncrementalScan() && !isDryRun()) {
+                        manifestStore = new ScanManifestStore(run.getParent().getRootDir(),
+                                getHubServerInfo().getServerUrl(), projectName, projectVersion);
+                        targetsToScan = getChangedScanTargets(logger, builtOn, manifestStore,
+                                jobConfig.getScanTargetPaths(), jobConfig.getWorkingDirectory(), changedManifests);
                     }
 
-                    final JenkinsScanExecutor scan = new JenkinsScanExecutor(getHubServerInfo(),
-                            jobConfig.getScanTargetPaths(), buildIdentifier, hubSupport, builtOn, launcher, logger);
+                    final JenkinsScanExecutor scan = new JenkinsScanExecutor(getHubServerInfo(), targetsToScan,
+                            buildIdentifier, hubSupport, builtOn, launcher, logger);
                     scan.setVariables(variables);
 
-                    final DateTime beforeScanTime = new DateTime();
-                    run.setResult(runScan(service, builtOn, scan, logger, scanExec, jrePath, oneJarPath, jobConfig));
+                    DateTime beforeScanTime = new DateTime();
+                    if (targetsToScan.isEmpty()) {
+                        logger.alwaysLog(
+                                "None of the scan targets have changed since they were last scanned, skipping the scan.");
+                        run.setResult(Result.SUCCESS);
+                    } else {
+                        ScanTargetSize targetSize = null;
+                        if (isAutoScanMemory() || getHubServerInfo().isCliFastStart()) {
+                            targetSize = getScanTargetSize(builtOn, targetsToScan, changedManifests);
+                        }
+                        if (isAutoScanMemory()) {
+                            autoScanMemory = sizeScanMemory(logger, run, builtOn, targetSize, targetsToScan.size());
+                        }
+                        if (getHubServerInfo().isCliFastStart()) {
+                            cliJvmOptions = getFastStartJvmOptions(logger, targetSize, targetsToScan.size());
+                        }
+                        final ScanMemoryAdmissionController.Reservation reservation = reserveScanMemory(logger,
+                                builtOn, jobConfig, targetsToScan.size());
+                        try {
+                            beforeScanTime = new DateTime();
+                            if (isParallelScans() && targetsToScan.size() > 1) {
+                                run.setResult(runParallelScans(builtOn, scan, logger, scanExec, jrePath, oneJarPath,
+                                        jobConfig, targetsToScan, buildIdentifier, hubSupport, launcher, variables));
+                            } else {
+                                run.setResult(runScan(builtOn, scan, logger, scanExec, jrePath, oneJarPath,
+                                        jobConfig));
+                            }
+                        } finally {
+                            reservation.release();
+                        }
+                        if (isAutoScanMemory()) {
+                            recordScanMemory(logger, run, targetSize, targetsToScan.size());
+                        }
+                    }
                     final DateTime afterScanTime = new DateTime();
+                    if (manifestStore != null && run.getResult().equals(Result.SUCCESS)) {
+                        saveScanTargetManifests(logger, manifestStore, changedManifests);
+                    }
 
                     bomUpToDateAction.setDryRun(isDryRun());
                     if (run.getResult().equals(Result.SUCCESS) && !isDryRun() && isShouldGenerateHubReport()
                             && version != null) {
 
                         final HubReportGenerationInfo reportGenInfo = new HubReportGenerationInfo();
-                        reportGenInfo.setService(service);
+                        // The session may have been renewed since the project was resolved
+                        reportGenInfo.setService(BuildHelper.getRestService(logger,
+                                getHubServerInfo().getServerUrl(), getHubServerInfo().getUsername(),
+                                getHubServerInfo().getPassword(), getHubServerInfo().getTimeout()));
                         reportGenInfo.setHostname(localHostName);
                         reportGenInfo.setProject(project);
                         reportGenInfo.setVersion(version);
-                        reportGenInfo.setScanTargets(jobConfig.getScanTargetPaths());
+                        reportGenInfo.setScanTargets(targetsToScan);
 
                         reportGenInfo.setMaximumWaitTime(jobConfig.getMaxWaitTimeForBomUpdateInMilliseconds());
 
@@ -349,7 +418,7 @@ public class BDCommonScanStep {
                         bomUpToDateAction.setLocalHostName(localHostName);
                         bomUpToDateAction.setMaxWaitTime(jobConfig.getMaxWaitTimeForBomUpdateInMilliseconds());
                         bomUpToDateAction.setScanStatusDirectory(scan.getScanStatusDirectoryPath());
-                        bomUpToDateAction.setScanTargets(jobConfig.getScanTargetPaths());
+                        bomUpToDateAction.setScanTargets(targetsToScan);
                     }
                     if (version != null && hubSupport.hasCapability(HubCapabilitiesEnum.POLICY_API)) {
                         String policyStatusLink = null;
@@ -365,6 +434,8 @@ public class BDCommonScanStep {
                     run.addAction(bomUpToDateAction);
                     run.addAction(new HubScanFinishedAction());
                 }
+            } catch (final HubUnavailableException e) {
+                BuildHelper.handleHubUnavailable(run, logger, getHubServerInfo(), e);
             } catch (final BDJenkinsHubPluginException e) {
                 logger.error(e.getMessage(), e);
                 run.setResult(Result.UNSTABLE);
@@ -399,27 +470,11 @@ public class BDCommonScanStep {
         logger.alwaysLog("Finished running Black Duck Scans.");
     }
 
-    public String getLocalHostName(final IntLogger logger, final Node builtOn) throws InterruptedException {
-        String localHostName = "";
-        try {
-            localHostName = builtOn.getChannel().call(new GetHostName());
-        } catch (final IOException e) {
-            // ignore the error, try to get the host name from the network
-            // interfaces
-        }
-        if (StringUtils.isBlank(localHostName)) {
-            try {
-                localHostName = builtOn.getChannel().call(new GetHostNameFromNetworkInterfaces());
-            } catch (final IOException e) {
-                logger.error("Problem getting the Local Host name : " + e.getMessage(), e);
-            }
-        }
-        logger.info("Hub Plugin running on machine : " + localHostName);
-        return localHostName;
-    }
-
-    public List<String> getScanTargets(final IntLogger logger, final Node builtOn, final EnvVars variables,
-            final String workingDirectory) throws BDJenkinsHubPluginException, InterruptedException {
+    /**
+     * Returns the absolute paths of the scan targets, they are made canonical on the node by the node probe.
+     *
+     */
+    public List<String> getScanTargets(final EnvVars variables, final String workingDirectory) {
         final List<String> scanTargetPaths = new ArrayList<String>();
         final ScanJobs[] scans = getScans();
         if (scans == null || scans.length == 0) {
@@ -429,39 +484,237 @@ public class BDCommonScanStep {
                 if (StringUtils.isEmpty(scanJob.getScanTarget())) {
                     scanTargetPaths.add(workingDirectory);
                 } else {
-                    String target = BuildHelper.handleVariableReplacement(variables, scanJob.getScanTarget().trim());
+                    final String target = BuildHelper.handleVariableReplacement(variables,
+                            scanJob.getScanTarget().trim());
                     // make sure the target provided doesn't already begin with
                     // a slash or end in a slash
                     // removes the slash if the target begins or ends with one
                     final File targetFile = new File(workingDirectory, target);
-
-                    try {
-                        target = builtOn.getChannel().call(new GetCanonicalPath(targetFile));
-                    } catch (final IOException e) {
-                        logger.error("Problem getting the real path of the target : " + target
-                                + " on this node. Error : " + e.getMessage(), e);
-                    }
-                    scanTargetPaths.add(target);
+                    scanTargetPaths.add(targetFile.getPath());
                 }
             }
         }
         return scanTargetPaths;
     }
 
+    private int getScanMemoryInMb(final HubScanJobConfig jobConfig) {
+        if (autoScanMemory > 0) {
+            return autoScanMemory;
+        }
+        return jobConfig.getScanMemory();
+    }
+
+    private ScanTargetSize getScanTargetSize(final Node builtOn, final List<String> scanTargets,
+            final List<ScanTargetManifest> manifests) throws IOException, InterruptedException {
+        if (manifests.size() == scanTargets.size()) {
+            // The incremental scan already walked every target that will be scanned
+            final ScanTargetSize targetSize = new ScanTargetSize();
+            for (final ScanTargetManifest manifest : manifests) {
+                targetSize.addTarget(manifest.getFileCount(), manifest.getTotalSize());
+            }
+            return targetSize;
+        }
+        return builtOn.getChannel().call(new GetScanTargetSize(scanTargets));
+    }
+
+    /**
+     * Sizes the heap of each CLI process from what it will scan and the previous scans of this Job. When the targets
+     * are scanned in parallel each CLI process scans a single target, so the largest target is used.
+     *
+     */
+    private int sizeScanMemory(final HubJenkinsLogger logger, final Run run, final Node builtOn,
+            final ScanTargetSize targetSize, final int numberOfTargets) throws InterruptedException {
+        final boolean perTarget = isParallelScans() && numberOfTargets > 1;
+        final long fileCount = perTarget ? targetSize.getLargestTargetFileCount() : targetSize.getFileCount();
+        final long byteCount = perTarget ? targetSize.getLargestTargetByteCount() : targetSize.getByteCount();
+        long freeMemory = -1;
+        try {
+            freeMemory = builtOn.getChannel().call(new GetFreePhysicalMemory());
+        } catch (final IOException e) {
+            logger.debug("Could not get the free memory of this node : " + e.getMessage());
+        }
+        final List<ScanMemoryHistory.Record> history = new ScanMemoryHistory(run.getParent().getRootDir())
+                .getRecords();
+        final ScanMemorySizer sizer = new ScanMemorySizer();
+        final int scanMemory = sizer.getScanMemory(fileCount, byteCount, history, freeMemory);
+        logger.debug("Scan memory estimated from " + fileCount + " files and " + byteCount + " bytes : "
+                + sizer.getEstimatedScanMemory(fileCount, byteCount) + " MB, enough for a previous scan : "
+                + sizer.getSufficientScanMemory(fileCount, history) + " MB, required after running out of memory : "
+                + sizer.getOutOfMemoryScanMemory(fileCount, history) + " MB, free memory on this node : " + freeMemory
+                + " MB");
+        logger.info("Using a scan memory of " + scanMemory + " MB for " + fileCount + " files.");
+        return scanMemory;
+    }
+
+    /**
+     * Small scans spend most of their time starting the CLI JVM, so they are run with the fast start JVM options.
+     * Returns null for larger scans.
+     *
+     */
+    private List<String> getFastStartJvmOptions(final HubJenkinsLogger logger, final ScanTargetSize targetSize,
+            final int numberOfTargets) {
+        final boolean perTarget = isParallelScans() && numberOfTargets > 1;
+        final long fileCount = perTarget ? targetSize.getLargestTargetFileCount() : targetSize.getFileCount();
+        if (fileCount > JenkinsScanExecutor.FAST_START_MAX_FILE_COUNT) {
+            logger.debug("Not using the fast start JVM options to scan " + fileCount + " files.");
+            return null;
+        }
+        logger.info("Using the fast start JVM options to scan " + fileCount + " files.");
+        return JenkinsScanExecutor.FAST_START_JVM_OPTIONS;
+    }
+
+    private void recordScanMemory(final HubJenkinsLogger logger, final Run run, final ScanTargetSize targetSize,
+            final int numberOfTargets) {
+        final boolean perTarget = isParallelScans() && numberOfTargets > 1;
+        final long fileCount = perTarget ? targetSize.getLargestTargetFileCount() : targetSize.getFileCount();
+        final long byteCount = perTarget ? targetSize.getLargestTargetByteCount() : targetSize.getByteCount();
+        try {
+            new ScanMemoryHistory(run.getParent().getRootDir()).addRecord(new ScanMemoryHistory.Record(
+                    autoScanMemory, fileCount, byteCount, scanOutOfMemory, Result.SUCCESS.equals(run.getResult())));
+        } catch (final IOException e) {
+            logger.warn("Could not record the scan memory of this Build : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reserves the heap of the CLI processes on the node, waiting until enough of the scan memory capacity of the node
+     * is free.
+     *
+     */
+    private ScanMemoryAdmissionController.Reservation reserveScanMemory(final HubJenkinsLogger logger,
+            final Node builtOn, final HubScanJobConfig jobConfig, final int numberOfTargets)
+            throws InterruptedException {
+        int cliProcesses = 1;
+        if (isParallelScans()) {
+            cliProcesses = Math.max(1, Math.min(ParallelScanExecutor.DEFAULT_MAX_PARALLEL_SCANS, numberOfTargets));
+        }
+        final int memoryInMb = getScanMemoryInMb(jobConfig) * cliProcesses;
+        final int capacityInMb = new ScanMemoryCapacity(getHubServerInfo().getScanMemoryCapacity())
+                .getCapacity(builtOn);
+        if (capacityInMb > 0) {
+            logger.debug("Reserving " + memoryInMb + " MB of the " + capacityInMb
+                    + " MB scan memory capacity of this node.");
+        }
+        final ScanMemoryAdmissionController.Reservation reservation = ScanMemoryAdmissionController.getInstance()
+                .reserve(builtOn.getNodeName(), capacityInMb, memoryInMb, logger);
+        if (reservation.getWaitTimeInMilliseconds() >= 1000) {
+            logger.alwaysLog("Waited " + (reservation.getWaitTimeInMilliseconds() / 1000)
+                    + " seconds for scan memory to be available on this node.");
+        }
+        return reservation;
+    }
+
+    /**
+     * Compares the current content of each scan target with the manifest stored after its last successful scan.
+     * Returns the targets that have changed, the new manifests of these targets are added to changedManifests so they
+     * can be stored once the scan succeeds. The CLI logs written in the workspace by each Build are left out of the
+     * manifests, otherwise a target containing the workspace would always have changed.
+     *
+     */
+    private List<String> getChangedScanTargets(final HubJenkinsLogger logger, final Node builtOn,
+            final ScanManifestStore manifestStore, final List<String> scanTargets, final String workingDirectory,
+            final List<ScanTargetManifest> changedManifests) throws IOException, InterruptedException {
+        final String logRootDirectory = new FilePath(builtOn.getChannel(), workingDirectory)
+                .child(JenkinsScanExecutor.LOG_ROOT_DIRECTORY_NAME).getRemote();
+        final List<String> changedTargets = new ArrayList<String>();
+        for (final String target : scanTargets) {
+            final ScanTargetManifest previousManifest = manifestStore.load(target);
+            final ScanTargetManifest manifest = builtOn.getChannel()
+                    .call(new GetScanTargetManifest(target, previousManifest, logRootDirectory));
+            logger.debug("Hashed " + manifest.getHashedFileCount() + " of the " + manifest.getFileCount()
+                    + " files in the target : " + target);
+            if (manifest.hasSameContent(previousManifest)) {
+                logger.alwaysLog("The target : " + target + " has not changed since it was last scanned, skipping it.");
+            } else {
+                changedTargets.add(target);
+                changedManifests.add(manifest);
+            }
+        }
+        return changedTargets;
+    }
+
+    private void saveScanTargetManifests(final HubJenkinsLogger logger, final ScanManifestStore manifestStore,
+            final List<ScanTargetManifest> manifests) {
+        for (final ScanTargetManifest manifest : manifests) {
+            try {
+                manifestStore.save(manifest);
+            } catch (final IOException e) {
+                // The target will simply be scanned again by the next Build
+                logger.warn("Could not save the manifest of the target : " + manifest.getScanTarget() + " : "
+                        + e.getMessage());
+            }
+        }
+    }
+
     private void generateHubReport(final Run run, final Node builtOn, final HubJenkinsLogger logger,
             final HubReportGenerationInfo reportGenInfo, final HubServerInfo serverInfo,
             final HubSupportHelper hubSupport, final BomUpToDateAction action) throws Exception {
         final HubReportAction reportAction = new HubReportAction(run);
         final RemoteBomGenerator remoteBomGenerator = new RemoteBomGenerator(reportGenInfo, hubSupport,
                 builtOn.getChannel());
+        remoteBomGenerator.setBomTimeHistory(new BomTimeHistory(run.getParent().getRootDir()));
         final ReportCategoriesEnum[] categories = new ReportCategoriesEnum[2];
         categories[0] = ReportCategoriesEnum.VERSION;
         categories[1] = ReportCategoriesEnum.COMPONENTS;
-        reportAction.setReportData(remoteBomGenerator.generateHubReport(logger, categories));
+        reportAction.setReportData(HubCircuitBreaker.getInstance().call(serverInfo.getServerUrl(),
+                new Callable<HubRiskReportData>() {
+                    @Override
+                    public HubRiskReportData call() throws Exception {
+                        return remoteBomGenerator.generateHubReport(logger, categories);
+                    }
+                }));
         run.addAction(reportAction);
         action.setHasBomBeenUdpated(true);
     }
 
+    /**
+     * Resolves the Project through the HubProjectCache so concurrent Builds of the same Project do not all look it up
+     * or try to create it.
+     *
+     */
+    private ProjectItem resolveProject(final IntLogger logger, final String projectName) throws Exception {
+        final String key = HubProjectCache.getProjectKey(getHubServerInfo().getServerUrl(),
+                getHubServerInfo().getUsername(), projectName);
+        return HubProjectCache.getInstance().resolve(key, new Callable<ProjectItem>() {
+            @Override
+            public ProjectItem call() throws Exception {
+                return BuildHelper.callRestService(getHubServerInfo(), new HubRestRequest<ProjectItem>() {
+                    @Override
+                    public ProjectItem call(final HubIntRestService service) throws Exception {
+                        return HubRequestLimiter.getInstance().call(new Callable<ProjectItem>() {
+                            @Override
+                            public ProjectItem call() throws Exception {
+                                return ensureProjectExists(service, logger, projectName);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private ProjectVersionItem resolveVersion(final IntLogger logger, final String projectName,
+            final String projectVersion, final ProjectItem project) throws Exception {
+        final String key = HubProjectCache.getVersionKey(getHubServerInfo().getServerUrl(),
+                getHubServerInfo().getUsername(), projectName, projectVersion);
+        return HubProjectCache.getInstance().resolve(key, new Callable<ProjectVersionItem>() {
+            @Override
+            public ProjectVersionItem call() throws Exception {
+                return BuildHelper.callRestService(getHubServerInfo(), new HubRestRequest<ProjectVersionItem>() {
+                    @Override
+                    public ProjectVersionItem call(final HubIntRestService service) throws Exception {
+                        return HubRequestLimiter.getInstance().call(new Callable<ProjectVersionItem>() {
+                            @Override
+                            public ProjectVersionItem call() throws Exception {
+                                return ensureVersionExists(service, logger, projectVersion, project);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
     protected ProjectItem ensureProjectExists(final HubIntRestService service, final IntLogger logger,
             final String projectName) throws IOException, URISyntaxException, BDJenkinsHubPluginException {
         ProjectItem project = null;
@@ -504,14 +757,6 @@ public class BDCommonScanStep {
         ProjectVersionItem version = null;
         try {
             version = service.getVersion(project, projectVersion);
-            if (!version.getPhase().equals(getHubVersionPhase())) {
-                logger.warn(
-                        "The selected Phase does not match the Phase of this Version. If you wish to update the Phase please do so in the Hub UI.");
-            }
-            if (!version.getDistribution().equals(getHubVersionDist())) {
-                logger.warn(
-                        "The selected Distribution does not match the Distribution of this Version. If you wish to update the Distribution please do so in the Hub UI.");
-            }
         } catch (final VersionDoesNotExistException e) {
             try {
                 final String versionURL = service.createHubVersion(project, projectVersion, getHubVersionPhase(),
@@ -530,6 +775,17 @@ public class BDCommonScanStep {
         return version;
     }
 
+    private void checkVersionSettings(final IntLogger logger, final ProjectVersionItem version) {
+        if (!version.getPhase().equals(getHubVersionPhase())) {
+            logger.warn(
+                    "The selected Phase does not match the Phase of this Version. If you wish to update the Phase please do so in the Hub UI.");
+        }
+        if (!version.getDistribution().equals(getHubVersionDist())) {
+            logger.warn(
+                    "The selected Distribution does not match the Distribution of this Version. If you wish to update the Distribution please do so in the Hub UI.");
+        }
+    }
+
     public void printConfiguration(final Node builtOn, final TaskListener listener, final HubJenkinsLogger logger,
             final HubScanJobConfig jobConfig, final String buildDisplayName, final String buildIdentifier,
             final String workspace) throws IOException, InterruptedException {
@@ -550,6 +806,7 @@ public class BDCommonScanStep {
         logger.alwaysLog(
                 "-> Using Hub Project Name : " + jobConfig.getProjectName() + ", Version : " + jobConfig.getVersion());
         logger.alwaysLog("-> Dry Run : " + isDryRun());
+        logger.alwaysLog("-> Incremental Scan : " + isIncrementalScan());
 
         logger.alwaysLog("-> Scanning the following targets  : ");
         for (final String target : jobConfig.getScanTargetPaths()) {
@@ -568,16 +825,61 @@ public class BDCommonScanStep {
      * the process and prints out all stderr and stdout to the Console Output.
      *
      */
-    private Result runScan(final HubIntRestService service, final Node builtOn, final JenkinsScanExecutor scan,
+    private Result runScan(final Node builtOn, final JenkinsScanExecutor scan,
             final HubJenkinsLogger logger, final String scanExec, final String javaExec, final String oneJarPath,
             final HubScanJobConfig jobConfig) throws IOException, HubConfigurationException, InterruptedException,
             BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException {
-        validateScanTargets(logger, jobConfig.getScanTargetPaths(), jobConfig.getWorkingDirectory(),
-                builtOn.getChannel());
+        configureScanExecutor(logger, scan, jobConfig);
+        final com.blackducksoftware.integration.hub.ScanExecutor.Result result = scan.setupAndRunScan(scanExec,
+                oneJarPath, javaExec);
+        scanOutOfMemory = scan.isOutOfMemory();
+        return getBuildResult(result);
+    }
+
+    /**
+     * Runs a separate CLI process for each scan target, several at a time. Each process logs to its own sub directory
+     * of the Build log directory and the scan status files are merged back into the status directory of the
+     * buildScan, so the Bom update can be checked as if a single CLI process had scanned every target.
+     *
+     */
+    private Result runParallelScans(final Node builtOn, final JenkinsScanExecutor buildScan,
+            final HubJenkinsLogger logger, final String scanExec, final String javaExec, final String oneJarPath,
+            final HubScanJobConfig jobConfig, final List<String> scanTargets, final String buildIdentifier,
+            final HubSupportHelper hubSupport, final Launcher launcher, final CIEnvironmentVariables variables)
+            throws IOException, HubConfigurationException, InterruptedException, BDJenkinsHubPluginException,
+            HubIntegrationException, URISyntaxException {
+        configureScanExecutor(logger, buildScan, jobConfig);
+
+        final List<JenkinsScanExecutor> targetScans = new ArrayList<JenkinsScanExecutor>();
+        for (int i = 0; i < scanTargets.size(); i++) {
+            final List<String> target = new ArrayList<String>();
+            target.add(scanTargets.get(i));
+            final JenkinsScanExecutor targetScan = new JenkinsScanExecutor(getHubServerInfo(), target,
+                    buildIdentifier, hubSupport, builtOn, launcher, logger);
+            targetScan.setVariables(variables);
+            targetScan.setLogSubDirectory("target_" + i);
+            configureScanExecutor(logger, targetScan, jobConfig);
+            targetScans.add(targetScan);
+        }
+        final ParallelScanExecutor parallelScan = new ParallelScanExecutor(builtOn, logger, scanTargets, targetScans,
+                ParallelScanExecutor.DEFAULT_MAX_PARALLEL_SCANS);
+        final com.blackducksoftware.integration.hub.ScanExecutor.Result result = parallelScan.runScans(scanExec,
+                oneJarPath, javaExec, buildScan.getScanStatusDirectoryPath());
+        for (final JenkinsScanExecutor targetScan : targetScans) {
+            scanOutOfMemory |= targetScan.isOutOfMemory();
+        }
+        return getBuildResult(result);
+    }
+
+    private void configureScanExecutor(final HubJenkinsLogger logger, final JenkinsScanExecutor scan,
+            final HubScanJobConfig jobConfig)
+            throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException, MalformedURLException {
         scan.setLogger(logger);
         addProxySettingsToScanner(logger, scan);
 
-        scan.setScanMemory(jobConfig.getScanMemory());
+        scan.setScanMemory(getScanMemoryInMb(jobConfig));
+        scan.setJvmOptions(cliJvmOptions);
+        scan.setExecutablesVerified(executablesVerified);
         scan.setWorkingDirectory(jobConfig.getWorkingDirectory());
 
         scan.setVerboseRun(isVerbose());
@@ -587,8 +889,9 @@ public class BDCommonScanStep {
             scan.setProject(jobConfig.getProjectName());
             scan.setVersion(jobConfig.getVersion());
         }
-        final com.blackducksoftware.integration.hub.ScanExecutor.Result result = scan.setupAndRunScan(scanExec,
-                oneJarPath, javaExec);
+    }
+
+    private Result getBuildResult(final com.blackducksoftware.integration.hub.ScanExecutor.Result result) {
         if (result == com.blackducksoftware.integration.hub.ScanExecutor.Result.SUCCESS) {
             return Result.SUCCESS;
         } else {
@@ -632,92 +935,23 @@ public class BDCommonScanStep {
         }
     }
 
-    public void addProxySettingsToCLIInstaller(final IntLogger logger, final CLIRemoteInstall remoteCLIInstall)
-            throws BDJenkinsHubPluginException, HubIntegrationException, URISyntaxException, MalformedURLException {
-        final Jenkins jenkins = Jenkins.getInstance();
-        if (jenkins != null) {
-            final ProxyConfiguration proxyConfig = jenkins.proxy;
-            if (proxyConfig != null) {
-
-                final URL serverUrl = new URL(getHubServerInfo().getServerUrl());
-
-                final Proxy proxy = ProxyConfiguration.createProxy(serverUrl.getHost(), proxyConfig.name,
-                        proxyConfig.port, proxyConfig.noProxyHost);
-
-                if (proxy != Proxy.NO_PROXY && proxy.address() != null) {
-                    final InetSocketAddress proxyAddress = (InetSocketAddress) proxy.address();
-                    if (StringUtils.isNotBlank(proxyAddress.getHostName()) && proxyAddress.getPort() != 0) {
-                        if (StringUtils.isNotBlank(jenkins.proxy.getUserName())
-                                && StringUtils.isNotBlank(jenkins.proxy.getPassword())) {
-                            remoteCLIInstall.setProxyHost(proxyAddress.getHostName());
-                            remoteCLIInstall.setProxyPort(proxyAddress.getPort());
-                            remoteCLIInstall.setProxyUserName(jenkins.proxy.getUserName());
-                            remoteCLIInstall.setProxyPassword(jenkins.proxy.getPassword());
-
-                        } else {
-                            remoteCLIInstall.setProxyHost(proxyAddress.getHostName());
-                            remoteCLIInstall.setProxyPort(proxyAddress.getPort());
-                        }
-                        if (logger != null) {
-                            logger.debug("Using proxy: '" + proxyAddress.getHostName() + "' at Port: '"
-                                    + proxyAddress.getPort() + "'");
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    public String getScanCLI(final HubJenkinsLogger logger, final Node node, final String toolsDirectory,
-            final String localHostName, final EnvVars variables) throws IOException, InterruptedException, Exception {
-
-        if (getHubServerInfo() == null) {
-            logger.error("Could not find the Hub server information.");
-            return null;
-        }
-        final CLIRemoteInstall remoteCLIInstall = new CLIRemoteInstall(logger, toolsDirectory, localHostName,
-                getHubServerInfo().getServerUrl(), getHubServerInfo().getUsername(), getHubServerInfo().getPassword(),
-                getHubServerInfo().getTimeout(), variables);
-
-        addProxySettingsToCLIInstaller(logger, remoteCLIInstall);
-
-        node.getChannel().call(remoteCLIInstall);
-
-        final GetCLIExists cliExists = new GetCLIExists(logger, toolsDirectory);
-        FilePath scanExec = null;
-        if (node.getChannel().call(cliExists)) {
-            final GetCLI getCLi = new GetCLI(logger, toolsDirectory);
-            scanExec = new FilePath(node.getChannel(), node.getChannel().call(getCLi));
-            logger.debug("Using this BlackDuck scan CLI at : " + scanExec.getRemote());
-        } else {
-            throw new HubScanToolMissingException("Could not find the CLI file to execute.");
+    /**
+     * Collects the facts about the node in a single remote call instead of one remote call per fact
+     *
+     */
+    public static NodeProbe probeNode(final HubJenkinsLogger logger, final Node node, final GetNodeProbe getNodeProbe)
+            throws Exception {
+        final long start = System.currentTimeMillis();
+        final NodeProbe probe = node.getChannel().call(getNodeProbe);
+        final long duration = System.currentTimeMillis() - start;
+        for (final String error : probe.getErrors()) {
+            logger.error(error);
         }
-        return scanExec.getRemote();
-    }
-
-    public String getJavaExec(final HubJenkinsLogger logger, final Node builtOn, final String toolsDirectory,
-            final EnvVars envVars, final String javaHome) throws IOException, InterruptedException, Exception {
-        final GetCLIProvidedJRE getProvidedJre = new GetCLIProvidedJRE(toolsDirectory);
-        String jrePath = builtOn.getChannel().call(getProvidedJre);
-
-        if (StringUtils.isBlank(jrePath)) {
-            FilePath javaExec = new FilePath(builtOn.getChannel(), javaHome);
-            javaExec = new FilePath(javaExec, "bin");
-            if (builtOn.getChannel().call(new GetIsOsWindows())) {
-                javaExec = new FilePath(javaExec, "java.exe");
-            } else {
-                javaExec = new FilePath(javaExec, "java");
-            }
-
-            jrePath = javaExec.getRemote();
+        if (probe.getReplacedCallCount() > 1) {
+            logger.debug("Probed the node in " + duration + " ms with a single remote call, replacing "
+                    + probe.getReplacedCallCount() + " remote calls.");
         }
-        return jrePath;
-    }
-
-    public String getOneJarFile(final Node node, final String toolsDirectory)
-            throws IOException, InterruptedException, Exception {
-        final GetOneJarFile getOneJar = new GetOneJarFile(toolsDirectory);
-        return node.getChannel().call(getOneJar);
+        return probe;
     }
 
     /**
@@ -749,17 +983,14 @@ public class BDCommonScanStep {
      *
      */
     public boolean validateScanTargets(final IntLogger logger, final List<String> scanTargets,
-            final String workingDirectory, final VirtualChannel channel)
-            throws IOException, HubConfigurationException, InterruptedException {
+            final String workingDirectory, final NodeProbe nodeProbe) throws IOException, HubConfigurationException {
         for (final String currTarget : scanTargets) {
 
             if (currTarget.length() < workingDirectory.length() || !currTarget.startsWith(workingDirectory)) {
                 throw new HubConfigurationException("Can not scan targets outside of the workspace.");
             }
 
-            final FilePath currentTargetPath = new FilePath(channel, currTarget);
-
-            if (!currentTargetPath.exists()) {
+            if (!nodeProbe.getScanTargetExists(currTarget)) {
                 throw new IOException("Scan target could not be found : " + currTarget);
             } else {
                 logger.debug("Scan target exists at : " + currTarget);
@@ -767,25 +998,4 @@ public class BDCommonScanStep {
         }
         return true;
     }
-
-    /**
-     * @param blackDuckVersion
-     *            Version of the blackduck product, in this instance, the hub
-     * @param regId
-     *            Registration ID of the hub instance that this plugin uses
-     * @param hubHostName
-     *            Host name of the hub instance that this plugin uses
-     *
-     *            This method "phones-home" to the internal BlackDuck
-     *            Integrations server. Every time a build is kicked off,
-     */
-    public void bdPhoneHome(final String blackDuckVersion, final String regId, final String hubHostName)
-            throws IOException, PhoneHomeException, PropertiesLoaderException, ResourceException, JSONException {
-        final String thirdPartyVersion = Jenkins.getVersion().toString();
-        final String pluginVersion = PluginHelper.getPluginVersion();
-
-        final PhoneHomeClient phClient = new PhoneHomeClient();
-        phClient.callHomeIntegrations(regId, hubHostName, BlackDuckName.HUB, blackDuckVersion, ThirdPartyName.JENKINS,
-                thirdPartyVersion, pluginVersion);
-    }
 }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -35,6 +36,7 @@ import com.blackducksoftware.integration.hub.ScannerSplitStream;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.remote.FileContains;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
 
 import hudson.EnvVars;
@@ -46,6 +48,29 @@ import hudson.model.Node;
 public class JenkinsScanExecutor extends ScanExecutor {
     public static final Integer THREAD_SLEEP = 100;
 
+    /**
+     * Directory of the workspace that holds the CLI logs of every Build, in a sub directory per Build
+     *
+     */
+    public static final String LOG_ROOT_DIRECTORY_NAME = "HubScanLogs";
+
+    /**
+     * Scans of at most this many files are small enough for the fast start JVM options
+     *
+     */
+    public static final long FAST_START_MAX_FILE_COUNT = 10000;
+
+    /**
+     * JVM options that shorten the startup of the CLI JVM : only the client JIT compiler and the serial garbage
+     * collector. The client compiler gives up the peak speed of the server compiler, which a scan of at most
+     * FAST_START_MAX_FILE_COUNT files does not run long enough to reach, so they are only used for small scans and
+     * only when the CLI fast start is enabled in the global configuration, which it is not by default. Unrecognized
+     * options are ignored so the CLI still starts on JVMs that do not support them.
+     *
+     */
+    public static final List<String> FAST_START_JVM_OPTIONS = Collections.unmodifiableList(
+            Arrays.asList("-XX:+IgnoreUnrecognizedVMOptions", "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"));
+
     private final Node builtOn;
 
     private CIEnvironmentVariables variables;
@@ -54,6 +79,16 @@ public class JenkinsScanExecutor extends ScanExecutor {
 
     private final HubJenkinsLogger logger;
 
+    private String logSubDirectory;
+
+    private boolean outOfMemory;
+
+    private List<String> jvmOptions;
+
+    private String javaExec;
+
+    private boolean executablesVerified;
+
     public JenkinsScanExecutor(final HubServerInfo serverInfo, final List<String> scanTargets,
             final String buildIdentifier, final HubSupportHelper supportHelper,
             final Node builtOn, final Launcher launcher, final HubJenkinsLogger logger) {
@@ -73,18 +108,65 @@ public class JenkinsScanExecutor extends ScanExecutor {
         this.variables = variables;
     }
 
+    public String getLogSubDirectory() {
+        return logSubDirectory;
+    }
+
+    /**
+     * Places the logs and the scan status directory of this scan in a sub directory of the Build log directory. Used
+     * when several CLI processes run for the same Build so they do not write over each others files.
+     *
+     */
+    public void setLogSubDirectory(final String logSubDirectory) {
+        this.logSubDirectory = logSubDirectory;
+    }
+
+    public List<String> getJvmOptions() {
+        return jvmOptions;
+    }
+
+    /**
+     * Additional options for the JVM running the CLI, added right after the java executable
+     *
+     */
+    public void setJvmOptions(final List<String> jvmOptions) {
+        this.jvmOptions = jvmOptions;
+    }
+
+    public boolean isExecutablesVerified() {
+        return executablesVerified;
+    }
+
+    /**
+     * Set when the node probe already found the CLI and the java executable, so they are not checked again with a
+     * remote call each
+     *
+     */
+    public void setExecutablesVerified(final boolean executablesVerified) {
+        this.executablesVerified = executablesVerified;
+    }
+
+    /**
+     * True if the last CLI run failed with an OutOfMemoryError
+     *
+     */
+    public boolean isOutOfMemory() {
+        return outOfMemory;
+    }
+
     @Override
     protected boolean isConfiguredCorrectly(final String scanExec, final String oneJarPath, final String javaExec) {
         if (getLogger() == null) {
             System.out.println("Could not find a logger");
             return false;
         }
+        this.javaExec = javaExec;
         try {
 
             if (scanExec == null) {
                 getLogger().error("Please provide the Hub scan CLI.");
                 return false;
-            } else {
+            } else if (!isExecutablesVerified()) {
                 final FilePath scanExecRemote = new FilePath(builtOn.getChannel(), scanExec);
                 if (!scanExecRemote.exists()) {
                     getLogger().error("The Hub scan CLI provided does not exist.");
@@ -98,7 +180,7 @@ public class JenkinsScanExecutor extends ScanExecutor {
             if (javaExec == null) {
                 getLogger().error("Please provide the java home directory.");
                 return false;
-            } else {
+            } else if (!isExecutablesVerified()) {
                 final FilePath javaExecRemote = new FilePath(builtOn.getChannel(), javaExec);
                 if (!javaExecRemote.exists()) {
                     getLogger().error("The Java executable provided does not exist.");
@@ -122,8 +204,11 @@ public class JenkinsScanExecutor extends ScanExecutor {
     @Override
     protected String getLogDirectoryPath() throws IOException {
         FilePath logDirectory = new FilePath(builtOn.getChannel(), getWorkingDirectory());
-        logDirectory = new FilePath(logDirectory, "HubScanLogs");
+        logDirectory = new FilePath(logDirectory, LOG_ROOT_DIRECTORY_NAME);
         logDirectory = new FilePath(logDirectory, String.valueOf(getBuildIdentifier()));
+        if (StringUtils.isNotBlank(getLogSubDirectory())) {
+            logDirectory = new FilePath(logDirectory, getLogSubDirectory());
+        }
         // This log directory should never exist as a new one is created for each Build
         try {
             logDirectory.mkdirs();
@@ -147,7 +232,8 @@ public class JenkinsScanExecutor extends ScanExecutor {
     }
 
     @Override
-    protected Result executeScan(final List<String> cmd, final String logDirectoryPath) throws HubIntegrationException, InterruptedException {
+    protected Result executeScan(final List<String> scanCommand, final String logDirectoryPath) throws HubIntegrationException, InterruptedException {
+        final List<String> cmd = addJvmOptions(scanCommand);
         try {
             final FilePath logBaseDirectory = new FilePath(builtOn.getChannel(), getLogDirectoryPath());
             logBaseDirectory.mkdirs();
@@ -206,6 +292,12 @@ public class JenkinsScanExecutor extends ScanExecutor {
                 if (exitCode == 0) {
                     return Result.SUCCESS;
                 } else {
+                    outOfMemory = builtOn.getChannel().call(
+                            new FileContains(standardOutFile.getRemote(), "java.lang.OutOfMemoryError"));
+                    if (outOfMemory) {
+                        getLogger().error("The BlackDuck scan CLI ran out of memory with a heap of "
+                                + getScanMemory() + " MB.");
+                    }
                     return Result.FAILURE;
                 }
             } else {
@@ -221,6 +313,21 @@ public class JenkinsScanExecutor extends ScanExecutor {
         return Result.SUCCESS;
     }
 
+    private List<String> addJvmOptions(final List<String> scanCommand) {
+        if (jvmOptions == null || jvmOptions.isEmpty() || javaExec == null) {
+            return scanCommand;
+        }
+        final int javaIndex = scanCommand.indexOf(javaExec);
+        if (javaIndex == -1) {
+            getLogger().debug("Could not find the java executable in the scan command, not adding the JVM options.");
+            return scanCommand;
+        }
+        final List<String> cmd = new ArrayList<String>(scanCommand);
+        cmd.addAll(javaIndex + 1, jvmOptions);
+        getLogger().debug("Running the CLI JVM with the options : " + StringUtils.join(jvmOptions, " "));
+        return cmd;
+    }
+
     private int runScan(final ProcStarter ps, final List<String> cmd, final ScannerSplitStream splitStream) throws IOException, InterruptedException {
         ps.cmds(cmd);
 
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.Serializable;
+
+/**
+ * The facts about a node that do not change while the node stays connected.
+ *
+ */
+public class NodeFacts implements Serializable {
+    private static final long serialVersionUID = -1460290573640813474L;
+
+    private String hostName;
+
+    private boolean windows;
+
+    private boolean mac;
+
+    private String separator;
+
+    private String pathSeparator;
+
+    private String javaClassVersion;
+
+    private String javaHome;
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public void setHostName(final String hostName) {
+        this.hostName = hostName;
+    }
+
+    public boolean isWindows() {
+        return windows;
+    }
+
+    public void setWindows(final boolean windows) {
+        this.windows = windows;
+    }
+
+    public boolean isMac() {
+        return mac;
+    }
+
+    public void setMac(final boolean mac) {
+        this.mac = mac;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+
+    public void setSeparator(final String separator) {
+        this.separator = separator;
+    }
+
+    public String getPathSeparator() {
+        return pathSeparator;
+    }
+
+    public void setPathSeparator(final String pathSeparator) {
+        this.pathSeparator = pathSeparator;
+    }
+
+    /**
+     * The java.class.version of the JVM running the node agent
+     *
+     */
+    public String getJavaClassVersion() {
+        return javaClassVersion;
+    }
+
+    public void setJavaClassVersion(final String javaClassVersion) {
+        this.javaClassVersion = javaClassVersion;
+    }
+
+    /**
+     * The java.home of the JVM running the node agent
+     *
+     */
+    public String getJavaHome() {
+        return javaHome;
+    }
+
+    public void setJavaHome(final String javaHome) {
+        this.javaHome = javaHome;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.GetNodeFacts;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.ComputerListener;
+
+/**
+ * Caches the NodeFacts of each node for as long as the node stays connected. The facts are collected the first time a
+ * Build needs them and are dropped when the node goes offline or comes back online. They are also only used with the
+ * channel they were collected over, in case a reconnect was missed.
+ *
+ */
+public class NodeFactsCache {
+    public static final long HOST_NAME_TIMEOUT_IN_MILLISECONDS = 5000;
+
+    private static final NodeFactsCache INSTANCE = new NodeFactsCache();
+
+    private final Map<String, CachedFacts> cache = new HashMap<String, CachedFacts>();
+
+    public static NodeFactsCache getInstance() {
+        return INSTANCE;
+    }
+
+    public NodeFacts getFacts(final Node node) throws IOException, InterruptedException {
+        final VirtualChannel channel = node.getChannel();
+        if (channel == null) {
+            throw new IOException("The node " + node.getDisplayName() + " is offline.");
+        }
+        synchronized (cache) {
+            final CachedFacts cached = cache.get(node.getNodeName());
+            if (cached != null && cached.channel.get() == channel) {
+                return cached.facts;
+            }
+        }
+        final NodeFacts facts = channel.call(new GetNodeFacts(HOST_NAME_TIMEOUT_IN_MILLISECONDS));
+        synchronized (cache) {
+            cache.put(node.getNodeName(), new CachedFacts(channel, facts));
+        }
+        return facts;
+    }
+
+    public void invalidate(final String nodeName) {
+        synchronized (cache) {
+            cache.remove(nodeName);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static class CachedFacts {
+        private final WeakReference<VirtualChannel> channel;
+
+        private final NodeFacts facts;
+
+        private CachedFacts(final VirtualChannel channel, final NodeFacts facts) {
+            this.channel = new WeakReference<VirtualChannel>(channel);
+            this.facts = facts;
+        }
+    }
+
+    @Extension
+    public static class NodeFactsCacheInvalidator extends ComputerListener {
+        @Override
+        public void onOnline(final Computer computer, final TaskListener listener) {
+            getInstance().invalidate(computer.getName());
+        }
+
+        @Override
+        public void onOffline(final Computer computer) {
+            getInstance().invalidate(computer.getName());
+        }
+    }
+
+}
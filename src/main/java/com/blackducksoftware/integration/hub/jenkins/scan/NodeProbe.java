@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The facts about a node that a Build needs before starting the CLI, collected in a single remote call.
+ *
+ */
+public class NodeProbe implements Serializable {
+    private static final long serialVersionUID = 6237118914587251337L;
+
+    private boolean windows;
+
+    private final List<String> scanTargets = new ArrayList<String>();
+
+    private final List<Boolean> scanTargetsExist = new ArrayList<Boolean>();
+
+    private final List<String> errors = new ArrayList<String>();
+
+    private boolean cliExists;
+
+    private String cliPath;
+
+    private String providedJrePath;
+
+    private String oneJarPath;
+
+    private String javaExec;
+
+    private boolean javaExecExists;
+
+    private int replacedCallCount;
+
+    public boolean isWindows() {
+        return windows;
+    }
+
+    public void setWindows(final boolean windows) {
+        this.windows = windows;
+    }
+
+    /**
+     * The canonical paths of the scan targets, in the order they were provided
+     *
+     */
+    public List<String> getScanTargets() {
+        return scanTargets;
+    }
+
+    public boolean getScanTargetExists(final String scanTarget) {
+        final int index = scanTargets.indexOf(scanTarget);
+        return index != -1 && scanTargetsExist.get(index);
+    }
+
+    public void addScanTarget(final String scanTarget, final boolean exists) {
+        scanTargets.add(scanTarget);
+        scanTargetsExist.add(exists);
+    }
+
+    /**
+     * The problems found on the node that did not stop the probe
+     *
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void addError(final String error) {
+        errors.add(error);
+    }
+
+    public boolean isCliExists() {
+        return cliExists;
+    }
+
+    public void setCliExists(final boolean cliExists) {
+        this.cliExists = cliExists;
+    }
+
+    public String getCliPath() {
+        return cliPath;
+    }
+
+    public void setCliPath(final String cliPath) {
+        this.cliPath = cliPath;
+    }
+
+    public String getProvidedJrePath() {
+        return providedJrePath;
+    }
+
+    public void setProvidedJrePath(final String providedJrePath) {
+        this.providedJrePath = providedJrePath;
+    }
+
+    public String getOneJarPath() {
+        return oneJarPath;
+    }
+
+    public void setOneJarPath(final String oneJarPath) {
+        this.oneJarPath = oneJarPath;
+    }
+
+    public String getJavaExec() {
+        return javaExec;
+    }
+
+    public void setJavaExec(final String javaExec) {
+        this.javaExec = javaExec;
+    }
+
+    public boolean isJavaExecExists() {
+        return javaExecExists;
+    }
+
+    public void setJavaExecExists(final boolean javaExecExists) {
+        this.javaExecExists = javaExecExists;
+    }
+
+    /**
+     * The number of separate remote calls this probe replaced
+     *
+     */
+    public int getReplacedCallCount() {
+        return replacedCallCount;
+    }
+
+    public void addReplacedCalls(final int calls) {
+        replacedCallCount += calls;
+    }
+
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.blackducksoftware.integration.hub.ScanExecutor.Result;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.remote.MergeScanStatusDirectories;
+
+import hudson.model.Node;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Runs one CLI process per scan target, at most maxParallelScans at a time, and merges the scan status files of every
+ * target back into a single status directory.
+ *
+ */
+public class ParallelScanExecutor {
+    public static final int DEFAULT_MAX_PARALLEL_SCANS = 4;
+
+    private final Node builtOn;
+
+    private final HubJenkinsLogger logger;
+
+    private final List<String> scanTargets;
+
+    private final List<JenkinsScanExecutor> scans;
+
+    private final int maxParallelScans;
+
+    /**
+     * The scans must be in the same order as the scanTargets, one scan per target.
+     *
+     */
+    public ParallelScanExecutor(final Node builtOn, final HubJenkinsLogger logger, final List<String> scanTargets,
+            final List<JenkinsScanExecutor> scans, final int maxParallelScans) {
+        this.builtOn = builtOn;
+        this.logger = logger;
+        this.scanTargets = scanTargets;
+        this.scans = scans;
+        this.maxParallelScans = maxParallelScans;
+    }
+
+    public List<JenkinsScanExecutor> getScans() {
+        return scans;
+    }
+
+    public int getPoolSize() {
+        if (maxParallelScans <= 0) {
+            return 1;
+        }
+        return Math.min(maxParallelScans, scans.size());
+    }
+
+    /**
+     * Runs every scan and moves their status files into the scanStatusDirectory. The result is only SUCCESS if every
+     * scan was successful.
+     *
+     */
+    public Result runScans(final String scanExec, final String oneJarPath, final String javaExec,
+            final String scanStatusDirectory) throws HubIntegrationException, InterruptedException {
+        logger.info("Running " + scans.size() + " scans with up to " + getPoolSize() + " CLI processes at a time.");
+        final ExecutorService executor = Executors.newFixedThreadPool(getPoolSize(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Hub parallel scan"));
+        final List<Future<Result>> results = new ArrayList<Future<Result>>();
+        try {
+            for (final JenkinsScanExecutor scan : scans) {
+                results.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        return scan.setupAndRunScan(scanExec, oneJarPath, javaExec);
+                    }
+                }));
+            }
+            executor.shutdown();
+
+            Result mergedResult = Result.SUCCESS;
+            for (int i = 0; i < results.size(); i++) {
+                final String target = scanTargets.get(i);
+                try {
+                    final Result result = results.get(i).get();
+                    if (result != Result.SUCCESS) {
+                        logger.error("The scan of the target : " + target + " was not successful.");
+                        mergedResult = Result.FAILURE;
+                    }
+                } catch (final ExecutionException e) {
+                    logger.error("The scan of the target : " + target + " failed : " + e.getCause().getMessage(),
+                            e.getCause());
+                    mergedResult = Result.FAILURE;
+                }
+            }
+            mergeScanStatusDirectories(scanStatusDirectory);
+            return mergedResult;
+        } catch (final InterruptedException e) {
+            // Interrupting the scan threads will kill the CLI processes
+            executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    private void mergeScanStatusDirectories(final String scanStatusDirectory)
+            throws HubIntegrationException, InterruptedException {
+        final List<String> statusDirectories = new ArrayList<String>();
+        try {
+            for (final JenkinsScanExecutor scan : scans) {
+                statusDirectories.add(scan.getScanStatusDirectoryPath());
+            }
+            final int statusFiles = builtOn.getChannel()
+                    .call(new MergeScanStatusDirectories(statusDirectories, scanStatusDirectory));
+            logger.debug("Merged " + statusFiles + " scan status files into : " + scanStatusDirectory);
+        } catch (final IOException e) {
+            throw new HubIntegrationException("Could not merge the scan status directories : " + e.getMessage(), e);
+        }
+    }
+
+}
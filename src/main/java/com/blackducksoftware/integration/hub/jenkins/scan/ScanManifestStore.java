@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import hudson.Util;
+import hudson.util.AtomicFileWriter;
+
+/**
+ * Stores the manifest of the last successfully scanned content of each scan target of a Job. The manifests are kept
+ * in the Job directory and are keyed by the Hub url, the Project, the Version and the scan target, so a change to any
+ * of these will cause the target to be scanned again.
+ *
+ */
+public class ScanManifestStore {
+    public static final String MANIFEST_DIRECTORY_NAME = "hubScanManifests";
+
+    private final File manifestDirectory;
+
+    private final String hubUrl;
+
+    private final String projectName;
+
+    private final String projectVersion;
+
+    private final Gson gson = new GsonBuilder().create();
+
+    public ScanManifestStore(final File jobRootDirectory, final String hubUrl, final String projectName,
+            final String projectVersion) {
+        this.manifestDirectory = new File(jobRootDirectory, MANIFEST_DIRECTORY_NAME);
+        this.hubUrl = hubUrl;
+        this.projectName = projectName;
+        this.projectVersion = projectVersion;
+    }
+
+    public File getManifestDirectory() {
+        return manifestDirectory;
+    }
+
+    public File getManifestFile(final String scanTarget) {
+        final String key = hubUrl + "|" + projectName + "|" + projectVersion + "|" + scanTarget;
+        return new File(manifestDirectory, Util.getDigestOf(key) + ".json");
+    }
+
+    /**
+     * Returns the manifest stored for this scan target, or null if the target has not been scanned before or the
+     * stored manifest can not be read.
+     *
+     */
+    public ScanTargetManifest load(final String scanTarget) {
+        final File manifestFile = getManifestFile(scanTarget);
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        try {
+            final ScanTargetManifest manifest = gson.fromJson(FileUtils.readFileToString(manifestFile, "UTF-8"),
+                    ScanTargetManifest.class);
+            if (manifest == null || manifest.getFiles() == null || !scanTarget.equals(manifest.getScanTarget())) {
+                return null;
+            }
+            return manifest;
+        } catch (final IOException e) {
+            return null;
+        } catch (final JsonParseException e) {
+            return null;
+        }
+    }
+
+    public void save(final ScanTargetManifest manifest) throws IOException {
+        if (!manifestDirectory.exists() && !manifestDirectory.mkdirs()) {
+            throw new IOException("Could not create the directory : " + manifestDirectory.getAbsolutePath());
+        }
+        final AtomicFileWriter writer = new AtomicFileWriter(getManifestFile(manifest.getScanTarget()));
+        try {
+            gson.toJson(manifest, writer);
+            writer.commit();
+        } finally {
+            writer.abort();
+        }
+    }
+
+}
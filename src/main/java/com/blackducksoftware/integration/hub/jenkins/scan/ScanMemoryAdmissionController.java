@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import com.blackducksoftware.integration.log.IntLogger;
+
+/**
+ * Keeps track of the heap reserved by the CLI processes running on each node. A scan has to reserve its scan memory
+ * before starting the CLI and waits, in the order the scans arrived, until enough memory is free on the node. A scan
+ * that needs more memory than the capacity of the node is only admitted once nothing else is running on the node.
+ *
+ */
+public class ScanMemoryAdmissionController {
+    private static final ScanMemoryAdmissionController INSTANCE = new ScanMemoryAdmissionController();
+
+    private final Map<String, NodeMemoryPool> pools = new HashMap<String, NodeMemoryPool>();
+
+    public static ScanMemoryAdmissionController getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Blocks until the memory can be reserved on the node. A capacity of 0 or less means the node is not limited.
+     * The Reservation must be released once the CLI processes have finished.
+     *
+     */
+    public Reservation reserve(final String nodeName, final int capacityInMb, final int memoryInMb,
+            final IntLogger logger) throws InterruptedException {
+        final long start = System.currentTimeMillis();
+        if (capacityInMb <= 0) {
+            return new Reservation(this, nodeName, 0, 0);
+        }
+        synchronized (this) {
+            final NodeMemoryPool pool = getPool(nodeName);
+            final Object ticket = new Object();
+            pool.waiting.add(ticket);
+            boolean loggedWait = false;
+            try {
+                while (!pool.canAdmit(ticket, capacityInMb, memoryInMb)) {
+                    if (!loggedWait && logger != null) {
+                        logger.info("Waiting for " + memoryInMb + " MB of scan memory on this node, "
+                                + pool.reservedInMb + " of " + capacityInMb + " MB are reserved by "
+                                + pool.runningScans + " running scan(s) and " + (pool.waiting.size() - 1)
+                                + " scan(s) are waiting.");
+                        loggedWait = true;
+                    }
+                    wait();
+                }
+            } catch (final InterruptedException e) {
+                pool.waiting.remove(ticket);
+                notifyAll();
+                throw e;
+            }
+            pool.waiting.remove(ticket);
+            pool.reservedInMb += memoryInMb;
+            pool.runningScans++;
+            // The next scan in line may fit as well
+            notifyAll();
+        }
+        return new Reservation(this, nodeName, memoryInMb, System.currentTimeMillis() - start);
+    }
+
+    public synchronized int getReservedMemory(final String nodeName) {
+        final NodeMemoryPool pool = pools.get(nodeName);
+        if (pool == null) {
+            return 0;
+        }
+        return pool.reservedInMb;
+    }
+
+    public synchronized int getWaitingScans(final String nodeName) {
+        final NodeMemoryPool pool = pools.get(nodeName);
+        if (pool == null) {
+            return 0;
+        }
+        return pool.waiting.size();
+    }
+
+    private synchronized void release(final String nodeName, final int memoryInMb) {
+        final NodeMemoryPool pool = pools.get(nodeName);
+        if (pool == null) {
+            return;
+        }
+        pool.reservedInMb -= memoryInMb;
+        pool.runningScans--;
+        if (pool.runningScans <= 0 && pool.waiting.isEmpty()) {
+            pools.remove(nodeName);
+        }
+        notifyAll();
+    }
+
+    private NodeMemoryPool getPool(final String nodeName) {
+        NodeMemoryPool pool = pools.get(nodeName);
+        if (pool == null) {
+            pool = new NodeMemoryPool();
+            pools.put(nodeName, pool);
+        }
+        return pool;
+    }
+
+    private static class NodeMemoryPool {
+        private final LinkedList<Object> waiting = new LinkedList<Object>();
+
+        private int reservedInMb;
+
+        private int runningScans;
+
+        private boolean canAdmit(final Object ticket, final int capacityInMb, final int memoryInMb) {
+            if (waiting.getFirst() != ticket) {
+                return false;
+            }
+            return runningScans == 0 || reservedInMb + memoryInMb <= capacityInMb;
+        }
+    }
+
+    public static class Reservation {
+        private final ScanMemoryAdmissionController controller;
+
+        private final String nodeName;
+
+        private final int memoryInMb;
+
+        private final long waitTimeInMilliseconds;
+
+        private boolean released;
+
+        private Reservation(final ScanMemoryAdmissionController controller, final String nodeName,
+                final int memoryInMb, final long waitTimeInMilliseconds) {
+            this.controller = controller;
+            this.nodeName = nodeName;
+            this.memoryInMb = memoryInMb;
+            this.waitTimeInMilliseconds = waitTimeInMilliseconds;
+        }
+
+        public int getMemoryInMb() {
+            return memoryInMb;
+        }
+
+        public long getWaitTimeInMilliseconds() {
+            return waitTimeInMilliseconds;
+        }
+
+        public synchronized void release() {
+            if (!released && memoryInMb > 0) {
+                controller.release(nodeName, memoryInMb);
+            }
+            released = true;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import antlr.ANTLRException;
+import hudson.model.Label;
+import hudson.model.Node;
+
+/**
+ * The scan memory capacity of the nodes, configured as one "label expression=memory in MB" entry per line. The first
+ * entry whose label expression matches the node is used, a node that matches no entry is not limited.
+ *
+ */
+public class ScanMemoryCapacity {
+    private final List<String> labelExpressions = new ArrayList<String>();
+
+    private final List<Integer> capacities = new ArrayList<Integer>();
+
+    private final List<String> errors = new ArrayList<String>();
+
+    public ScanMemoryCapacity(final String configuration) {
+        if (StringUtils.isBlank(configuration)) {
+            return;
+        }
+        for (final String line : configuration.split("\\r?\\n")) {
+            if (StringUtils.isBlank(line) || line.trim().startsWith("#")) {
+                continue;
+            }
+            final int separator = line.lastIndexOf('=');
+            if (separator <= 0) {
+                errors.add("Expected label=memory but found : " + line.trim());
+                continue;
+            }
+            final String labelExpression = line.substring(0, separator).trim();
+            final String capacity = line.substring(separator + 1).trim();
+            try {
+                Label.parseExpression(labelExpression);
+            } catch (final ANTLRException e) {
+                errors.add("Invalid label expression : " + labelExpression);
+                continue;
+            }
+            try {
+                capacities.add(Integer.valueOf(capacity));
+                labelExpressions.add(labelExpression);
+            } catch (final NumberFormatException e) {
+                errors.add("The memory for the label : " + labelExpression + " is not a number : " + capacity);
+            }
+        }
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public int getEntryCount() {
+        return labelExpressions.size();
+    }
+
+    /**
+     * Returns the scan memory capacity in MB of the node, 0 if the node is not limited.
+     *
+     */
+    public int getCapacity(final Node node) {
+        for (int i = 0; i < labelExpressions.size(); i++) {
+            try {
+                if (Label.parseExpression(labelExpressions.get(i)).matches(node)) {
+                    return Math.max(0, capacities.get(i));
+                }
+            } catch (final ANTLRException e) {
+                // Already validated when the configuration was parsed
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.KeyedLocks;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import hudson.util.AtomicFileWriter;
+
+/**
+ * The heap given to the last CLI runs of a Job, with the size of what they scanned and whether they ran out of
+ * memory. Kept in the Job directory to size the CLI heap of the next Builds.
+ *
+ */
+public class ScanMemoryHistory {
+    public static final String HISTORY_FILE_NAME = "hubScanMemoryHistory.json";
+
+    public static final int MAX_RECORDS = 20;
+
+    // The Builds of a Job each create their own ScanMemoryHistory, the history file is locked across the instances
+    private static final KeyedLocks LOCKS = new KeyedLocks();
+
+    private final File historyFile;
+
+    private final Gson gson = new GsonBuilder().create();
+
+    public ScanMemoryHistory(final File jobRootDirectory) {
+        historyFile = new File(jobRootDirectory, HISTORY_FILE_NAME);
+    }
+
+    /**
+     * Returns the recorded runs, oldest first. An unreadable history is treated as empty.
+     *
+     */
+    public List<Record> getRecords() {
+        final List<Record> records = new ArrayList<Record>();
+        if (!historyFile.isFile()) {
+            return records;
+        }
+        try {
+            final Record[] storedRecords = gson.fromJson(FileUtils.readFileToString(historyFile, "UTF-8"),
+                    Record[].class);
+            if (storedRecords != null) {
+                for (final Record record : storedRecords) {
+                    if (record != null) {
+                        records.add(record);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            // start a new history
+        } catch (final JsonParseException e) {
+            // start a new history
+        }
+        return records;
+    }
+
+    public void addRecord(final Record record) throws IOException {
+        final String key = historyFile.getAbsolutePath();
+        final Object lock = LOCKS.acquire(key);
+        try {
+            synchronized (lock) {
+                final List<Record> records = getRecords();
+                records.add(record);
+                while (records.size() > MAX_RECORDS) {
+                    records.remove(0);
+                }
+                final AtomicFileWriter writer = new AtomicFileWriter(historyFile);
+                try {
+                    gson.toJson(records.toArray(new Record[records.size()]), writer);
+                    writer.commit();
+                } finally {
+                    writer.abort();
+                }
+            }
+        } finally {
+            LOCKS.release(key);
+        }
+    }
+
+    public static class Record {
+        private final int heapInMb;
+
+        private final long fileCount;
+
+        private final long byteCount;
+
+        private final boolean outOfMemory;
+
+        private final boolean successful;
+
+        public Record(final int heapInMb, final long fileCount, final long byteCount, final boolean outOfMemory,
+                final boolean successful) {
+            this.heapInMb = heapInMb;
+            this.fileCount = fileCount;
+            this.byteCount = byteCount;
+            this.outOfMemory = outOfMemory;
+            this.successful = successful;
+        }
+
+        public int getHeapInMb() {
+            return heapInMb;
+        }
+
+        public long getFileCount() {
+            return fileCount;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public boolean isOutOfMemory() {
+            return outOfMemory;
+        }
+
+        public boolean isSuccessful() {
+            return successful;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.util.List;
+
+/**
+ * Sizes the CLI heap for the "auto" scan memory. The estimate grows with the number of files and bytes to scan, is
+ * lowered to the heap that was enough for a previous scan of a similar size and raised above the heap of any
+ * previous scan of a similar size that ran out of memory. The result is capped by the free memory of the node.
+ *
+ */
+public class ScanMemorySizer {
+    public static final String AUTO_SCAN_MEMORY = "auto";
+
+    public static final int DEFAULT_SCAN_MEMORY = 4096;
+
+    public static final int MINIMUM_SCAN_MEMORY = 1024;
+
+    public static final int MAXIMUM_SCAN_MEMORY = 16384;
+
+    public static final int BASE_SCAN_MEMORY = 1024;
+
+    public static final int MB_PER_THOUSAND_FILES = 4;
+
+    public static final int MB_PER_GB_SCANNED = 32;
+
+    /**
+     * Memory left on the node for the OS and the Jenkins agent when capping the heap to the free memory.
+     *
+     */
+    public static final int NODE_MEMORY_HEADROOM = 512;
+
+    private static final long BYTES_PER_GB = 1024L * 1024L * 1024L;
+
+    private static final int ROUNDING = 256;
+
+    public static boolean isAutoScanMemory(final String scanMemory) {
+        return scanMemory != null && AUTO_SCAN_MEMORY.equalsIgnoreCase(scanMemory.trim());
+    }
+
+    public int getEstimatedScanMemory(final long fileCount, final long byteCount) {
+        final long estimate = BASE_SCAN_MEMORY + (fileCount * MB_PER_THOUSAND_FILES / 1000)
+                + (byteCount * MB_PER_GB_SCANNED / BYTES_PER_GB);
+        return clamp(estimate);
+    }
+
+    /**
+     * The smallest heap that was enough for a previous successful scan, scaled up by the number of files if there
+     * are more files to scan now. Returns -1 if no previous scan succeeded.
+     *
+     */
+    public int getSufficientScanMemory(final long fileCount, final List<ScanMemoryHistory.Record> history) {
+        long sufficient = -1;
+        for (final ScanMemoryHistory.Record record : history) {
+            if (record.isSuccessful() && !record.isOutOfMemory() && record.getHeapInMb() > 0) {
+                final long scaled = scale(record.getHeapInMb(), fileCount, record.getFileCount());
+                if (sufficient < 0 || scaled < sufficient) {
+                    sufficient = scaled;
+                }
+            }
+        }
+        return sufficient < 0 ? -1 : clamp(sufficient);
+    }
+
+    /**
+     * Half again the largest heap a previous scan ran out of memory with, scaled up by the number of files if there
+     * are more files to scan now. Returns -1 if no previous scan ran out of memory.
+     *
+     */
+    public int getOutOfMemoryScanMemory(final long fileCount, final List<ScanMemoryHistory.Record> history) {
+        long required = -1;
+        for (final ScanMemoryHistory.Record record : history) {
+            if (record.isOutOfMemory()) {
+                final long scaled = scale(record.getHeapInMb() + record.getHeapInMb() / 2, fileCount,
+                        record.getFileCount());
+                if (scaled > required) {
+                    required = scaled;
+                }
+            }
+        }
+        return required < 0 ? -1 : clamp(required);
+    }
+
+    /**
+     * Returns the heap in MB to give to the CLI. A freeMemoryInMb of -1 means the free memory of the node is unknown.
+     *
+     */
+    public int getScanMemory(final long fileCount, final long byteCount, final List<ScanMemoryHistory.Record> history,
+            final long freeMemoryInMb) {
+        int scanMemory = getEstimatedScanMemory(fileCount, byteCount);
+        final int sufficient = getSufficientScanMemory(fileCount, history);
+        if (sufficient > 0 && sufficient < scanMemory) {
+            scanMemory = sufficient;
+        }
+        final int outOfMemory = getOutOfMemoryScanMemory(fileCount, history);
+        if (outOfMemory > scanMemory) {
+            scanMemory = outOfMemory;
+        }
+        if (freeMemoryInMb >= 0) {
+            final long available = freeMemoryInMb - NODE_MEMORY_HEADROOM;
+            if (available < scanMemory) {
+                scanMemory = (int) Math.max(MINIMUM_SCAN_MEMORY, available / ROUNDING * ROUNDING);
+            }
+        }
+        return scanMemory;
+    }
+
+    private long scale(final long heapInMb, final long fileCount, final long recordedFileCount) {
+        if (recordedFileCount <= 0 || fileCount <= recordedFileCount) {
+            return heapInMb;
+        }
+        return heapInMb * fileCount / recordedFileCount;
+    }
+
+    private int clamp(final long scanMemory) {
+        final long rounded = (scanMemory + ROUNDING - 1) / ROUNDING * ROUNDING;
+        return (int) Math.min(MAXIMUM_SCAN_MEMORY, Math.max(MINIMUM_SCAN_MEMORY, rounded));
+    }
+
+}
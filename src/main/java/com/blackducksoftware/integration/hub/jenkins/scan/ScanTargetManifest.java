@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * The content of a scan target : the relative path, size, last modified time and hash of every file under the
+ * target.
+ *
+ */
+public class ScanTargetManifest implements Serializable {
+    private static final long serialVersionUID = -2364587227392829467L;
+
+    private final String scanTarget;
+
+    private final Map<String, FileEntry> files = new TreeMap<String, FileEntry>();
+
+    private int hashedFileCount;
+
+    public ScanTargetManifest(final String scanTarget) {
+        this.scanTarget = scanTarget;
+    }
+
+    public String getScanTarget() {
+        return scanTarget;
+    }
+
+    public Map<String, FileEntry> getFiles() {
+        return files;
+    }
+
+    public FileEntry getFile(final String relativePath) {
+        return files.get(relativePath);
+    }
+
+    public void addFile(final String relativePath, final FileEntry entry) {
+        files.put(relativePath, entry);
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public long getTotalSize() {
+        long totalSize = 0;
+        for (final FileEntry entry : files.values()) {
+            totalSize += entry.getSize();
+        }
+        return totalSize;
+    }
+
+    /**
+     * The number of files that had to be hashed because they were new or changed since the previous manifest
+     *
+     */
+    public int getHashedFileCount() {
+        return hashedFileCount;
+    }
+
+    public void setHashedFileCount(final int hashedFileCount) {
+        this.hashedFileCount = hashedFileCount;
+    }
+
+    /**
+     * Two manifests have the same content if they contain the same files with the same sizes and hashes. The last
+     * modified time is only used to decide which files need to be hashed again.
+     *
+     */
+    public boolean hasSameContent(final ScanTargetManifest other) {
+        if (other == null || other.getFileCount() != getFileCount()) {
+            return false;
+        }
+        for (final Entry<String, FileEntry> file : files.entrySet()) {
+            final FileEntry otherEntry = other.getFile(file.getKey());
+            if (otherEntry == null || otherEntry.getSize() != file.getValue().getSize()
+                    || otherEntry.getHash() == null || !otherEntry.getHash().equals(file.getValue().getHash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static class FileEntry implements Serializable {
+        private static final long serialVersionUID = 5718937325781963419L;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        public FileEntry(final long size, final long lastModified, final String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+    }
+
+}
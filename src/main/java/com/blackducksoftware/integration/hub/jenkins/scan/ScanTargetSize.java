@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import java.io.Serializable;
+
+/**
+ * The number of files and bytes of the scan targets of a Build, in total and for the largest target.
+ *
+ */
+public class ScanTargetSize implements Serializable {
+    private static final long serialVersionUID = -4102761846226390474L;
+
+    private long fileCount;
+
+    private long byteCount;
+
+    private long largestTargetFileCount;
+
+    private long largestTargetByteCount;
+
+    public void addTarget(final long targetFileCount, final long targetByteCount) {
+        fileCount += targetFileCount;
+        byteCount += targetByteCount;
+        if (targetFileCount > largestTargetFileCount) {
+            largestTargetFileCount = targetFileCount;
+            largestTargetByteCount = targetByteCount;
+        }
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public long getLargestTargetFileCount() {
+        return largestTargetFileCount;
+    }
+
+    public long getLargestTargetByteCount() {
+        return largestTargetByteCount;
+    }
+
+}
@@ -22,22 +22,39 @@
 package com.blackducksoftware.integration.hub.jenkins.workflow;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.servlet.ServletException;
 
 import org.jenkinsci.plugins.workflow.steps.AbstractStepDescriptorImpl;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
 import org.jenkinsci.plugins.workflow.steps.AbstractStepImpl;
-import org.jenkinsci.plugins.workflow.steps.AbstractSynchronousNonBlockingStepExecution;
 import org.jenkinsci.plugins.workflow.steps.StepContextParameter;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 
+import com.blackducksoftware.integration.hub.HubIntRestService;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
 import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubScanFinishedAction;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Callback;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Registration;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomTimeHistory;
+import com.blackducksoftware.integration.hub.jenkins.bom.RemoteHubEventPolling;
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
 import com.blackducksoftware.integration.hub.jenkins.failure.HubCommonFailureStep;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
 
 import hudson.EnvVars;
 import hudson.Extension;
@@ -46,7 +63,9 @@ import hudson.model.Node;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.FormValidation;
+import hudson.util.NamingThreadFactory;
 
 public class HubFailureConditionWorkflowStep extends AbstractStepImpl {
 
@@ -90,61 +109,215 @@ public class HubFailureConditionWorkflowStep extends AbstractStepImpl {
         }
     }
 
-    public static final class Execution extends AbstractSynchronousNonBlockingStepExecution<Void> {
+    /**
+     * Checks the failure conditions without holding a thread while the BOM is updated. The scans that the BOM is
+     * waiting on are registered with the BomCompletionPoller, and the policy status is checked once they have
+     * finished. The wait is saved with the Pipeline, so that a restart resumes the wait instead of starting it over.
+     *
+     */
+    public static final class Execution extends AbstractStepExecutionImpl {
 
         private static final long serialVersionUID = 1L;
 
+        private static final ExecutorService EXECUTOR = Executors
+                .newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), "Hub failure conditions"));
+
         @Inject
         private transient HubFailureConditionWorkflowStep failureConditionStep;
 
         @StepContextParameter
-        transient TaskListener listener;
+        private transient Computer computer;
 
-        @StepContextParameter
-        transient EnvVars envVars;
+        private boolean failBuildForPolicyViolations;
 
-        @StepContextParameter
-        private transient Run run;
+        private ArrayList<String> pendingScans;
 
-        @StepContextParameter
-        private transient Computer computer;
+        private long bomWaitStartedAt;
+
+        private long bomWaitTimeout;
+
+        private transient volatile Registration registration;
+
+        private transient volatile Future<?> task;
 
         @Override
-        protected Void run() {
-            final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
-            try {
-                final Node node = computer.getNode();
+        public boolean start() throws Exception {
+            failBuildForPolicyViolations = failureConditionStep.getFailBuildForPolicyViolations();
+            final Node node = computer.getNode();
+            submit(new Runnable() {
+                @Override
+                public void run() {
+                    checkBeforeBomWait(node);
+                }
+            });
+            return false;
+        }
 
-                final HubCommonFailureStep commonFailureStep = new HubCommonFailureStep(
-                        failureConditionStep.getFailBuildForPolicyViolations());
+        @Override
+        public void stop(final Throwable cause) throws Exception {
+            if (registration != null) {
+                BomCompletionPoller.getInstance().cancel(registration);
+            }
+            if (task != null) {
+                task.cancel(true);
+            }
+            getContext().onFailure(cause);
+        }
 
-                if (run.getResult() != Result.SUCCESS) {
-                    logger.error("The Build did not run sucessfully, will not check the Hub Failure Conditions.");
-                    return null;
+        @Override
+        public void onResume() {
+            super.onResume();
+            submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (pendingScans == null) {
+                        // Jenkins was restarted before the wait started, so the step is started over
+                        try {
+                            checkBeforeBomWait(getContext().get(Computer.class).getNode());
+                        } catch (final Exception e) {
+                            getContext().onFailure(e);
+                        }
+                    } else {
+                        registerBomWait();
+                    }
                 }
-                if (run.getAction(HubScanFinishedAction.class) == null) {
-                    logger.error("The Hub scan must be configured to run before the Failure Conditions.");
+            });
+        }
+
+        private void submit(final Runnable runnable) {
+            task = EXECUTOR.submit(runnable);
+        }
+
+        private void checkBeforeBomWait(final Node node) {
+            try {
+                final Run run = getContext().get(Run.class);
+                final TaskListener listener = getContext().get(TaskListener.class);
+                final EnvVars envVars = getContext().get(EnvVars.class);
+                final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+                try {
+                    final HubCommonFailureStep commonFailureStep = new HubCommonFailureStep(
+                            failBuildForPolicyViolations);
+
+                    if (run.getResult() != Result.SUCCESS) {
+                        logger.error("The Build did not run sucessfully, will not check the Hub Failure Conditions.");
+                        getContext().onSuccess(null);
+                        return;
+                    }
+                    if (run.getAction(HubScanFinishedAction.class) == null) {
+                        logger.error("The Hub scan must be configured to run before the Failure Conditions.");
+                        run.setResult(Result.UNSTABLE);
+                        getContext().onSuccess(null);
+                        return;
+                    }
+                    final BomUpToDateAction bomUpToDateAction = run.getAction(BomUpToDateAction.class);
+                    if (bomUpToDateAction == null) {
+                        logger.error(
+                                "Could not find the BomUpToDateAction in the Hub Failure Conditions. Make sure the Hub scan was run before the Failure Conditions.");
+                        run.setResult(Result.UNSTABLE);
+                        getContext().onSuccess(null);
+                        return;
+                    }
+                    if (bomUpToDateAction.isDryRun()) {
+                        logger.warn("Will not run the Failure conditions because this was a dry run scan.");
+                        getContext().onSuccess(null);
+                        return;
+                    }
+                    final List<String> scanSummaryHrefs = commonFailureStep.getPendingScans(node, envVars, logger,
+                            bomUpToDateAction);
+                    if (scanSummaryHrefs == null || scanSummaryHrefs.isEmpty()) {
+                        // Nothing to wait for, or a Hub without scan status files that can only be waited on from
+                        // this thread
+                        commonFailureStep.checkFailureConditions(run, node, envVars, logger, listener,
+                                bomUpToDateAction);
+                        getContext().onSuccess(null);
+                        return;
+                    }
+                    pendingScans = new ArrayList<String>(scanSummaryHrefs);
+                    bomWaitStartedAt = System.currentTimeMillis();
+                    bomWaitTimeout = bomUpToDateAction.getMaxWaitTime();
+                    getContext().saveState();
+                } catch (final HubUnavailableException e) {
+                    BuildHelper.handleHubUnavailable(run, logger, HubServerInfoSingleton.getInstance().getServerInfo(),
+                            e);
+                    getContext().onSuccess(null);
+                    return;
+                } catch (final Exception e) {
+                    logger.error(e);
                     run.setResult(Result.UNSTABLE);
-                    return null;
+                    getContext().onSuccess(null);
+                    return;
                 }
-                final BomUpToDateAction bomUpToDateAction = run.getAction(BomUpToDateAction.class);
-                if (bomUpToDateAction == null) {
-                    logger.error(
-                            "Could not find the BomUpToDateAction in the Hub Failure Conditions. Make sure the Hub scan was run before the Failure Conditions.");
+                registerBomWait();
+            } catch (final Exception e) {
+                getContext().onFailure(e);
+            }
+        }
+
+        private void registerBomWait() {
+            try {
+                final Run run = getContext().get(Run.class);
+                final HubJenkinsLogger logger = new HubJenkinsLogger(getContext().get(TaskListener.class));
+                try {
+                    final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+                    final HubIntRestService restService = BuildHelper.getRestService(logger,
+                            serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(),
+                            serverInfo.getTimeout());
+                    final RemoteHubEventPolling hubEventPolling = new RemoteHubEventPolling(restService, null);
+                    hubEventPolling.setBomTimeHistory(new BomTimeHistory(run.getParent().getRootDir()));
+                    logger.info("Waiting for the Bom to be updated by " + pendingScans.size() + " scans.");
+                    registration = hubEventPolling.registerBomWait(pendingScans, bomWaitStartedAt + bomWaitTimeout,
+                            new Callback() {
+                                @Override
+                                public void onDone(final Registration doneRegistration) {
+                                    submit(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            checkAfterBomWait(hubEventPolling, doneRegistration);
+                                        }
+                                    });
+                                }
+                            });
+                } catch (final HubUnavailableException e) {
+                    BuildHelper.handleHubUnavailable(run, logger, HubServerInfoSingleton.getInstance().getServerInfo(),
+                            e);
+                    getContext().onSuccess(null);
+                } catch (final Exception e) {
+                    logger.error(e);
                     run.setResult(Result.UNSTABLE);
-                    return null;
+                    getContext().onSuccess(null);
                 }
-                if (bomUpToDateAction.isDryRun()) {
-                    logger.warn("Will not run the Failure conditions because this was a dry run scan.");
-                    return null;
+            } catch (final Exception e) {
+                getContext().onFailure(e);
+            }
+        }
+
+        private void checkAfterBomWait(final RemoteHubEventPolling hubEventPolling,
+                final Registration doneRegistration) {
+            try {
+                final Run run = getContext().get(Run.class);
+                final TaskListener listener = getContext().get(TaskListener.class);
+                final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+                try {
+                    final BomUpToDateAction bomUpToDateAction = run.getAction(BomUpToDateAction.class);
+                    hubEventPolling.checkBomUpdated(logger, doneRegistration, bomWaitStartedAt, bomWaitTimeout);
+                    bomUpToDateAction.setHasBomBeenUdpated(true);
+                    final HubCommonFailureStep commonFailureStep = new HubCommonFailureStep(
+                            failBuildForPolicyViolations);
+                    commonFailureStep.checkFailureConditions(run, null, getContext().get(EnvVars.class), logger,
+                            listener, bomUpToDateAction);
+                } catch (final HubIntegrationException e) {
+                    HubCircuitBreaker.getInstance()
+                            .recordFailure(HubServerInfoSingleton.getInstance().getServerInfo().getServerUrl(), e);
+                    logger.error(e.getMessage(), e);
+                    run.setResult(Result.UNSTABLE);
+                } catch (final Exception e) {
+                    logger.error(e);
+                    run.setResult(Result.UNSTABLE);
                 }
-                commonFailureStep.checkFailureConditions(run, node, envVars, logger, listener,
-                        bomUpToDateAction);
+                getContext().onSuccess(null);
             } catch (final Exception e) {
-                logger.error(e);
-                run.setResult(Result.UNSTABLE);
+                getContext().onFailure(e);
             }
-            return null;
         }
 
     }
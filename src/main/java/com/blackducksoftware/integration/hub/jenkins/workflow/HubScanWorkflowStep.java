@@ -32,6 +32,7 @@ import org.jenkinsci.plugins.workflow.steps.AbstractStepImpl;
 import org.jenkinsci.plugins.workflow.steps.AbstractSynchronousNonBlockingStepExecution;
 import org.jenkinsci.plugins.workflow.steps.StepContextParameter;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
@@ -40,9 +41,10 @@ import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
 import com.blackducksoftware.integration.hub.jenkins.ScanJobs;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.HubConfigurationException;
-import com.blackducksoftware.integration.hub.jenkins.remote.GetSystemProperty;
 import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonDescriptorUtil;
 import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonScanStep;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFactsCache;
 
 import hudson.EnvVars;
 import hudson.Extension;
@@ -80,6 +82,10 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
 
     private Boolean verbose;
 
+    private boolean parallelScans;
+
+    private boolean incrementalScan;
+
     @DataBoundConstructor
     public HubScanWorkflowStep(final ScanJobs[] scans, final String hubProjectName, final String hubProjectVersion,
             final String hubVersionPhase, final String hubVersionDist, final String scanMemory,
@@ -142,6 +148,24 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
         return dryRun;
     }
 
+    @DataBoundSetter
+    public void setParallelScans(final boolean parallelScans) {
+        this.parallelScans = parallelScans;
+    }
+
+    @DataBoundSetter
+    public void setIncrementalScan(final boolean incrementalScan) {
+        this.incrementalScan = incrementalScan;
+    }
+
+    public boolean isParallelScans() {
+        return parallelScans;
+    }
+
+    public boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+
     @Override
     public HubScanWorkflowStepDescriptor getDescriptor() {
         return (HubScanWorkflowStepDescriptor) super.getDescriptor();
@@ -289,7 +313,8 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
                         hubScanStep.getHubProjectName(), hubScanStep.getHubProjectVersion(),
                         hubScanStep.getHubVersionPhase(), hubScanStep.getHubVersionDist(), hubScanStep.getScanMemory(),
                         hubScanStep.getShouldGenerateHubReport(), hubScanStep.getBomUpdateMaxiumWaitTime(),
-                        hubScanStep.isDryRun(), hubScanStep.isVerbose());
+                        hubScanStep.isDryRun(), hubScanStep.isVerbose(), hubScanStep.isParallelScans(),
+                        hubScanStep.isIncrementalScan());
 
                 final JDK jdk = determineJava(logger, node, envVars);
                 final FilePath javaHome = new FilePath(node.getChannel(), jdk.getHome());
@@ -325,12 +350,11 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
             } else {
                 logger.info("Getting Jdk on node  : " + builtOn.getNodeName());
 
-                final String byteCodeVersion = builtOn.getChannel().call(new GetSystemProperty("java.class.version"));
-                final Double majorVersion = Double.valueOf(byteCodeVersion);
+                final NodeFacts nodeFacts = NodeFactsCache.getInstance().getFacts(builtOn);
+                final Double majorVersion = Double.valueOf(nodeFacts.getJavaClassVersion());
                 if (majorVersion >= 51.0) {
                     // Java 7 bytecode
-                    final String javaHome = builtOn.getChannel().call(new GetSystemProperty("java.home"));
-                    javaHomeTemp = new JDK("Java running slave agent", javaHome);
+                    javaHomeTemp = new JDK("Java running slave agent", nodeFacts.getJavaHome());
                 }
             }
             if (javaHomeTemp != null && javaHomeTemp.getHome() != null) {
@@ -19,10 +19,6 @@
  * specific language governing permissions and limitations
  * under the License.
  *******************************************************************************/
-var filteredSecurityClassName = " rowFilteredSecurity";
-var filteredLicenseClassName = " rowFilteredLicense";
-var filteredOperationalClassName = " rowFilteredOperational";
-
 var tableId = "hubBomReport";
 
 var policyViolationColumnNum = 0;
@@ -32,6 +28,16 @@ var lowSecurityColumnNum = 6;
 var licenseRiskColumnNum = 7;
 var operationRiskColumnNum = 8;
 
+// set by the report page to the url of the bomEntries endpoint of the report
+var bomEntriesUrl;
+var bomEntriesPageSize = 100;
+var bomEntriesLoaded = 0;
+var bomEntriesRequest = 0;
+var bomEntriesSort = null;
+var bomEntriesOrder = "asc";
+var bomEntriesFilters = {};
+var bomEntriesTextFilterTimeout = null;
+
 function adjustWidth(object) {
 	var percentageSpan = object.getElementsByTagName("SPAN")[0];
 	var percent = percentageSpan.innerHTML;
@@ -40,27 +46,6 @@ function adjustWidth(object) {
 
 }
 
-function adjustTable() {
-	var riskReportTable = document.getElementById(tableId).tBodies[0];
-	var odd = true;
-	for (var i = 0; i < riskReportTable.rows.length; i++) {
-		if (riskReportTable.rows[i].className.indexOf(filteredSecurityClassName) != -1) {
-			continue;
-		}
-		if (riskReportTable.rows[i].className.indexOf(filteredLicenseClassName) != -1) {
-			continue;
-		}
-		if (riskReportTable.rows[i].className.indexOf(filteredOperationalClassName) != -1) {
-			continue;
-		}
-		adjustTableRow(riskReportTable.rows[i], odd);
-		adjustSecurityRisks(riskReportTable.rows[i]);
-		adjustOtherRisks(riskReportTable.rows[i],licenseRiskColumnNum);
-		adjustOtherRisks(riskReportTable.rows[i],operationRiskColumnNum);
-		odd = !odd;
-	}
-}
-
 function adjustTableRow(row, odd) {
 	var className = row.className;
 
@@ -140,146 +125,160 @@ function adjustOtherRisks(row, riskColumnNum) {
 	}
 }
 
+function reloadBomEntries() {
+	var riskReportTable = document.getElementById(tableId).tBodies[0];
+	while (riskReportTable.rows.length > 0) {
+		riskReportTable.deleteRow(0);
+	}
+	bomEntriesLoaded = 0;
+	loadBomEntries();
+}
+
+function loadBomEntries() {
+	var query = "start=" + bomEntriesLoaded + "&pageSize=" + bomEntriesPageSize;
+	if (bomEntriesSort) {
+		query += "&sort=" + encodeURIComponent(bomEntriesSort) + "&order=" + bomEntriesOrder;
+	}
+	for (var filter in bomEntriesFilters) {
+		if (bomEntriesFilters[filter]) {
+			query += "&" + filter + "=" + encodeURIComponent(bomEntriesFilters[filter]);
+		}
+	}
+	// only the response of the latest request is rendered, a sort or a filter replaces the rows being loaded
+	var requestNumber = ++bomEntriesRequest;
+	var request = new XMLHttpRequest();
+	request.open("GET", bomEntriesUrl + "?" + query, true);
+	request.onreadystatechange = function() {
+		if (request.readyState == 4 && request.status == 200 && requestNumber == bomEntriesRequest) {
+			renderBomEntries(JSON.parse(request.responseText));
+		}
+	};
+	request.send();
+}
+
+function renderBomEntries(page) {
+	var riskReportTable = document.getElementById(tableId).tBodies[0];
+	for (var i = 0; i < page.entries.length; i++) {
+		var entry = page.entries[i];
+		var row = riskReportTable.insertRow(-1);
+
+		var policyCell = addBomEntryCell(row, "evenPadding violation", null);
+		var policyIcon = document.createElement("i");
+		policyIcon.className = "fa fa-ban";
+		policyCell.appendChild(policyIcon);
+		var policyStatus = document.createElement("div");
+		policyStatus.appendChild(document.createTextNode(entry.policyStatus));
+		policyCell.appendChild(policyStatus);
 
+		addBomEntryLinkCell(row, entry.name, entry.componentUrl);
+		addBomEntryLinkCell(row, entry.version, entry.versionUrl);
+		var licenseCell = addBomEntryCell(row, "licenseColumn evenPadding", entry.license);
+		licenseCell.title = entry.license;
 
-function filterTableByVulnerabilityRisk(risk) {
-	filterTableByRisk(risk, 'highSecurityRiskLabel', 'mediumSecurityRiskLabel', 'lowSecurityRiskLabel', 'noneSecurityRiskLabel', filteredSecurityClassName);
+		addBomEntryRiskCell(row, entry.vulnerabilityHigh);
+		addBomEntryRiskCell(row, entry.vulnerabilityMedium);
+		addBomEntryRiskCell(row, entry.vulnerabilityLow);
+		addBomEntryRiskCell(row, entry.licenseRisk);
+		addBomEntryRiskCell(row, entry.operationalRisk);
+
+		var odd = riskReportTable.rows.length % 2 == 1;
+		adjustTableRow(row, odd);
+		adjustSecurityRisks(row);
+		adjustOtherRisks(row, licenseRiskColumnNum);
+		adjustOtherRisks(row, operationRiskColumnNum);
+	}
+	bomEntriesLoaded += page.entries.length;
+
+	var shownLabel = document.getElementById("bomEntriesShown");
+	shownLabel.innerHTML = bomEntriesLoaded + " / " + page.filteredCount;
+	var moreButton = document.getElementById("bomEntriesMore");
+	moreButton.style.display = bomEntriesLoaded < page.filteredCount ? "" : "none";
 }
 
-function filterTableByLicenseRisk(risk) {
-	filterTableByRisk(risk, 'highLicenseRiskLabel', 'mediumLicenseRiskLabel', 'lowLicenseRiskLabel', 'noneLicenseRiskLabel', filteredLicenseClassName);
+function addBomEntryCell(row, className, text) {
+	var cell = row.insertCell(-1);
+	cell.className = className;
+	if (text != null) {
+		cell.appendChild(document.createTextNode(text));
+	}
+	return cell;
 }
 
-function filterTableByOperationalRisk(risk) {
-	filterTableByRisk(risk, 'highOperationalRiskLabel', 'mediumOperationalRiskLabel', 'lowOperationalRiskLabel', 'noneOperationalRiskLabel', filteredOperationalClassName);
+function addBomEntryLinkCell(row, text, url) {
+	var cell = addBomEntryCell(row, "clickable componentColumn evenPadding", text);
+	cell.onclick = function() {
+		window.open(url, '_blank');
+	};
+	return cell;
 }
 
-function filterTableByRisk(risk, highRiskId, mediumRiskId, lowRiskId, noneRiskId, filterClassName) {
-	if (removeFilter(highRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(mediumRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(lowRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(noneRiskId, risk, filterClassName)) {
-		return;
-	}
-	risk.className += " filterSelected";
-	filterTable(document.getElementById(tableId).tBodies[0], risk, false, filterClassName);
-	adjustTable();
+function addBomEntryRiskCell(row, risk) {
+	var cell = addBomEntryCell(row, "riskColumn", null);
+	var riskCount = document.createElement("div");
+	riskCount.className = "risk-span riskColumn risk-count evenPadding";
+	riskCount.appendChild(document.createTextNode(risk));
+	cell.appendChild(riskCount);
+	return cell;
 }
 
-function removeFilter(id, currRisk, filterClassName) {
-	var riskLabel = document.getElementById(id);
-	if (riskLabel.className.indexOf(" filterSelected") != -1) {
-		filterTable(document.getElementById(tableId).tBodies[0], null, true, filterClassName);
-		document.getElementById(id).className = document.getElementById(id).className
-		.replace(' filterSelected', '');
-		
-		adjustTable();
-		if(id == currRisk.id){
-			return true;
-		}
+function sortBomEntries(column) {
+	if (bomEntriesSort == column) {
+		bomEntriesOrder = bomEntriesOrder == "asc" ? "desc" : "asc";
+	} else {
+		bomEntriesSort = column;
+		bomEntriesOrder = "asc";
 	}
-	
+	reloadBomEntries();
 }
 
-function filterTable(riskReportTable, riskToFilter, shouldRemoveFilter, filterClassName) {
-	var odd = true;
-	for (var i = 0; i < riskReportTable.rows.length; i++) {
-		if (shouldRemoveFilter) {
-			removeFilterFromRow(riskReportTable.rows[i], filterClassName);
-		} else {
-			if(filterClassName == filteredSecurityClassName){
-				filterRowBySecurity(riskReportTable.rows[i], riskToFilter, filterClassName);
-			} else if(filterClassName == filteredLicenseClassName){
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter, filterClassName, licenseRiskColumnNum);
-			} else if(filterClassName == filteredOperationalClassName){
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter, filterClassName, operationRiskColumnNum);
-			}
-		}
-		adjustTableRow(riskReportTable.rows[i], odd);
-		odd = !odd;
+function filterBomEntriesByText() {
+	// wait for the user to stop typing before requesting the entries again
+	if (bomEntriesTextFilterTimeout) {
+		clearTimeout(bomEntriesTextFilterTimeout);
 	}
+	bomEntriesTextFilterTimeout = setTimeout(function() {
+		bomEntriesTextFilterTimeout = null;
+		bomEntriesFilters["name"] = document.getElementById("bomEntryNameFilter").value;
+		bomEntriesFilters["license"] = document.getElementById("bomEntryLicenseFilter").value;
+		reloadBomEntries();
+	}, 300);
 }
 
-function filterRowBySecurity(row, riskToFilter,filterClassName) {
-	if (riskToFilter.id.indexOf("none") != -1) {
-		// only show the rows that have no security risks
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML != 0 || row.cells[mediumSecurityColumnNum].children[0].innerHTML != 0
-				|| row.cells[lowSecurityColumnNum].children[0].innerHTML != 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	} else if (riskToFilter.id.indexOf("high") > -1) {
-		// only show the rows that have high security risks
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	}else if (riskToFilter.id.indexOf("medium") > -1) {
-		// only show the rows that have medium security risks without high risks
-		// if the component has a high security risk then it is not included in the medium risk components
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML != 0 || row.cells[mediumSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	} else if (riskToFilter.id.indexOf("low") > -1) {
-		// only show the rows that have low security risks without high or medium risks
-		// if the component has a high or medium security risk then it is not included in the low risk components
-		if ((row.cells[highSecurityColumnNum].children[0].innerHTML != 0 && row.cells[mediumSecurityColumnNum].children[0].innerHTML != 0)
-				|| row.cells[lowSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	}
+function filterTableByVulnerabilityRisk(risk) {
+	filterTableByRisk(risk, 'vulnerabilityRisk', 'highSecurityRiskLabel', 'mediumSecurityRiskLabel', 'lowSecurityRiskLabel', 'noneSecurityRiskLabel');
 }
 
-function filterRowByRisk(row, filterClassName){
-		if (row.className.indexOf(filterClassName) == -1) {
-			row.className += filterClassName;
-		}
+function filterTableByLicenseRisk(risk) {
+	filterTableByRisk(risk, 'licenseRisk', 'highLicenseRiskLabel', 'mediumLicenseRiskLabel', 'lowLicenseRiskLabel', 'noneLicenseRiskLabel');
 }
 
-function filterRowByOtherRisk(row, riskToFilter,filterClassName, riskColumnNum) {
-	if (riskToFilter.id.indexOf("none") != -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("H") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("M") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("L") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	} else if (riskToFilter.id.indexOf("high") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("H") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	}else if (riskToFilter.id.indexOf("medium") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("M") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	} else if (riskToFilter.id.indexOf("low") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("L") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
+function filterTableByOperationalRisk(risk) {
+	filterTableByRisk(risk, 'operationalRisk', 'highOperationalRiskLabel', 'mediumOperationalRiskLabel', 'lowOperationalRiskLabel', 'noneOperationalRiskLabel');
+}
+
+function filterTableByRisk(risk, filterName, highRiskId, mediumRiskId, lowRiskId, noneRiskId) {
+	var alreadySelected = risk.className.indexOf(" filterSelected") != -1;
+	var riskIds = [ highRiskId, mediumRiskId, lowRiskId, noneRiskId ];
+	for (var i = 0; i < riskIds.length; i++) {
+		var riskLabel = document.getElementById(riskIds[i]);
+		riskLabel.className = riskLabel.className.replace(' filterSelected', '');
+	}
+	if (alreadySelected) {
+		bomEntriesFilters[filterName] = null;
+	} else {
+		risk.className += " filterSelected";
+		bomEntriesFilters[filterName] = getRiskLevel(risk.id);
 	}
+	reloadBomEntries();
 }
 
-function removeFilterFromRow(row, filterClassName) {
-	if (row.className.indexOf(filterClassName) != -1) {
-		row.className = row.className.replace(filterClassName, "");
+function getRiskLevel(riskId) {
+	if (riskId.indexOf("high") == 0) {
+		return "high";
+	} else if (riskId.indexOf("medium") == 0) {
+		return "medium";
+	} else if (riskId.indexOf("low") == 0) {
+		return "low";
 	}
+	return "none";
 }
@@ -40,4 +40,4 @@ adjustWidth(document.getElementById("mediumOperationalRiskBar"));
 adjustWidth(document.getElementById("lowOperationalRiskBar"));
 adjustWidth(document.getElementById("noOperationalRiskBar"));
 
-adjustTable();
+loadBomEntries();
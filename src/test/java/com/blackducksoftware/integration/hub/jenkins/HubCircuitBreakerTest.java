@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.junit.Test;
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+
+import com.blackducksoftware.integration.hub.jenkins.exceptions.HubUnavailableException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubCircuitBreaker.State;
+
+public class HubCircuitBreakerTest {
+    private static final String HUB_URL = "http://hub";
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() throws Exception {
+        final HubCircuitBreaker circuitBreaker = new HubCircuitBreaker();
+        for (int i = 1; i < HubCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertTrue(circuitBreaker.recordFailure(HUB_URL, new ConnectException("Connection refused"), 1000));
+            circuitBreaker.checkAvailable(HUB_URL, 1000);
+        }
+        circuitBreaker.recordFailure(HUB_URL, new ConnectException("Connection refused"), 1000);
+        assertEquals(State.OPEN, circuitBreaker.getState(HUB_URL));
+        assertUnavailable(circuitBreaker, 1000 + HubCircuitBreaker.OPEN_DURATION - 1);
+
+        // Other Hub servers are not affected
+        circuitBreaker.checkAvailable("http://other", 1000);
+    }
+
+    @Test
+    public void testSuccessResetsFailures() throws Exception {
+        final HubCircuitBreaker circuitBreaker = new HubCircuitBreaker();
+        for (int i = 1; i < HubCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            circuitBreaker.recordFailure(HUB_URL, new SocketTimeoutException(), 1000);
+        }
+        circuitBreaker.recordSuccess(HUB_URL);
+        circuitBreaker.recordFailure(HUB_URL, new SocketTimeoutException(), 1000);
+        assertEquals(State.CLOSED, circuitBreaker.getState(HUB_URL));
+    }
+
+    @Test
+    public void testHalfOpenProbe() throws Exception {
+        final HubCircuitBreaker circuitBreaker = new HubCircuitBreaker();
+        for (int i = 0; i < HubCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            circuitBreaker.recordFailure(HUB_URL, new ConnectException(), 1000);
+        }
+        final long probeTime = 1000 + HubCircuitBreaker.OPEN_DURATION;
+        circuitBreaker.checkAvailable(HUB_URL, probeTime);
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState(HUB_URL));
+        // The probing thread can make more requests
+        circuitBreaker.checkAvailable(HUB_URL, probeTime);
+
+        circuitBreaker.recordFailure(HUB_URL, new ConnectException(), probeTime);
+        assertEquals(State.OPEN, circuitBreaker.getState(HUB_URL));
+        assertUnavailable(circuitBreaker, probeTime + 1);
+
+        circuitBreaker.checkAvailable(HUB_URL, probeTime + HubCircuitBreaker.OPEN_DURATION);
+        circuitBreaker.recordSuccess(HUB_URL);
+        assertEquals(State.CLOSED, circuitBreaker.getState(HUB_URL));
+    }
+
+    @Test
+    public void testIsOutage() {
+        assertTrue(HubCircuitBreaker.isOutage(new ConnectException()));
+        assertTrue(HubCircuitBreaker.isOutage(new IllegalStateException(new SocketTimeoutException())));
+        assertTrue(HubCircuitBreaker.isOutage(new ResourceException(Status.SERVER_ERROR_SERVICE_UNAVAILABLE)));
+        assertTrue(HubCircuitBreaker.isOutage(new ResourceException(Status.CONNECTOR_ERROR_CONNECTION)));
+        assertFalse(HubCircuitBreaker.isOutage(new ResourceException(Status.CLIENT_ERROR_NOT_FOUND)));
+        assertFalse(HubCircuitBreaker.isOutage(new FileNotFoundException()));
+        assertFalse(HubCircuitBreaker.isOutage(new HubUnavailableException("open")));
+        assertFalse(HubCircuitBreaker.isOutage(null));
+    }
+
+    private void assertUnavailable(final HubCircuitBreaker circuitBreaker, final long currentTime) {
+        try {
+            circuitBreaker.checkAvailable(HUB_URL, currentTime);
+            fail("The Hub should be unavailable");
+        } catch (final HubUnavailableException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(HUB_URL));
+        }
+    }
+
+}
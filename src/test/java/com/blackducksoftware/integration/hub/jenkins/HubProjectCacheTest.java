@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubProjectCache;
+
+public class HubProjectCacheTest {
+
+    @Test
+    public void testConcurrentResolutionsResolveOnce() throws Exception {
+        final HubProjectCache cache = new HubProjectCache();
+        final AtomicInteger resolveCount = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> resolver = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                resolveCount.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return "version";
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return cache.resolve("key", resolver);
+                    }
+                }));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (final Future<String> result : results) {
+                assertEquals("version", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, resolveCount.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpiredResolution() throws Exception {
+        final HubProjectCache cache = new HubProjectCache();
+        final AtomicInteger resolveCount = new AtomicInteger();
+        final Callable<String> resolver = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "project" + resolveCount.incrementAndGet();
+            }
+        };
+        assertEquals("project1", cache.resolve("key", resolver, 1000));
+        assertEquals("project1", cache.resolve("key", resolver, 1000 + HubProjectCache.RESOLUTION_TTL - 1));
+        assertEquals("project2", cache.resolve("key", resolver, 1000 + HubProjectCache.RESOLUTION_TTL));
+
+        cache.invalidate("key");
+        assertEquals("project3", cache.resolve("key", resolver, 1000 + HubProjectCache.RESOLUTION_TTL));
+    }
+
+    @Test
+    public void testFailedResolutionIsNotCached() throws Exception {
+        final HubProjectCache cache = new HubProjectCache();
+        try {
+            cache.resolve("key", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw new IllegalStateException("conflict");
+                }
+            });
+            fail("The failure should have been thrown");
+        } catch (final IllegalStateException e) {
+            assertEquals("conflict", e.getMessage());
+        }
+        assertEquals(0, cache.size());
+        assertEquals("project", cache.resolve("key", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "project";
+            }
+        }));
+    }
+
+    @Test
+    public void testKeys() {
+        final String projectKey = HubProjectCache.getProjectKey("http://hub", "user", "project");
+        assertFalse(projectKey.equals(HubProjectCache.getProjectKey("http://other", "user", "project")));
+        assertFalse(projectKey.equals(HubProjectCache.getVersionKey("http://hub", "user", "project", "1.0")));
+        assertFalse(HubProjectCache.getVersionKey("http://hub", "user", "project", "1.0")
+                .equals(HubProjectCache.getVersionKey("http://hub", "user", "project", "2.0")));
+    }
+
+}
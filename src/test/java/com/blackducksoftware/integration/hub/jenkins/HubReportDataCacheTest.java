@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubReportDataCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubReportDataCache.Metrics;
+
+public class HubReportDataCacheTest {
+
+    @Test
+    public void testHitAndMiss() {
+        final HubReportDataCache cache = new HubReportDataCache(1000);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        assertNull(cache.get("build1"));
+        cache.put("build1", reportData, 100);
+        assertSame(reportData, cache.get("build1"));
+
+        final Metrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getCachedReports());
+        assertEquals(100, metrics.getSize());
+        assertEquals(1, metrics.getHits());
+        assertEquals(1, metrics.getMisses());
+        assertEquals(0, metrics.getEvictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvictedBySize() {
+        final HubReportDataCache cache = new HubReportDataCache(1000);
+        final HubRiskReportData reportData1 = new HubRiskReportData();
+        final HubRiskReportData reportData2 = new HubRiskReportData();
+        final HubRiskReportData reportData3 = new HubRiskReportData();
+        cache.put("build1", reportData1, 400);
+        cache.put("build2", reportData2, 400);
+        // build1 is now the most recently used
+        cache.get("build1");
+        cache.put("build3", reportData3, 400);
+
+        final Metrics metrics = cache.getMetrics();
+        assertEquals(2, metrics.getCachedReports());
+        assertEquals(800, metrics.getSize());
+        assertEquals(1, metrics.getEvictions());
+
+        // The evicted report is still softly reachable, and goes back into the cache
+        assertSame(reportData2, cache.get("build2"));
+        assertEquals(1, cache.getMetrics().getSoftHits());
+        assertEquals(2, cache.getMetrics().getCachedReports());
+        assertEquals(2, cache.getMetrics().getEvictions());
+    }
+
+    @Test
+    public void testReportLargerThanCache() {
+        final HubReportDataCache cache = new HubReportDataCache(1000);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        cache.put("build1", reportData, 5000);
+        assertEquals(0, cache.getMetrics().getCachedReports());
+        assertEquals(0, cache.getMetrics().getSize());
+    }
+
+    @Test
+    public void testInvalidateAndClear() {
+        final HubReportDataCache cache = new HubReportDataCache(1000);
+        cache.put("build1", new HubRiskReportData(), 100);
+        cache.put("build2", new HubRiskReportData(), 100);
+        cache.invalidate("build1");
+        assertNull(cache.get("build1"));
+        assertEquals(100, cache.getMetrics().getSize());
+        cache.clear();
+        assertNull(cache.get("build2"));
+        assertEquals(0, cache.getMetrics().getSize());
+    }
+
+}
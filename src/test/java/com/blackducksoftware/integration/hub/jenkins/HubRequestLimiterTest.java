@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestLimiter.Metrics;
+
+public class HubRequestLimiterTest {
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        final HubRequestLimiter limiter = new HubRequestLimiter();
+        limiter.acquire(1, 0);
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiting = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire(1, 0);
+                    acquired.countDown();
+                    limiter.release();
+                } catch (final InterruptedException e) {
+                    // the test failed
+                }
+            }
+        });
+        waiting.start();
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        final Metrics metrics = limiter.getMetrics();
+        assertEquals(1, metrics.getActiveRequests());
+        assertEquals(1, metrics.getQueuedRequests());
+
+        limiter.release();
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        waiting.join(10000);
+        assertEquals(0, limiter.getMetrics().getActiveRequests());
+        assertEquals(0, limiter.getMetrics().getQueuedRequests());
+        assertEquals(1, limiter.getMetrics().getMaxQueuedRequests());
+        assertEquals(2, limiter.getMetrics().getStartedRequests());
+        assertTrue(limiter.getMetrics().getMaxWaitTimeInMilliseconds() >= 100);
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        final HubRequestLimiter limiter = new HubRequestLimiter();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(0, 10);
+            limiter.release();
+        }
+        // 5 requests at 10 per second are spaced by 100 milliseconds
+        assertTrue(System.currentTimeMillis() - start >= 400);
+        assertEquals(5, limiter.getMetrics().getStartedRequests());
+    }
+
+    @Test
+    public void testNoLimits() throws Exception {
+        final HubRequestLimiter limiter = new HubRequestLimiter();
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(0, 0);
+        }
+        assertEquals(100, limiter.getMetrics().getActiveRequests());
+        assertEquals(0, limiter.getMetrics().getQueuedRequests());
+    }
+
+    @Test
+    public void testFirstInFirstOut() throws Exception {
+        final HubRequestLimiter limiter = new HubRequestLimiter();
+        limiter.acquire(1, 0);
+        final List<String> startedRequests = Collections.synchronizedList(new ArrayList<String>());
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (final String request : new String[] { "first", "second", "third" }) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        limiter.acquire(1, 0);
+                        startedRequests.add(request);
+                        limiter.release();
+                    } catch (final InterruptedException e) {
+                        // the test failed
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            // Each request is queued before the next one arrives
+            final long queuedCount = threads.size();
+            while (limiter.getMetrics().getQueuedRequests() < queuedCount) {
+                Thread.sleep(10);
+            }
+        }
+
+        limiter.release();
+        for (final Thread thread : threads) {
+            thread.join(10000);
+        }
+        assertEquals(3, startedRequests.size());
+        assertEquals("first", startedRequests.get(0));
+        assertEquals("second", startedRequests.get(1));
+        assertEquals("third", startedRequests.get(2));
+    }
+
+    @Test
+    public void testInterruptedRequestLeavesTheQueue() throws Exception {
+        final HubRequestLimiter limiter = new HubRequestLimiter();
+        limiter.acquire(1, 0);
+        final Thread interrupted = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire(1, 0);
+                    limiter.release();
+                } catch (final InterruptedException e) {
+                    // expected
+                }
+            }
+        });
+        interrupted.start();
+        while (limiter.getMetrics().getQueuedRequests() < 1) {
+            Thread.sleep(10);
+        }
+        interrupted.interrupt();
+        interrupted.join(10000);
+        assertEquals(0, limiter.getMetrics().getQueuedRequests());
+
+        // The interrupted request does not block the requests queued after it
+        limiter.release();
+        limiter.acquire(1, 0);
+        assertEquals(1, limiter.getMetrics().getActiveRequests());
+        limiter.release();
+    }
+
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry.ConnectionRequest;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRestConnectionRegistry.Session;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+
+public class HubRestConnectionRegistryTest {
+
+    @Test
+    public void testSessionExpiry() {
+        final Session session = new Session(null, 1000);
+        assertFalse(session.isExpired(1000));
+        assertTrue(session.isExpired(1000 + HubRestConnectionRegistry.MAX_SESSION_IDLE_TIME));
+
+        session.setLastUsedAt(1000 + HubRestConnectionRegistry.MAX_SESSION_IDLE_TIME);
+        assertFalse(session.isExpired(1000 + HubRestConnectionRegistry.MAX_SESSION_IDLE_TIME + 1));
+
+        session.setLastUsedAt(1000 + HubRestConnectionRegistry.MAX_SESSION_AGE - 1);
+        assertTrue(session.isExpired(1000 + HubRestConnectionRegistry.MAX_SESSION_AGE));
+    }
+
+    @Test
+    public void testKey() {
+        final String key = HubRestConnectionRegistry.getKey("http://hub", "user", "password", 120, "");
+        assertEquals(key, HubRestConnectionRegistry.getKey("http://hub", "user", "password", 120, ""));
+        assertFalse(key.contains("password"));
+        assertFalse(key.equals(HubRestConnectionRegistry.getKey("http://hub", "user", "changed", 120, "")));
+        assertFalse(key.equals(HubRestConnectionRegistry.getKey("http://hub", "other", "password", 120, "")));
+        assertFalse(key.equals(HubRestConnectionRegistry.getKey("http://hub", "user", "password", 300, "")));
+        assertFalse(key.equals(HubRestConnectionRegistry.getKey("http://hub", "user", "password", 120, "proxy:80")));
+    }
+
+    @Test
+    public void testSessionExpiredOnTheHub() throws Exception {
+        final TestRegistry registry = new TestRegistry();
+        final RestConnection firstConnection = registry.getConnection("http://hub", "user", "password", 120);
+        assertSame(firstConnection, registry.getConnection("http://hub", "user", "password", 120));
+        assertEquals(1, registry.logins.size());
+        // The lock of the key is dropped once the login is done
+        assertEquals(0, registry.getLockCount());
+
+        // The Hub was restarted and refuses the session of the shared connection
+        final List<RestConnection> usedConnections = new ArrayList<RestConnection>();
+        final String result = registry.call("http://hub", "user", "password", 120, new ConnectionRequest<String>() {
+            @Override
+            public String call(final RestConnection connection) throws Exception {
+                usedConnections.add(connection);
+                if (connection == firstConnection) {
+                    throw new ResourceException(Status.CLIENT_ERROR_UNAUTHORIZED);
+                }
+                return "ok";
+            }
+        });
+        assertEquals("ok", result);
+        assertEquals(2, usedConnections.size());
+        assertEquals(2, registry.logins.size());
+        assertNotSame(firstConnection, usedConnections.get(1));
+        assertSame(usedConnections.get(1), registry.getConnection("http://hub", "user", "password", 120));
+        assertEquals(1, registry.getSessionCount());
+    }
+
+    @Test
+    public void testRetriedOnlyOnce() throws Exception {
+        final TestRegistry registry = new TestRegistry();
+        try {
+            registry.call("http://hub", "user", "password", 120, new ConnectionRequest<String>() {
+                @Override
+                public String call(final RestConnection connection) throws Exception {
+                    throw new ResourceException(Status.CLIENT_ERROR_UNAUTHORIZED);
+                }
+            });
+            fail("The request should have failed");
+        } catch (final ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_UNAUTHORIZED, e.getStatus());
+        }
+        assertEquals(2, registry.logins.size());
+
+        // Other failures are not retried
+        try {
+            registry.call("http://hub", "user", "password", 120, new ConnectionRequest<String>() {
+                @Override
+                public String call(final RestConnection connection) throws Exception {
+                    throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND);
+                }
+            });
+            fail("The request should have failed");
+        } catch (final ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND, e.getStatus());
+        }
+        assertEquals(2, registry.logins.size());
+    }
+
+    @Test
+    public void testIsSessionExpired() {
+        assertTrue(HubRestConnectionRegistry.isSessionExpired(new ResourceException(Status.CLIENT_ERROR_UNAUTHORIZED)));
+        assertTrue(HubRestConnectionRegistry
+                .isSessionExpired(new IllegalStateException(new ResourceException(Status.CLIENT_ERROR_UNAUTHORIZED))));
+        assertFalse(HubRestConnectionRegistry.isSessionExpired(new ResourceException(Status.CLIENT_ERROR_FORBIDDEN)));
+        assertFalse(HubRestConnectionRegistry.isSessionExpired(new IllegalStateException()));
+    }
+
+    private static class TestRegistry extends HubRestConnectionRegistry {
+        private final List<RestConnection> logins = new ArrayList<RestConnection>();
+
+        @Override
+        protected RestConnection login(final String serverUrl, final String username, final String password,
+                final int hubTimeout) {
+            final RestConnection connection = Mockito.mock(RestConnection.class);
+            logins.add(connection);
+            return connection;
+        }
+
+    }
+
+}
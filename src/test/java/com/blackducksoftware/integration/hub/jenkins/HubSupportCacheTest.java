@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubSupportCache.HubSupport;
+
+public class HubSupportCacheTest {
+    private static final String SERVER_URL = "http://hub";
+
+    private Callable<HubSupport> getChecker(final AtomicInteger checkCount, final long checkedAt) {
+        return new Callable<HubSupport>() {
+            @Override
+            public HubSupport call() throws Exception {
+                final int check = checkCount.incrementAndGet();
+                return new HubSupport(null, "3." + check + ".0", checkedAt);
+            }
+        };
+    }
+
+    @Test
+    public void testFreshEntryUsedAsIs() throws Exception {
+        final HubSupportCache cache = new HubSupportCache();
+        final AtomicInteger checkCount = new AtomicInteger();
+        assertEquals("3.1.0", cache.getHubSupport(SERVER_URL, getChecker(checkCount, 1000), 1000).getHubVersion());
+        assertEquals("3.1.0", cache.getHubSupport(SERVER_URL, getChecker(checkCount, 1000),
+                1000 + HubSupportCache.REFRESH_AFTER - 1).getHubVersion());
+        assertEquals(1, checkCount.get());
+    }
+
+    @Test
+    public void testRefreshInBackground() throws Exception {
+        final HubSupportCache cache = new HubSupportCache();
+        final AtomicInteger checkCount = new AtomicInteger();
+        final long refreshTime = 1000 + HubSupportCache.REFRESH_AFTER;
+        cache.getHubSupport(SERVER_URL, getChecker(checkCount, 1000), 1000);
+
+        // The Build gets the cached entry without waiting for the refresh
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<HubSupport> slowChecker = new Callable<HubSupport>() {
+            @Override
+            public HubSupport call() throws Exception {
+                release.await(10, TimeUnit.SECONDS);
+                checkCount.incrementAndGet();
+                return new HubSupport(null, "3.2.0", refreshTime);
+            }
+        };
+        assertEquals("3.1.0", cache.getHubSupport(SERVER_URL, slowChecker, refreshTime).getHubVersion());
+        // Only one refresh runs at a time
+        assertEquals("3.1.0", cache.getHubSupport(SERVER_URL, slowChecker, refreshTime).getHubVersion());
+        release.countDown();
+
+        final long timeout = System.currentTimeMillis() + 10000;
+        while (!"3.2.0".equals(cache.getHubSupport(SERVER_URL, slowChecker, refreshTime).getHubVersion())) {
+            if (System.currentTimeMillis() > timeout) {
+                fail("The Hub version was not refreshed");
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(2, checkCount.get());
+    }
+
+    @Test
+    public void testMaxAge() throws Exception {
+        final HubSupportCache cache = new HubSupportCache();
+        final AtomicInteger checkCount = new AtomicInteger();
+        cache.getHubSupport(SERVER_URL, getChecker(checkCount, 1000), 1000);
+
+        // An entry older than MAX_AGE is checked again before it is used
+        final long expiredTime = 1000 + HubSupportCache.MAX_AGE;
+        assertEquals("3.2.0",
+                cache.getHubSupport(SERVER_URL, getChecker(checkCount, expiredTime), expiredTime).getHubVersion());
+        assertEquals(2, checkCount.get());
+    }
+
+    @Test
+    public void testFailedCheckNotCached() throws Exception {
+        final HubSupportCache cache = new HubSupportCache();
+        try {
+            cache.getHubSupport(SERVER_URL, new Callable<HubSupport>() {
+                @Override
+                public HubSupport call() throws Exception {
+                    throw new IllegalStateException("The Hub is not available");
+                }
+            }, 1000);
+            fail("The check should have failed");
+        } catch (final IllegalStateException e) {
+            assertEquals("The Hub is not available", e.getMessage());
+        }
+        final AtomicInteger checkCount = new AtomicInteger();
+        assertEquals("3.1.0", cache.getHubSupport(SERVER_URL, getChecker(checkCount, 1000), 1000).getHubVersion());
+    }
+
+    @Test
+    public void testConcurrentChecksCheckOnce() throws Exception {
+        final HubSupportCache cache = new HubSupportCache();
+        final AtomicInteger checkCount = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<HubSupport> checker = new Callable<HubSupport>() {
+            @Override
+            public HubSupport call() throws Exception {
+                checkCount.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return new HubSupport(null, "3.1.0", 1000);
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<HubSupport>> results = new ArrayList<Future<HubSupport>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<HubSupport>() {
+                    @Override
+                    public HubSupport call() throws Exception {
+                        return cache.getHubSupport(SERVER_URL, checker, 1000);
+                    }
+                }));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (final Future<HubSupport> result : results) {
+                assertEquals("3.1.0", result.get(10, TimeUnit.SECONDS).getHubVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, checkCount.get());
+        assertTrue(cache.getHubSupport(SERVER_URL, checker, 1001).getCheckedAt() == 1000);
+    }
+
+}
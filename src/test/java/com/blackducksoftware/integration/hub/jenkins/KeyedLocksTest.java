@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.KeyedLocks;
+
+public class KeyedLocksTest {
+
+    @Test
+    public void testSameLockPerKey() {
+        final KeyedLocks locks = new KeyedLocks();
+        final Object lock = locks.acquire("job1");
+        assertSame(lock, locks.acquire("job1"));
+        assertNotSame(lock, locks.acquire("job2"));
+        assertEquals(2, locks.size());
+    }
+
+    @Test
+    public void testReleasedWhenUnused() {
+        final KeyedLocks locks = new KeyedLocks();
+        final Object lock = locks.acquire("job1");
+        locks.acquire("job1");
+        locks.release("job1");
+        assertEquals(1, locks.size());
+        assertSame(lock, locks.acquire("job1"));
+        locks.release("job1");
+        locks.release("job1");
+        assertEquals(0, locks.size());
+        assertNotSame(lock, locks.acquire("job1"));
+
+        // releasing an unknown key is ignored
+        locks.release("job2");
+        assertEquals(1, locks.size());
+    }
+
+}
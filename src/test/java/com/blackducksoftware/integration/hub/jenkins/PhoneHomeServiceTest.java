@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restlet.Client;
+import org.restlet.Context;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.PhoneHomeService;
+
+public class PhoneHomeServiceTest {
+
+    @Test
+    public void testShouldPhoneHomeOncePerInterval() {
+        final PhoneHomeService service = new PhoneHomeService();
+        final String key = PhoneHomeService.getKey("http://hub", "1.0.0");
+        assertTrue(service.shouldPhoneHome(key, 1000));
+        assertFalse(service.shouldPhoneHome(key, 1000));
+        assertFalse(service.shouldPhoneHome(key, 1000 + PhoneHomeService.PHONE_HOME_INTERVAL - 1));
+        assertTrue(service.shouldPhoneHome(key, 1000 + PhoneHomeService.PHONE_HOME_INTERVAL));
+    }
+
+    @Test
+    public void testShouldPhoneHomePerServerAndPluginVersion() {
+        final PhoneHomeService service = new PhoneHomeService();
+        assertTrue(service.shouldPhoneHome(PhoneHomeService.getKey("http://hub", "1.0.0"), 1000));
+        assertTrue(service.shouldPhoneHome(PhoneHomeService.getKey("http://other", "1.0.0"), 1000));
+        assertTrue(service.shouldPhoneHome(PhoneHomeService.getKey("http://hub", "1.1.0"), 1000));
+        assertFalse(service.shouldPhoneHome(PhoneHomeService.getKey("http://hub", "1.1.0"), 2000));
+    }
+
+    @Test
+    public void testPhoneHomeTimeouts() {
+        final Context context = PhoneHomeService.createPhoneHomeContext();
+        final String timeout = String.valueOf(PhoneHomeService.PHONE_HOME_TIMEOUT_IN_SECONDS * 1000);
+        assertEquals(timeout, context.getParameters().getFirstValue("socketConnectTimeoutMs"));
+        assertEquals(timeout, context.getParameters().getFirstValue("readTimeout"));
+        assertTrue(context.getClientDispatcher() instanceof Client);
+        assertTrue(((Client) context.getClientDispatcher()).getProtocols().size() == 2);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.api.report.AggregateBomViewEntry;
+import com.blackducksoftware.integration.hub.api.report.risk.RiskCategories;
+import com.blackducksoftware.integration.hub.api.report.risk.RiskCounts;
+import com.blackducksoftware.integration.hub.api.report.risk.RiskProfile;
+
+public class BomEntryQueryTest {
+
+    private AggregateBomViewEntry getBomEntry(final int high, final int medium, final int low) {
+        final RiskCounts counts = new RiskCounts(high, medium, low, 0, 0);
+        final RiskCategories categories = new RiskCategories(counts, counts, counts, counts, counts);
+        final RiskProfile riskProfile = new RiskProfile(0, categories);
+        return new AggregateBomViewEntry(null, null, null, null, null, null, null, null, null, null, null, null,
+                riskProfile, null);
+    }
+
+    @Test
+    public void testFilterByVulnerabilityRisk() {
+        final AggregateBomViewEntry highEntry = getBomEntry(1, 1, 1);
+        final AggregateBomViewEntry mediumEntry = getBomEntry(0, 1, 1);
+        final AggregateBomViewEntry lowEntry = getBomEntry(0, 0, 1);
+        final AggregateBomViewEntry noneEntry = getBomEntry(0, 0, 0);
+        final List<AggregateBomViewEntry> bomEntries = new ArrayList<AggregateBomViewEntry>();
+        bomEntries.add(highEntry);
+        bomEntries.add(mediumEntry);
+        bomEntries.add(lowEntry);
+        bomEntries.add(noneEntry);
+
+        final BomEntryQuery query = new BomEntryQuery();
+        assertEquals(4, query.filter(bomEntries).size());
+
+        query.setVulnerabilityRisk("high");
+        assertEquals(1, query.filter(bomEntries).size());
+        assertSame(highEntry, query.filter(bomEntries).get(0));
+
+        // a component with a high risk is not counted as a medium risk
+        query.setVulnerabilityRisk("medium");
+        assertEquals(1, query.filter(bomEntries).size());
+        assertSame(mediumEntry, query.filter(bomEntries).get(0));
+
+        query.setVulnerabilityRisk("low");
+        assertEquals(1, query.filter(bomEntries).size());
+        assertSame(lowEntry, query.filter(bomEntries).get(0));
+
+        query.setVulnerabilityRisk("none");
+        assertEquals(1, query.filter(bomEntries).size());
+        assertSame(noneEntry, query.filter(bomEntries).get(0));
+    }
+
+    @Test
+    public void testSort() {
+        final List<AggregateBomViewEntry> bomEntries = new ArrayList<AggregateBomViewEntry>();
+        bomEntries.add(getBomEntry(2, 0, 0));
+        bomEntries.add(getBomEntry(5, 0, 0));
+        bomEntries.add(getBomEntry(1, 0, 0));
+
+        final BomEntryQuery query = new BomEntryQuery();
+        query.setSort(BomEntryQuery.SORT_VULNERABILITY_HIGH);
+        List<AggregateBomViewEntry> sortedEntries = query.filter(bomEntries);
+        assertEquals(1, sortedEntries.get(0).getVulnerabilityRisk().getHIGH());
+        assertEquals(5, sortedEntries.get(2).getVulnerabilityRisk().getHIGH());
+
+        query.setDescending(true);
+        sortedEntries = query.filter(bomEntries);
+        assertEquals(5, sortedEntries.get(0).getVulnerabilityRisk().getHIGH());
+        assertEquals(1, sortedEntries.get(2).getVulnerabilityRisk().getHIGH());
+
+        // the entries of the report are not reordered
+        assertEquals(2, bomEntries.get(0).getVulnerabilityRisk().getHIGH());
+    }
+
+    @Test
+    public void testPages() {
+        final List<AggregateBomViewEntry> bomEntries = new ArrayList<AggregateBomViewEntry>();
+        for (int i = 0; i < 250; i++) {
+            bomEntries.add(getBomEntry(0, 0, 0));
+        }
+        final BomEntryQuery query = new BomEntryQuery();
+        final List<AggregateBomViewEntry> filteredEntries = query.filter(bomEntries);
+        assertEquals(BomEntryQuery.DEFAULT_PAGE_SIZE, query.getPage(filteredEntries).size());
+
+        query.setStart(200);
+        assertEquals(50, query.getPage(filteredEntries).size());
+
+        query.setStart(300);
+        assertTrue(query.getPage(filteredEntries).isEmpty());
+
+        query.setStart(-5);
+        query.setPageSize(BomEntryQuery.MAX_PAGE_SIZE * 10);
+        assertEquals(0, query.getStart());
+        assertEquals(BomEntryQuery.MAX_PAGE_SIZE, query.getPageSize());
+        assertEquals(250, query.getPage(filteredEntries).size());
+
+        query.setPageSize(0);
+        assertEquals(BomEntryQuery.DEFAULT_PAGE_SIZE, query.getPageSize());
+    }
+
+}
@@ -23,12 +23,18 @@ package com.blackducksoftware.integration.hub.jenkins.action;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
 
 import com.blackducksoftware.integration.hub.api.report.AggregateBomViewEntry;
 import com.blackducksoftware.integration.hub.api.report.HubRiskReportData;
@@ -37,8 +43,13 @@ import com.blackducksoftware.integration.hub.api.report.risk.RiskCategories;
 import com.blackducksoftware.integration.hub.api.report.risk.RiskCounts;
 import com.blackducksoftware.integration.hub.api.report.risk.RiskProfile;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubReportDataCache;
+
+import hudson.model.Run;
 
 public class HubReportActionTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     @Test
     public void testSetReportHighRisks() {
@@ -269,4 +280,143 @@ public class HubReportActionTest {
         final HubReportAction action = new HubReportAction(null);
         assertEquals("hub_risk_report", action.getUrlName());
     }
+
+    @Test
+    public void testReportDataStoredInBuildDirectory() throws Exception {
+        final RiskCounts counts = new RiskCounts(0, 1, 0, 0, 0);
+        final RiskCategories categories = new RiskCategories(counts, counts, counts, counts, counts);
+        final RiskProfile riskProfile = new RiskProfile(0, categories);
+        final AggregateBomViewEntry bomEntry = new AggregateBomViewEntry(null, null, null, null, null, null, null, null,
+                null, null, null, null, riskProfile, null);
+        final List<AggregateBomViewEntry> aggregateBomViewEntries = new ArrayList<AggregateBomViewEntry>();
+        aggregateBomViewEntries.add(bomEntry);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        final VersionReport report = new VersionReport(null, aggregateBomViewEntries);
+        reportData.setReport(report);
+
+        final File buildDirectory = folder.newFolder();
+        final Run<?, ?> build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(buildDirectory);
+        final HubReportAction action = new HubReportAction(build);
+        action.setReportData(reportData);
+        assertTrue(new File(buildDirectory, HubReportAction.REPORT_FILE_NAME).isFile());
+
+        // A new action reads the report the first time it is needed, like after a restart
+        HubReportDataCache.getInstance().clear();
+        final HubReportAction loadedAction = new HubReportAction(build);
+        assertEquals(1, loadedAction.getBomEntries().size());
+        assertEquals(1, loadedAction.getVulnerabilityRiskMediumCount());
+        assertEquals(1, loadedAction.getLicenseRiskMediumCount());
+        assertEquals(1, loadedAction.getOperationalRiskMediumCount());
+    }
+
+    @Test
+    public void testMissingReportFile() throws Exception {
+        final Run<?, ?> build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(folder.newFolder());
+        final HubReportAction action = new HubReportAction(build);
+        assertNull(action.getReportData());
+        assertNull(action.getBomEntries());
+        assertTrue(0.0 == action.getPercentage(1.0));
+    }
+
+    @Test
+    public void testSummaryWithoutReportData() throws Exception {
+        final RiskCounts counts = new RiskCounts(1, 0, 0, 0, 0);
+        final RiskCategories categories = new RiskCategories(counts, counts, counts, counts, counts);
+        final RiskProfile riskProfile = new RiskProfile(0, categories);
+        final AggregateBomViewEntry bomEntry = new AggregateBomViewEntry(null, null, null, null, null, null, null, null,
+                null, null, null, null, riskProfile, null);
+        final List<AggregateBomViewEntry> aggregateBomViewEntries = new ArrayList<AggregateBomViewEntry>();
+        aggregateBomViewEntries.add(bomEntry);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        final VersionReport report = new VersionReport(null, aggregateBomViewEntries);
+        reportData.setReport(report);
+
+        final File buildDirectory = folder.newFolder();
+        final Run<?, ?> build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(buildDirectory);
+        final HubReportAction action = new HubReportAction(build);
+        action.setReportData(reportData);
+
+        // The summary is kept by the action, the counts do not need the report data
+        HubReportDataCache.getInstance().clear();
+        assertTrue(new File(buildDirectory, HubReportAction.REPORT_FILE_NAME).delete());
+        assertNull(action.getReportData());
+
+        final HubRiskReportSummary summary = action.getSummary();
+        assertNotNull(summary);
+        assertEquals(1, summary.getTotalComponentCount());
+        assertEquals(0, summary.getPolicyInViolationCount());
+        assertEquals(1, summary.getPolicyNotInViolationCount());
+        assertEquals(1, action.getVulnerabilityRiskHighCount());
+        assertEquals(1, action.getLicenseRiskHighCount());
+        assertEquals(1, action.getOperationalRiskHighCount());
+        assertTrue(100.0 == action.getPercentage(action.getVulnerabilityRiskHighCount()));
+        assertTrue(100.0 == summary.getVulnerabilityRiskHighPercentage());
+        assertTrue(0.0 == summary.getVulnerabilityRiskNonePercentage());
+    }
+
+    @Test
+    public void testLegacyReportDataMovedOnLoad() throws Exception {
+        final RiskCounts counts = new RiskCounts(1, 0, 0, 0, 0);
+        final RiskCategories categories = new RiskCategories(counts, counts, counts, counts, counts);
+        final RiskProfile riskProfile = new RiskProfile(0, categories);
+        final AggregateBomViewEntry bomEntry = new AggregateBomViewEntry(null, null, null, null, null, null, null, null,
+                null, null, null, null, riskProfile, null);
+        final List<AggregateBomViewEntry> aggregateBomViewEntries = new ArrayList<AggregateBomViewEntry>();
+        aggregateBomViewEntries.add(bomEntry);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        final VersionReport report = new VersionReport(null, aggregateBomViewEntries);
+        reportData.setReport(report);
+
+        // A Build from Hub Jenkins 2.1.x is loaded with the report data of its build.xml
+        final File buildDirectory = folder.newFolder();
+        final Run<?, ?> build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(buildDirectory);
+        final HubReportAction action = new HubReportAction(build);
+        final Field reportDataField = HubReportAction.class.getDeclaredField("reportData");
+        reportDataField.setAccessible(true);
+        reportDataField.set(action, reportData);
+
+        action.onLoad(build);
+        assertNull(reportDataField.get(action));
+        assertTrue(new File(buildDirectory, HubReportAction.REPORT_FILE_NAME).isFile());
+        Mockito.verify(build).save();
+
+        HubReportDataCache.getInstance().clear();
+        assertEquals(1, action.getSummary().getTotalComponentCount());
+        assertEquals(1, action.getBomEntries().size());
+        assertEquals(1, action.getVulnerabilityRiskHighCount());
+    }
+
+    @Test
+    public void testSummaryComputedOnceForOlderBuilds() throws Exception {
+        final RiskCounts counts = new RiskCounts(1, 0, 0, 0, 0);
+        final RiskCategories categories = new RiskCategories(counts, counts, counts, counts, counts);
+        final RiskProfile riskProfile = new RiskProfile(0, categories);
+        final AggregateBomViewEntry bomEntry = new AggregateBomViewEntry(null, null, null, null, null, null, null, null,
+                null, null, null, null, riskProfile, null);
+        final List<AggregateBomViewEntry> aggregateBomViewEntries = new ArrayList<AggregateBomViewEntry>();
+        aggregateBomViewEntries.add(bomEntry);
+        final HubRiskReportData reportData = new HubRiskReportData();
+        final VersionReport report = new VersionReport(null, aggregateBomViewEntries);
+        reportData.setReport(report);
+
+        final File buildDirectory = folder.newFolder();
+        final Run<?, ?> build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(buildDirectory);
+        new HubReportAction(build).setReportData(reportData);
+
+        // A Build with a report file but without a stored summary
+        final HubReportAction action = new HubReportAction(build);
+        assertNull(action.getStoredSummary());
+        Mockito.verify(build, Mockito.never()).save();
+
+        assertEquals(1, action.getSummary().getTotalComponentCount());
+        assertNotNull(action.getStoredSummary());
+        action.getSummary();
+        Mockito.verify(build, Mockito.times(1)).save();
+    }
+
 }
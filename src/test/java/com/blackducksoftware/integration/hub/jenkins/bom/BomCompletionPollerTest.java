@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.bom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.HubIntRestService;
+import com.blackducksoftware.integration.hub.api.scan.ScanSummaryItem;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Callback;
+import com.blackducksoftware.integration.hub.jenkins.bom.BomCompletionPoller.Registration;
+import com.google.gson.Gson;
+
+public class BomCompletionPollerTest {
+    private static final String SCAN_1 = "http://hub/api/scan-summaries/1";
+
+    private static final String SCAN_2 = "http://hub/api/scan-summaries/2";
+
+    private static final long ONE_HOUR = 60L * 60 * 1000;
+
+    private static class TestPoller extends BomCompletionPoller {
+        private final Map<String, String> statuses = new HashMap<String, String>();
+
+        private final List<String> requests = new ArrayList<String>();
+
+        @Override
+        protected ScanSummaryItem getScanSummary(final HubIntRestService service, final String scanSummaryHref)
+                throws Exception {
+            requests.add(scanSummaryHref);
+            final String status = statuses.get(scanSummaryHref);
+            if (status == null) {
+                throw new IOException("Connection refused");
+            }
+            return new Gson().fromJson("{\"status\":\"" + status + "\"}", ScanSummaryItem.class);
+        }
+    }
+
+    private BomPollingSchedule getSchedule() {
+        return new BomPollingSchedule(null, new Random(0));
+    }
+
+    @Test
+    public void testNothingToWaitFor() throws Exception {
+        final TestPoller poller = new TestPoller();
+        final Registration registration = poller.register(null, new ArrayList<String>(), getSchedule(), 0);
+        assertTrue(registration.isDone());
+        assertTrue(registration.await(0));
+        assertEquals(0, poller.getRegistrationCount());
+    }
+
+    @Test
+    public void testScansCheckedOncePerPoll() throws Exception {
+        final TestPoller poller = new TestPoller();
+        poller.statuses.put(SCAN_1, "BUILDING_BOM");
+        poller.statuses.put(SCAN_2, "BUILDING_BOM");
+        final Registration first = poller.register(null, Arrays.asList(SCAN_1, SCAN_2), getSchedule(), 0);
+        final Registration second = poller.register(null, Arrays.asList(SCAN_1), getSchedule(), 0);
+
+        // Nothing is due yet
+        poller.poll(1000);
+        assertTrue(poller.requests.isEmpty());
+
+        poller.poll(ONE_HOUR);
+        assertEquals(Arrays.asList(SCAN_1, SCAN_2), poller.requests);
+        assertEquals(1, first.getPollCount());
+        assertEquals(1, second.getPollCount());
+        assertFalse(first.await(0));
+
+        poller.requests.clear();
+        poller.statuses.put(SCAN_1, "COMPLETE");
+        poller.poll(2 * ONE_HOUR);
+        assertEquals(Arrays.asList(SCAN_1, SCAN_2), poller.requests);
+        assertTrue(second.await(0));
+        assertFalse(first.await(0));
+        assertEquals(Arrays.asList(SCAN_2), first.getPendingScans());
+        assertEquals(1, poller.getRegistrationCount());
+
+        poller.statuses.put(SCAN_2, "COMPLETE");
+        poller.poll(3 * ONE_HOUR);
+        assertTrue(first.await(0));
+        assertEquals(3, first.getPollCount());
+        assertEquals(0, poller.getRegistrationCount());
+    }
+
+    @Test
+    public void testScanError() throws Exception {
+        final TestPoller poller = new TestPoller();
+        poller.statuses.put(SCAN_1, "ERROR");
+        final Registration registration = poller.register(null, Arrays.asList(SCAN_1), getSchedule(), 0);
+        poller.poll(ONE_HOUR);
+        try {
+            registration.await(0);
+            fail("Should have thrown a HubIntegrationException");
+        } catch (final HubIntegrationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("ERROR"));
+        }
+        assertEquals(0, poller.getRegistrationCount());
+    }
+
+    @Test
+    public void testRequestFailure() throws Exception {
+        final TestPoller poller = new TestPoller();
+        final Registration registration = poller.register(null, Arrays.asList(SCAN_1), getSchedule(), 0);
+        poller.poll(ONE_HOUR);
+        try {
+            registration.await(0);
+            fail("Should have thrown a HubIntegrationException");
+        } catch (final HubIntegrationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testTimeoutRunsCallback() throws Exception {
+        final TestPoller poller = new TestPoller();
+        poller.statuses.put(SCAN_1, "BUILDING_BOM");
+        final List<Registration> doneRegistrations = new ArrayList<Registration>();
+        final Callback callback = new Callback() {
+            @Override
+            public void onDone(final Registration registration) {
+                doneRegistrations.add(registration);
+            }
+        };
+        final Registration registration = poller.register(null, Arrays.asList(SCAN_1), getSchedule(),
+                2 * ONE_HOUR, callback, 0);
+        poller.poll(ONE_HOUR);
+        assertTrue(doneRegistrations.isEmpty());
+
+        poller.poll(2 * ONE_HOUR);
+        assertEquals(Arrays.asList(registration), doneRegistrations);
+        assertTrue(registration.isDone());
+        assertFalse(registration.isUpdated());
+        assertEquals(0, poller.getRegistrationCount());
+    }
+
+    @Test
+    public void testCallbackWhenNothingToWaitFor() throws Exception {
+        final TestPoller poller = new TestPoller();
+        final List<Registration> doneRegistrations = new ArrayList<Registration>();
+        final Registration registration = poller.register(null, new ArrayList<String>(), getSchedule(), ONE_HOUR,
+                new Callback() {
+                    @Override
+                    public void onDone(final Registration doneRegistration) {
+                        doneRegistrations.add(doneRegistration);
+                    }
+                }, 0);
+        assertEquals(Arrays.asList(registration), doneRegistrations);
+        assertTrue(registration.isUpdated());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final TestPoller poller = new TestPoller();
+        poller.statuses.put(SCAN_1, "BUILDING_BOM");
+        final Registration registration = poller.register(null, Arrays.asList(SCAN_1), getSchedule(), 0);
+        assertFalse(registration.await(10));
+        poller.cancel(registration);
+        poller.poll(ONE_HOUR);
+        assertTrue(poller.requests.isEmpty());
+        assertEquals(0, registration.getPollCount());
+    }
+
+}
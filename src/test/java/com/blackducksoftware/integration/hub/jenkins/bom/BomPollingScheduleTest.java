@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.bom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BomPollingScheduleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInitialDelayWithoutHistory() {
+        assertEquals(BomPollingSchedule.DEFAULT_INITIAL_DELAY, BomPollingSchedule.getInitialDelay(null));
+        assertEquals(BomPollingSchedule.DEFAULT_INITIAL_DELAY,
+                BomPollingSchedule.getInitialDelay(new ArrayList<Long>()));
+    }
+
+    @Test
+    public void testInitialDelayLearnedFromHistory() {
+        // The lower quartile of the past BOM times, the slow updates are ignored
+        final List<Long> bomTimes = Arrays.asList(100000L, 40000L, 50000L, 600000L, 45000L);
+        assertEquals((long) (45000L * BomPollingSchedule.INITIAL_DELAY_RATIO),
+                BomPollingSchedule.getInitialDelay(bomTimes));
+
+        assertEquals(BomPollingSchedule.MIN_INTERVAL, BomPollingSchedule.getInitialDelay(Arrays.asList(100L)));
+        assertEquals(BomPollingSchedule.MAX_INTERVAL * 5,
+                BomPollingSchedule.getInitialDelay(Arrays.asList(60L * 60 * 1000)));
+    }
+
+    @Test
+    public void testBackoff() {
+        final BomPollingSchedule schedule = new BomPollingSchedule(null, new Random(0));
+        assertEquals(BomPollingSchedule.DEFAULT_INITIAL_DELAY, schedule.getBaseDelay(0));
+        assertEquals(BomPollingSchedule.MIN_INTERVAL, schedule.getBaseDelay(1));
+        long previousDelay = 0;
+        for (int pollNumber = 1; pollNumber < 20; pollNumber++) {
+            final long delay = schedule.getBaseDelay(pollNumber);
+            assertTrue(delay >= previousDelay);
+            assertTrue(delay <= BomPollingSchedule.MAX_INTERVAL);
+            previousDelay = delay;
+        }
+        assertEquals(BomPollingSchedule.MAX_INTERVAL, previousDelay);
+    }
+
+    @Test
+    public void testJitter() {
+        final BomPollingSchedule schedule = new BomPollingSchedule(null, new Random(0));
+        final long baseDelay = schedule.getBaseDelay(5);
+        for (int i = 0; i < 100; i++) {
+            final long delay = schedule.getDelay(5);
+            assertTrue(delay >= baseDelay * (1 - BomPollingSchedule.JITTER) - 1);
+            assertTrue(delay <= baseDelay * (1 + BomPollingSchedule.JITTER) + 1);
+        }
+    }
+
+    @Test
+    public void testBomTimeHistory() throws Exception {
+        final File jobDirectory = folder.newFolder();
+        final BomTimeHistory history = new BomTimeHistory(jobDirectory);
+        assertTrue(history.getBomTimes().isEmpty());
+        for (long i = 1; i <= BomTimeHistory.MAX_RECORDS + 2; i++) {
+            history.addBomTime(i * 1000);
+        }
+        final List<Long> bomTimes = history.getBomTimes();
+        assertEquals(BomTimeHistory.MAX_RECORDS, bomTimes.size());
+        assertEquals(Long.valueOf(3000), bomTimes.get(0));
+
+        FileUtils.writeStringToFile(new File(jobDirectory, BomTimeHistory.HISTORY_FILE_NAME), "not json", "UTF-8");
+        assertTrue(history.getBomTimes().isEmpty());
+    }
+
+    @Test
+    public void testBomTimeHistorySharedAcrossInstances() throws Exception {
+        // The scan step and the failure steps of concurrent Builds each add to the history with their own instance
+        final File jobDirectory = folder.newFolder();
+        final int threadCount = BomTimeHistory.MAX_RECORDS;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final long bomTime = (i + 1) * 1000L;
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        new BomTimeHistory(jobDirectory).addBomTime(bomTime);
+                    } catch (final Exception e) {
+                        // the record is missing from the history
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join(10000);
+        }
+        assertEquals(threadCount, new BomTimeHistory(jobDirectory).getBomTimes().size());
+    }
+
+}
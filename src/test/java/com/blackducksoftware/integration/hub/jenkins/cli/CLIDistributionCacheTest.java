@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+
+import hudson.Util;
+
+public class CLIDistributionCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testArchiveName() {
+        assertEquals(CLIDistributionCache.LINUX_ARCHIVE, CLIDistributionCache.getArchiveName(false, false));
+        assertEquals(CLIDistributionCache.WINDOWS_ARCHIVE, CLIDistributionCache.getArchiveName(true, false));
+        assertEquals(CLIDistributionCache.MAC_ARCHIVE, CLIDistributionCache.getArchiveName(false, true));
+    }
+
+    @Test
+    public void testDownloadUrl() {
+        assertEquals("http://hub:8080/download/scan.cli.zip",
+                CLIDistributionCache.getDownloadUrl("http://hub:8080", CLIDistributionCache.LINUX_ARCHIVE));
+        assertEquals("http://hub:8080/download/scan.cli.zip",
+                CLIDistributionCache.getDownloadUrl("http://hub:8080/", CLIDistributionCache.LINUX_ARCHIVE));
+    }
+
+    @Test
+    public void testPruneVersions() throws Exception {
+        final File hubDirectory = folder.newFolder("hub");
+        final CLIDistributionCache cache = new CLIDistributionCache(folder.getRoot());
+        final File[] versions = new File[5];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = new File(hubDirectory, "3." + i + ".0");
+            assertTrue(versions[i].mkdirs());
+            assertTrue(versions[i].setLastModified(1000000L * (i + 1)));
+        }
+        // The current version is kept even if it is the oldest
+        cache.pruneVersions(hubDirectory, versions[0]);
+        assertTrue(versions[0].exists());
+        assertFalse(versions[1].exists());
+        assertFalse(versions[2].exists());
+        assertTrue(versions[3].exists());
+        assertTrue(versions[4].exists());
+    }
+
+    @Test
+    public void testCachedDistributionReleasesItsLock() throws Exception {
+        final CLIDistributionCache cache = new CLIDistributionCache(folder.getRoot());
+        final File hubDirectory = new File(folder.getRoot(), Util.getDigestOf("http://hub:8080"));
+        final File versionDirectory = new File(hubDirectory, "3.1.0");
+        FileUtils.writeStringToFile(new File(versionDirectory, CLIDistributionCache.LINUX_ARCHIVE), "archive", "UTF-8");
+        FileUtils.writeStringToFile(new File(versionDirectory, CLIDistributionCache.LINUX_ARCHIVE + ".md5"), "abc\n",
+                "UTF-8");
+
+        final CLIDistributionCache.Distribution distribution = cache.getDistribution(
+                new HubJenkinsLogger(new TestBuildListener(new StoredPrintStream())), "http://hub:8080", "3.1.0",
+                CLIDistributionCache.LINUX_ARCHIVE, 120);
+        assertEquals("abc", distribution.getChecksum());
+        assertEquals(0, cache.getLockCount());
+    }
+
+    @Test
+    public void testValidateArchive() throws Exception {
+        final CLIDistributionCache cache = new CLIDistributionCache(folder.getRoot());
+        final File archive = folder.newFile("scan.cli.zip");
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            zipOutputStream.putNextEntry(new ZipEntry("scan.cli/bin/scan.cli.sh"));
+            zipOutputStream.write("#!/bin/sh".getBytes("UTF-8"));
+            zipOutputStream.closeEntry();
+        } finally {
+            zipOutputStream.close();
+        }
+        cache.validateArchive(archive);
+    }
+
+    @Test(expected = IOException.class)
+    public void testValidateArchiveNotAZip() throws Exception {
+        // A proxy can answer the download with an html error page
+        final File archive = folder.newFile("scan.cli.zip");
+        FileUtils.writeStringToFile(archive, "<html><body>Proxy Authentication Required</body></html>", "UTF-8");
+        new CLIDistributionCache(folder.getRoot()).validateArchive(archive);
+    }
+
+}
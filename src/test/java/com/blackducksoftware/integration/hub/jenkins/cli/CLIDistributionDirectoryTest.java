@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.FileOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CLIDistributionDirectoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInstallAndSwap() throws Exception {
+        final File toolsDirectory = folder.newFolder("tools");
+        final CLIDistributionDirectory directory = new CLIDistributionDirectory(toolsDirectory);
+        assertNull(directory.getCurrentChecksum());
+        assertEquals(toolsDirectory, directory.getCLIRoot());
+
+        directory.install(createArchive("first"), "aaaa", "3.1.0 scan.cli.zip aaaa");
+        assertEquals("aaaa", directory.getCurrentChecksum());
+        assertEquals("3.1.0 scan.cli.zip aaaa", directory.getCurrentMarker());
+        assertEquals(directory.getDistributionDirectory("aaaa"), directory.getCLIRoot());
+        assertEquals(2, directory.getRoot().list().length);
+
+        directory.install(createArchive("second"), "bbbb", "3.2.0 scan.cli.zip bbbb");
+        assertEquals("bbbb", directory.getCurrentChecksum());
+        assertTrue(directory.getDistributionDirectory("aaaa").isDirectory());
+
+        // The retired distribution is kept until its lifetime is over
+        final long now = System.currentTimeMillis();
+        assertEquals(0, directory.clean(now));
+        assertEquals(1, directory.clean(now + CLIDistributionDirectory.RETIRED_DISTRIBUTION_LIFETIME + 60000));
+        assertFalse(directory.getDistributionDirectory("aaaa").exists());
+        assertTrue(directory.getDistributionDirectory("bbbb").isDirectory());
+    }
+
+    @Test
+    public void testClearCurrent() throws Exception {
+        final File toolsDirectory = folder.newFolder("tools");
+        final CLIDistributionDirectory directory = new CLIDistributionDirectory(toolsDirectory);
+        directory.install(createArchive("first"), "aaaa", "3.1.0 scan.cli.zip aaaa");
+        directory.clearCurrent();
+        assertNull(directory.getCurrentChecksum());
+        assertNull(directory.getCurrentMarker());
+        assertEquals(toolsDirectory, directory.getCLIRoot());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidChecksum() throws Exception {
+        final CLIDistributionDirectory directory = new CLIDistributionDirectory(folder.newFolder("tools"));
+        directory.install(createArchive("first"), "../other", "marker");
+    }
+
+    private File createArchive(final String content) throws Exception {
+        final File archive = folder.newFile(content + ".zip");
+        final ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            outputStream.putNextEntry(new ZipEntry("scan.cli-" + content + "/lib/" + content + ".txt"));
+            outputStream.write(content.getBytes("UTF-8"));
+            outputStream.closeEntry();
+        } finally {
+            outputStream.close();
+        }
+        return archive;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CLIInstallationCacheTest {
+    private static final long TTL = 60 * 60 * 1000;
+
+    @Test
+    public void testNotInstalled() {
+        final CLIInstallationCache cache = new CLIInstallationCache();
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", "3.1.0", TTL, 0));
+    }
+
+    @Test
+    public void testCurrentUntilTtlExpires() {
+        final CLIInstallationCache cache = new CLIInstallationCache();
+        cache.setInstalled("node", "/tools", "http://hub", "3.1.0", 1000);
+        assertTrue(cache.isCurrent("node", "/tools", "http://hub", "3.1.0", TTL, 1000 + TTL - 1));
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", "3.1.0", TTL, 1000 + TTL));
+        assertFalse(cache.isCurrent("other", "/tools", "http://hub", "3.1.0", TTL, 1000));
+    }
+
+    @Test
+    public void testHubChanged() {
+        final CLIInstallationCache cache = new CLIInstallationCache();
+        cache.setInstalled("node", "/tools", "http://hub", "3.1.0", 1000);
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", "3.2.0", TTL, 1000));
+        assertFalse(cache.isCurrent("node", "/tools", "http://other-hub", "3.1.0", TTL, 1000));
+        assertFalse(cache.isCurrent("node", "/other-tools", "http://hub", "3.1.0", TTL, 1000));
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", null, TTL, 1000));
+    }
+
+    @Test
+    public void testDisabledAndInvalidated() {
+        final CLIInstallationCache cache = new CLIInstallationCache();
+        cache.setInstalled("node", "/tools", "http://hub", "3.1.0", 1000);
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", "3.1.0", 0, 1000));
+        cache.invalidate("node");
+        assertFalse(cache.isCurrent("node", "/tools", "http://hub", "3.1.0", TTL, 1000));
+    }
+
+    @Test
+    public void testLockPerNode() {
+        final CLIInstallationCache cache = new CLIInstallationCache();
+        final Object lock = cache.acquireLock("node");
+        assertSame(lock, cache.acquireLock("node"));
+        assertFalse(lock == cache.acquireLock("other"));
+        cache.releaseLock("node");
+        cache.releaseLock("node");
+        cache.releaseLock("other");
+        assertEquals(0, cache.getLockCount());
+    }
+
+}
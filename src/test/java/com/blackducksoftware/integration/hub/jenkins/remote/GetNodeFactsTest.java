@@ -21,27 +21,26 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins.remote;
 
-import hudson.remoting.Callable;
+import static org.junit.Assert.assertEquals;
 
-import java.io.IOException;
+import java.io.File;
 
 import org.apache.commons.lang3.SystemUtils;
-import org.jenkinsci.remoting.Role;
-import org.jenkinsci.remoting.RoleChecker;
+import org.junit.Test;
 
-public class GetIsOsWindows implements Callable<Boolean, IOException> {
-    private static final long serialVersionUID = 3459269768733083577L;
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeFacts;
 
-    public GetIsOsWindows() {
-    }
+public class GetNodeFactsTest {
 
-    @Override
-    public Boolean call() throws IOException {
-        return SystemUtils.IS_OS_WINDOWS;
+    @Test
+    public void testNodeFacts() throws Exception {
+        final NodeFacts facts = new GetNodeFacts(5000).call();
+        assertEquals(SystemUtils.IS_OS_WINDOWS, facts.isWindows());
+        assertEquals(SystemUtils.IS_OS_MAC, facts.isMac());
+        assertEquals(File.separator, facts.getSeparator());
+        assertEquals(File.pathSeparator, facts.getPathSeparator());
+        assertEquals(System.getProperty("java.class.version"), facts.getJavaClassVersion());
+        assertEquals(System.getProperty("java.home"), facts.getJavaHome());
     }
 
-    @Override
-    public void checkRoles(RoleChecker checker) throws SecurityException {
-        checker.check(this, new Role(GetIsOsWindows.class));
-    }
 }
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.blackducksoftware.integration.hub.jenkins.scan.NodeProbe;
+
+public class GetNodeProbeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testScanTargets() throws Exception {
+        final File existingTarget = folder.newFolder("target");
+        final File missingTarget = new File(folder.getRoot(), "missing");
+        // A target with a relative segment is canonicalized
+        final File relativeTarget = new File(existingTarget, "../target");
+
+        final GetNodeProbe getNodeProbe = new GetNodeProbe(null);
+        getNodeProbe.setScanTargets(Arrays.asList(existingTarget.getAbsolutePath(), missingTarget.getAbsolutePath(),
+                relativeTarget.getAbsolutePath()));
+        final NodeProbe probe = getNodeProbe.call();
+
+        assertEquals(SystemUtils.IS_OS_WINDOWS, probe.isWindows());
+        assertEquals(3, probe.getScanTargets().size());
+        assertEquals(existingTarget.getCanonicalPath(), probe.getScanTargets().get(0));
+        assertTrue(probe.getScanTargetExists(existingTarget.getCanonicalPath()));
+        assertEquals(missingTarget.getCanonicalPath(), probe.getScanTargets().get(1));
+        assertFalse(probe.getScanTargetExists(missingTarget.getCanonicalPath()));
+        assertEquals(existingTarget.getCanonicalPath(), probe.getScanTargets().get(2));
+        assertTrue(probe.getErrors().isEmpty());
+        // Two remote calls per target are replaced by the probe
+        assertEquals(6, probe.getReplacedCallCount());
+    }
+
+    @Test
+    public void testNoCLIFactsWithoutToolsDirectory() throws Exception {
+        final GetNodeProbe getNodeProbe = new GetNodeProbe(null);
+        getNodeProbe.setJavaHome(System.getProperty("java.home"));
+        final NodeProbe probe = getNodeProbe.call();
+
+        assertTrue(probe.getScanTargets().isEmpty());
+        assertFalse(probe.isCliExists());
+        assertNull(probe.getCliPath());
+        assertNull(probe.getJavaExec());
+        assertEquals(0, probe.getReplacedCallCount());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MergeScanStatusDirectoriesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMergeWithSameFileNames() throws Exception {
+        // Two CLI runs can write a status file with the same name
+        final File first = folder.newFolder("target_0");
+        final File second = folder.newFolder("target_1");
+        FileUtils.write(new File(first, "scan.json"), "first status", "UTF-8");
+        FileUtils.write(new File(first, "other.json"), "other status", "UTF-8");
+        FileUtils.write(new File(second, "scan.json"), "second status", "UTF-8");
+        final File target = new File(folder.getRoot(), "status");
+
+        final int statusFiles = new MergeScanStatusDirectories(
+                Arrays.asList(first.getAbsolutePath(), second.getAbsolutePath()), target.getAbsolutePath()).call();
+        assertEquals(3, statusFiles);
+        assertEquals("first status", FileUtils.readFileToString(new File(target, "0_scan.json"), "UTF-8"));
+        assertEquals("other status", FileUtils.readFileToString(new File(target, "0_other.json"), "UTF-8"));
+        assertEquals("second status", FileUtils.readFileToString(new File(target, "1_scan.json"), "UTF-8"));
+        assertFalse(first.exists());
+        assertFalse(second.exists());
+    }
+
+    @Test
+    public void testMergeWithMissingSource() throws Exception {
+        // A CLI run that failed before writing its status leaves no status directory
+        final File first = folder.newFolder("target_0");
+        FileUtils.write(new File(first, "scan.json"), "first status", "UTF-8");
+        final File missing = new File(folder.getRoot(), "target_1");
+        final File target = new File(folder.getRoot(), "status");
+
+        final int statusFiles = new MergeScanStatusDirectories(
+                Arrays.asList(first.getAbsolutePath(), missing.getAbsolutePath()), target.getAbsolutePath()).call();
+        assertEquals(1, statusFiles);
+        assertTrue(new File(target, "0_scan.json").isFile());
+    }
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+
+public class ReadScanStatusFilesTest {
+
+    private static final String SCAN_SUMMARY_HREF = "http://hub/api/scan-summaries/1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String getStatusJson(final String href) {
+        return "{\"status\":\"COMPLETE\",\"_meta\":{\"href\":\"" + href + "\"}}";
+    }
+
+    private void assertInvalid(final String scanStatusDirectory, final int expectedNumScans,
+            final String expectedMessage) {
+        try {
+            new ReadScanStatusFiles(scanStatusDirectory, expectedNumScans).call();
+            fail("Expected a HubIntegrationException");
+        } catch (final HubIntegrationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+        }
+    }
+
+    @Test
+    public void testMissingDirectory() throws Exception {
+        final File missing = new File(folder.getRoot(), "missing");
+        assertInvalid(missing.getAbsolutePath(), 1, "does not exist");
+    }
+
+    @Test
+    public void testDirectoryIsAFile() throws Exception {
+        final File file = folder.newFile("status");
+        assertInvalid(file.getAbsolutePath(), 1, "is not a directory");
+    }
+
+    @Test
+    public void testEmptyDirectory() throws Exception {
+        final File statusDirectory = folder.newFolder("status");
+        assertInvalid(statusDirectory.getAbsolutePath(), 1, "Can not find the scan status files");
+    }
+
+    @Test
+    public void testStatusFileCountMismatch() throws Exception {
+        final File statusDirectory = folder.newFolder("status");
+        FileUtils.writeStringToFile(new File(statusDirectory, "scan1.json"), getStatusJson(SCAN_SUMMARY_HREF), "UTF-8");
+        assertInvalid(statusDirectory.getAbsolutePath(), 2, "There were 2 scans configured and we found 1");
+    }
+
+    @Test
+    public void testInvalidJsonKeepsTheFiles() throws Exception {
+        final File statusDirectory = folder.newFolder("status");
+        final File validFile = new File(statusDirectory, "scan1.json");
+        final File invalidFile = new File(statusDirectory, "scan2.json");
+        FileUtils.writeStringToFile(validFile, getStatusJson(SCAN_SUMMARY_HREF), "UTF-8");
+        FileUtils.writeStringToFile(invalidFile, "not json {", "UTF-8");
+        assertInvalid(statusDirectory.getAbsolutePath(), 2, "does not contain valid scan status json");
+        assertTrue(validFile.exists());
+        assertTrue(invalidFile.exists());
+    }
+
+    @Test
+    public void testStatusWithoutMeta() throws Exception {
+        final File statusDirectory = folder.newFolder("status");
+        final File statusFile = new File(statusDirectory, "scan1.json");
+        FileUtils.writeStringToFile(statusFile, "{\"status\":\"COMPLETE\"}", "UTF-8");
+        assertInvalid(statusDirectory.getAbsolutePath(), 1, "does not contain valid scan status json");
+        assertTrue(statusFile.exists());
+    }
+
+    @Test
+    public void testValidStatusFiles() throws Exception {
+        final File statusDirectory = folder.newFolder("status");
+        FileUtils.writeStringToFile(new File(statusDirectory, "scan1.json"), getStatusJson(SCAN_SUMMARY_HREF), "UTF-8");
+        final List<String> hrefs = new ReadScanStatusFiles(statusDirectory.getAbsolutePath(), 1).call();
+        assertEquals(1, hrefs.size());
+        assertEquals(SCAN_SUMMARY_HREF, hrefs.get(0));
+        assertFalse(statusDirectory.exists());
+    }
+
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RemoteCallablesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParseMemAvailable() {
+        final String meminfo = "MemTotal:       16318664 kB\nMemFree:          524288 kB\n"
+                + "MemAvailable:    8388608 kB\nBuffers:          102400 kB\n";
+        assertEquals(8192L, GetFreePhysicalMemory.parseMemAvailable(meminfo));
+        assertEquals(8192L, GetFreePhysicalMemory.parseMemAvailable(meminfo.replace("\n", "\r\n")));
+    }
+
+    @Test
+    public void testParseMemAvailableMissing() {
+        // kernels older than 3.14 do not report MemAvailable
+        assertEquals(-1L, GetFreePhysicalMemory.parseMemAvailable("MemTotal: 16318664 kB\nMemFree: 524288 kB\n"));
+        assertEquals(-1L, GetFreePhysicalMemory.parseMemAvailable("MemAvailable: unknown kB\n"));
+        assertEquals(-1L, GetFreePhysicalMemory.parseMemAvailable(""));
+    }
+
+    @Test
+    public void testFileContains() throws Exception {
+        final File log = folder.newFile("cli.log");
+        FileUtils.writeStringToFile(log, "Starting the scan\nException in thread \"main\" "
+                + "java.lang.OutOfMemoryError: Java heap space\n\tat java.util.Arrays.copyOf\n", "UTF-8");
+        assertTrue(new FileContains(log.getAbsolutePath(), "java.lang.OutOfMemoryError").call());
+        assertFalse(new FileContains(log.getAbsolutePath(), "java.lang.StackOverflowError").call());
+    }
+
+    @Test
+    public void testFileContainsMissingFile() throws Exception {
+        final File missing = new File(folder.getRoot(), "missing.log");
+        assertFalse(new FileContains(missing.getAbsolutePath(), "java.lang.OutOfMemoryError").call());
+    }
+
+}
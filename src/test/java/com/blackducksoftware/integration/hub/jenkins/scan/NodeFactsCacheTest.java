@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.GetNodeFacts;
+
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+
+public class NodeFactsCacheTest {
+
+    private VirtualChannel getChannel(final String hostName) throws Exception {
+        final NodeFacts facts = new NodeFacts();
+        facts.setHostName(hostName);
+        final VirtualChannel channel = mock(VirtualChannel.class);
+        when(channel.call(any(GetNodeFacts.class))).thenReturn(facts);
+        return channel;
+    }
+
+    private Node getNode(final String nodeName, final VirtualChannel channel) {
+        final Node node = mock(Node.class);
+        when(node.getNodeName()).thenReturn(nodeName);
+        when(node.getDisplayName()).thenReturn(nodeName);
+        when(node.getChannel()).thenReturn(channel);
+        return node;
+    }
+
+    @Test
+    public void testFactsCachedPerNode() throws Exception {
+        final NodeFactsCache cache = new NodeFactsCache();
+        final VirtualChannel channel = getChannel("host1");
+        final Node node = getNode("node1", channel);
+        final NodeFacts facts = cache.getFacts(node);
+        assertEquals("host1", facts.getHostName());
+        assertSame(facts, cache.getFacts(node));
+        verify(channel, times(1)).call(any(GetNodeFacts.class));
+
+        final VirtualChannel otherChannel = getChannel("host2");
+        assertEquals("host2", cache.getFacts(getNode("node2", otherChannel)).getHostName());
+        verify(otherChannel, times(1)).call(any(GetNodeFacts.class));
+    }
+
+    @Test
+    public void testFactsCollectedAgainOverANewChannel() throws Exception {
+        final NodeFactsCache cache = new NodeFactsCache();
+        final VirtualChannel channel = getChannel("host1");
+        cache.getFacts(getNode("node1", channel));
+
+        // The node reconnected, possibly to a new machine with the same name
+        final VirtualChannel newChannel = getChannel("host2");
+        final Node reconnectedNode = getNode("node1", newChannel);
+        assertEquals("host2", cache.getFacts(reconnectedNode).getHostName());
+        assertEquals("host2", cache.getFacts(reconnectedNode).getHostName());
+        verify(channel, times(1)).call(any(GetNodeFacts.class));
+        verify(newChannel, times(1)).call(any(GetNodeFacts.class));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final NodeFactsCache cache = new NodeFactsCache();
+        final VirtualChannel channel = getChannel("host1");
+        final Node node = getNode("node1", channel);
+        cache.getFacts(node);
+        cache.invalidate("node1");
+        cache.getFacts(node);
+        verify(channel, times(2)).call(any(GetNodeFacts.class));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOfflineNode() throws Exception {
+        new NodeFactsCache().getFacts(getNode("node1", null));
+    }
+
+}
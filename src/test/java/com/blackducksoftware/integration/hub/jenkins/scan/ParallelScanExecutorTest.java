@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.blackducksoftware.integration.hub.ScanExecutor.Result;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.remote.MergeScanStatusDirectories;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+
+public class ParallelScanExecutorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Node getNode() throws Exception {
+        final VirtualChannel channel = mock(VirtualChannel.class);
+        when(channel.call(any(MergeScanStatusDirectories.class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(final InvocationOnMock invocation) throws Throwable {
+                return ((MergeScanStatusDirectories) invocation.getArguments()[0]).call();
+            }
+        });
+        final Node node = mock(Node.class);
+        when(node.getChannel()).thenReturn(channel);
+        return node;
+    }
+
+    private JenkinsScanExecutor getScan(final Result result, final String statusFileName) throws Exception {
+        final File statusDirectory = folder.newFolder();
+        FileUtils.write(new File(statusDirectory, statusFileName), "status", "UTF-8");
+        final JenkinsScanExecutor scan = mock(JenkinsScanExecutor.class);
+        when(scan.setupAndRunScan("scan.cli.sh", "cache/scan.cli.impl-standalone.jar", "java")).thenReturn(result);
+        when(scan.getScanStatusDirectoryPath()).thenReturn(statusDirectory.getAbsolutePath());
+        return scan;
+    }
+
+    @Test
+    public void testPoolSize() {
+        final List<JenkinsScanExecutor> scans = new ArrayList<JenkinsScanExecutor>();
+        for (int i = 0; i < 6; i++) {
+            scans.add(mock(JenkinsScanExecutor.class));
+        }
+        assertEquals(4, new ParallelScanExecutor(null, null, null, scans, 4).getPoolSize());
+        assertEquals(1, new ParallelScanExecutor(null, null, null, scans, 0).getPoolSize());
+        assertEquals(2, new ParallelScanExecutor(null, null, null, scans.subList(0, 2), 4).getPoolSize());
+    }
+
+    @Test
+    public void testAllScansSuccessful() throws Exception {
+        final List<JenkinsScanExecutor> scans = Arrays.asList(getScan(Result.SUCCESS, "scan.json"),
+                getScan(Result.SUCCESS, "scan.json"), getScan(Result.SUCCESS, "scan.json"));
+        final File statusDirectory = new File(folder.getRoot(), "status");
+        final ParallelScanExecutor executor = new ParallelScanExecutor(getNode(),
+                new HubJenkinsLogger(new TestBuildListener(new StoredPrintStream())), Arrays.asList("a", "b", "c"),
+                scans, 2);
+
+        final Result result = executor.runScans("scan.cli.sh", "cache/scan.cli.impl-standalone.jar", "java",
+                statusDirectory.getAbsolutePath());
+        assertEquals(Result.SUCCESS, result);
+        for (final JenkinsScanExecutor scan : scans) {
+            verify(scan, times(1)).setupAndRunScan("scan.cli.sh", "cache/scan.cli.impl-standalone.jar", "java");
+        }
+        // One status file per scan, the same file names do not overwrite each other
+        assertEquals(3, statusDirectory.list().length);
+    }
+
+    @Test
+    public void testOneScanFailed() throws Exception {
+        final JenkinsScanExecutor failingScan = mock(JenkinsScanExecutor.class);
+        when(failingScan.setupAndRunScan("scan.cli.sh", "cache/scan.cli.impl-standalone.jar", "java"))
+                .thenThrow(new IllegalStateException("The CLI could not start"));
+        when(failingScan.getScanStatusDirectoryPath())
+                .thenReturn(new File(folder.getRoot(), "missing").getAbsolutePath());
+        final List<JenkinsScanExecutor> scans = Arrays.asList(getScan(Result.SUCCESS, "scan.json"), failingScan,
+                getScan(Result.FAILURE, "scan.json"));
+        final File statusDirectory = new File(folder.getRoot(), "status");
+        final StoredPrintStream output = new StoredPrintStream();
+        final ParallelScanExecutor executor = new ParallelScanExecutor(getNode(),
+                new HubJenkinsLogger(new TestBuildListener(output)), Arrays.asList("a", "b", "c"), scans, 4);
+
+        final Result result = executor.runScans("scan.cli.sh", "cache/scan.cli.impl-standalone.jar", "java",
+                statusDirectory.getAbsolutePath());
+        assertEquals(Result.FAILURE, result);
+        // The status files of the other scans are still merged
+        assertEquals(2, statusDirectory.list().length);
+        assertTrue(output.getOutputString().contains("The scan of the target : b failed"));
+        assertTrue(output.getOutputString().contains("The scan of the target : c was not successful."));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ScanMemoryAdmissionControllerTest {
+
+    @Test
+    public void testUnlimitedNode() throws Exception {
+        final ScanMemoryAdmissionController controller = new ScanMemoryAdmissionController();
+        final ScanMemoryAdmissionController.Reservation reservation = controller.reserve("node", 0, 4096, null);
+        assertEquals(0, controller.getReservedMemory("node"));
+        reservation.release();
+    }
+
+    @Test
+    public void testReserveAndRelease() throws Exception {
+        final ScanMemoryAdmissionController controller = new ScanMemoryAdmissionController();
+        final ScanMemoryAdmissionController.Reservation first = controller.reserve("node", 8192, 4096, null);
+        final ScanMemoryAdmissionController.Reservation second = controller.reserve("node", 8192, 4096, null);
+        assertEquals(8192, controller.getReservedMemory("node"));
+        assertEquals(0, controller.getReservedMemory("other"));
+        first.release();
+        first.release();
+        assertEquals(4096, controller.getReservedMemory("node"));
+        second.release();
+        assertEquals(0, controller.getReservedMemory("node"));
+    }
+
+    @Test
+    public void testOversizeScanAdmittedWhenNodeIsEmpty() throws Exception {
+        final ScanMemoryAdmissionController controller = new ScanMemoryAdmissionController();
+        final ScanMemoryAdmissionController.Reservation reservation = controller.reserve("node", 2048, 4096, null);
+        assertEquals(4096, controller.getReservedMemory("node"));
+        reservation.release();
+    }
+
+    @Test
+    public void testScanWaitsForMemory() throws Exception {
+        final ScanMemoryAdmissionController controller = new ScanMemoryAdmissionController();
+        final ScanMemoryAdmissionController.Reservation first = controller.reserve("node", 6144, 4096, null);
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final Thread waitingScan = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    controller.reserve("node", 6144, 4096, null).release();
+                    admitted.countDown();
+                } catch (final InterruptedException e) {
+                    // the test fails on the latch
+                }
+            }
+        };
+        waitingScan.start();
+        assertFalse(admitted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, controller.getWaitingScans("node"));
+        first.release();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        assertEquals(0, controller.getReservedMemory("node"));
+    }
+
+}
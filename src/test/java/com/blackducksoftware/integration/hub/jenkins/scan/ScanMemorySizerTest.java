@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ScanMemorySizerTest {
+
+    @Test
+    public void testIsAutoScanMemory() {
+        assertTrue(ScanMemorySizer.isAutoScanMemory("auto"));
+        assertTrue(ScanMemorySizer.isAutoScanMemory(" AUTO "));
+        assertFalse(ScanMemorySizer.isAutoScanMemory("4096"));
+        assertFalse(ScanMemorySizer.isAutoScanMemory(null));
+    }
+
+    @Test
+    public void testEstimatedScanMemory() {
+        final ScanMemorySizer sizer = new ScanMemorySizer();
+        assertEquals(ScanMemorySizer.MINIMUM_SCAN_MEMORY, sizer.getEstimatedScanMemory(10, 1024));
+        // 1024 base + 400 for 100,000 files + 320 for 10 GB, rounded up to 1792
+        assertEquals(1792, sizer.getEstimatedScanMemory(100000, 10L * 1024L * 1024L * 1024L));
+        assertEquals(ScanMemorySizer.MAXIMUM_SCAN_MEMORY, sizer.getEstimatedScanMemory(100000000, 0));
+    }
+
+    @Test
+    public void testScanMemoryFromHistory() {
+        final ScanMemorySizer sizer = new ScanMemorySizer();
+        final List<ScanMemoryHistory.Record> history = new ArrayList<ScanMemoryHistory.Record>();
+        history.add(new ScanMemoryHistory.Record(2048, 100000, 0, true, false));
+        // 1.5 times the heap that ran out of memory
+        assertEquals(3072, sizer.getScanMemory(100000, 0, history, -1));
+        // scaled up with the number of files
+        assertEquals(6144, sizer.getScanMemory(200000, 0, history, -1));
+
+        history.clear();
+        history.add(new ScanMemoryHistory.Record(1024, 1000000, 0, false, true));
+        // enough for the same number of files before, lower than the estimate
+        assertEquals(1024, sizer.getScanMemory(1000000, 0, history, -1));
+    }
+
+    @Test
+    public void testScanMemoryCappedByFreeMemory() {
+        final ScanMemorySizer sizer = new ScanMemorySizer();
+        final List<ScanMemoryHistory.Record> history = new ArrayList<ScanMemoryHistory.Record>();
+        assertEquals(4096, sizer.getScanMemory(768000, 0, history, -1));
+        assertEquals(2560, sizer.getScanMemory(768000, 0, history, 3100));
+        assertEquals(ScanMemorySizer.MINIMUM_SCAN_MEMORY, sizer.getScanMemory(768000, 0, history, 100));
+    }
+
+}
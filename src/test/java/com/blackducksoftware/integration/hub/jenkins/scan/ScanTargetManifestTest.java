@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.GetScanTargetManifest;
+
+public class ScanTargetManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnchangedTarget() throws Exception {
+        final File target = folder.newFolder("target");
+        FileUtils.write(new File(target, "a.txt"), "first file", "UTF-8");
+        FileUtils.write(new File(target, "sub/b.txt"), "second file", "UTF-8");
+
+        final ScanTargetManifest first = new GetScanTargetManifest(target.getAbsolutePath(), null).call();
+        assertEquals(2, first.getFileCount());
+        assertEquals(2, first.getHashedFileCount());
+        assertNotNull(first.getFile("/sub/b.txt"));
+
+        final ScanTargetManifest second = new GetScanTargetManifest(target.getAbsolutePath(), first).call();
+        assertEquals(0, second.getHashedFileCount());
+        assertTrue(second.hasSameContent(first));
+    }
+
+    @Test
+    public void testChangedTarget() throws Exception {
+        final File target = folder.newFolder("target");
+        final File file = new File(target, "a.txt");
+        FileUtils.write(file, "first file", "UTF-8");
+
+        final ScanTargetManifest first = new GetScanTargetManifest(target.getAbsolutePath(), null).call();
+        FileUtils.write(file, "changed file", "UTF-8");
+        file.setLastModified(file.lastModified() + 2000);
+        final ScanTargetManifest changed = new GetScanTargetManifest(target.getAbsolutePath(), first).call();
+        assertEquals(1, changed.getHashedFileCount());
+        assertFalse(changed.hasSameContent(first));
+
+        FileUtils.write(new File(target, "new.txt"), "new file", "UTF-8");
+        final ScanTargetManifest added = new GetScanTargetManifest(target.getAbsolutePath(), changed).call();
+        assertEquals(1, added.getHashedFileCount());
+        assertFalse(added.hasSameContent(changed));
+        assertFalse(added.hasSameContent(null));
+    }
+
+    @Test
+    public void testSymbolicLinkCycle() throws Exception {
+        final File target = folder.newFolder("target");
+        FileUtils.write(new File(target, "a.txt"), "first file", "UTF-8");
+        FileUtils.write(new File(target, "sub/b.txt"), "second file", "UTF-8");
+        try {
+            Files.createSymbolicLink(new File(target, "sub/parent").toPath(), target.toPath());
+        } catch (final UnsupportedOperationException e) {
+            Assume.assumeNoException(e);
+        } catch (final IOException e) {
+            // Windows requires a privilege to create symbolic links
+            Assume.assumeNoException(e);
+        }
+
+        final ScanTargetManifest manifest = new GetScanTargetManifest(target.getAbsolutePath(), null).call();
+        assertEquals(2, manifest.getFileCount());
+        assertNotNull(manifest.getFile("/a.txt"));
+        assertNotNull(manifest.getFile("/sub/b.txt"));
+    }
+
+    @Test
+    public void testLogDirectoryExcluded() throws Exception {
+        final File workspace = folder.newFolder("workspace");
+        FileUtils.write(new File(workspace, "a.txt"), "first file", "UTF-8");
+        final File logRoot = new File(workspace, JenkinsScanExecutor.LOG_ROOT_DIRECTORY_NAME);
+        FileUtils.write(new File(logRoot, "1/log.txt"), "first log", "UTF-8");
+
+        final ScanTargetManifest first = new GetScanTargetManifest(workspace.getAbsolutePath(), null,
+                logRoot.getAbsolutePath()).call();
+        assertEquals(1, first.getFileCount());
+
+        FileUtils.write(new File(logRoot, "2/log.txt"), "second log", "UTF-8");
+        final ScanTargetManifest second = new GetScanTargetManifest(workspace.getAbsolutePath(), first,
+                logRoot.getAbsolutePath()).call();
+        assertEquals(0, second.getHashedFileCount());
+        assertTrue(second.hasSameContent(first));
+    }
+
+    @Test
+    public void testManifestStore() throws Exception {
+        final File target = folder.newFolder("target");
+        FileUtils.write(new File(target, "a.txt"), "first file", "UTF-8");
+        final ScanTargetManifest manifest = new GetScanTargetManifest(target.getAbsolutePath(), null).call();
+
+        final ScanManifestStore store = new ScanManifestStore(folder.newFolder("job"), "http://hub", "Project",
+                "Version");
+        assertNull(store.load(target.getAbsolutePath()));
+        store.save(manifest);
+        assertTrue(manifest.hasSameContent(store.load(target.getAbsolutePath())));
+
+        final ScanManifestStore otherVersionStore = new ScanManifestStore(store.getManifestDirectory().getParentFile(),
+                "http://hub", "Project", "Other Version");
+        assertNull(otherVersionStore.load(target.getAbsolutePath()));
+    }
+
+}